@@ -5,6 +5,7 @@ package cz.muni.fi.xstupka.rwtester;
 
 import cz.muni.fi.xstupka.rwtester.graph.Graph;
 import cz.muni.fi.xstupka.rwtester.graph.GraphException;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitGraph;
 import cz.muni.fi.xstupka.rwtester.graph.Vertex;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -53,6 +54,17 @@ public class BFS {
         Vertex s = graph.getVertex(vertex);
         s.setLength(0);
         
+        // implicitni grafy jsou souvisle a vzdalenosti se daji spocitat
+        // primo, prohledavani by muselo projit vsechny hrany
+        if (graph instanceof ImplicitGraph) {
+            ImplicitGraph implicit = (ImplicitGraph) graph;
+            for (Vertex v : graph.getVertices()) {
+                v.setLength(implicit.getDistance(s.getIndex(), v.getIndex()));
+            }
+            reachedVertices = graph.getNumberOfVertices();
+            return;
+        }
+        
         Queue<Vertex> queue = new LinkedList<Vertex>();
         queue.offer(s);
         
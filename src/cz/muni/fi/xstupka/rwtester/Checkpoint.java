@@ -0,0 +1,288 @@
+// File: Checkpoint.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Tato trida obsahuje kontrolni bod testovani nahodne prochazky v rezimu
+ * pokryti grafu: parametry testovani, vysledky dokoncenych behu (prubezny
+ * prumer <code>RWResult</code> a soucty prumerneho grafu) a snimek stavu
+ * prave rozbehnute nahodne prochazky (<code>WalkState</code>).
+ * <p>
+ * Kontrolni bod se zapisuje atomicky - nejprve do docasneho souboru, ktery
+ * se pote prejmenuje, v souboru je tedy vzdy cely posledni kontrolni bod.
+ * Instance jsou po vytvoreni nemenne, zmeny vytvari nove instance.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class Checkpoint implements Serializable, Cloneable {
+
+    private static final long serialVersionUID = 1L;
+
+    // pripona docasneho souboru pri zapisu
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    // popis grafu pro kontrolu, ze se pokracuje na stejnem grafu
+    private int vertices;
+    private int edges;
+    private boolean directed;
+    private long names;
+
+    // parametry testovani
+    private String startVertex;
+    private int coverage;
+    private int runs;
+    private int mode;
+    private boolean discoverMode;
+    private long stepLimit;
+    private Long seed;
+
+    // dokoncene behy
+    private int completedRuns;
+    private RWResult result;
+    private long[] averageVisits;
+    private long[] averageTimes;
+
+    // rozbehnuta nahodna prochazka, null mezi behy
+    private WalkState walk;
+
+    /**
+     * Vytvori novou instanci tridy Checkpoint bez dokoncenych behu
+     *
+     * @param graph testovany graf
+     * @param startVertex pocatecni vrchol
+     * @param coverage pozadovane procentualni pokryti
+     * @param runs celkovy pocet behu
+     * @param mode mod nahodne prochazky
+     * @param discoverMode zda-li je zapnut discover mod
+     * @param stepLimit maximalni pocet kroku jednoho behu
+     * @param seed semeno nahodne prochazky (null, pokud neni zadano)
+     */
+    public Checkpoint(Graph graph, String startVertex, int coverage, int runs,
+            int mode, boolean discoverMode, long stepLimit, Long seed) {
+        vertices = graph.getNumberOfVertices();
+        edges = graph.getNumberOfEdges();
+        directed = graph.isDirected();
+        names = computeNames(graph);
+        this.startVertex = startVertex;
+        this.coverage = coverage;
+        this.runs = runs;
+        this.mode = mode;
+        this.discoverMode = discoverMode;
+        this.stepLimit = stepLimit;
+        this.seed = seed;
+    }
+
+    /**
+     * Vraci kopii kontrolniho bodu s vysledky dokoncenych behu a bez
+     * rozbehnute nahodne prochazky. Prubezny vysledek se zkopiruje,
+     * volajici ho tedy muze dale menit.
+     *
+     * @param completedRuns pocet dokoncenych behu
+     * @param result prubezny prumer dokoncenych behu
+     * @param averageVisits soucty poctu navstiveni vrcholu (indexy vrcholu)
+     * @param averageTimes soucty casu prvniho pristupu vrcholu (indexy vrcholu)
+     * @return novy kontrolni bod
+     */
+    public Checkpoint withCompleted(int completedRuns, RWResult result,
+            long[] averageVisits, long[] averageTimes) {
+        Checkpoint foo = copyFields();
+        foo.completedRuns = completedRuns;
+        foo.result = (RWResult) copy(result);
+        foo.averageVisits = averageVisits;
+        foo.averageTimes = averageTimes;
+        foo.walk = null;
+        return foo;
+    }
+
+    /**
+     * Vraci kopii kontrolniho bodu se snimkem rozbehnute nahodne prochazky
+     *
+     * @param walk snimek nahodne prochazky
+     * @return novy kontrolni bod
+     */
+    public Checkpoint withWalk(WalkState walk) {
+        Checkpoint foo = copyFields();
+        foo.walk = walk;
+        return foo;
+    }
+
+    /**
+     * Porovna graf a parametry testovani s jinym kontrolnim bodem.
+     *
+     * @param other kontrolni bod, se kterym se ma porovnat
+     * @return popis prvniho rozdilu nebo null, pokud se shoduji
+     */
+    public String getMismatch(Checkpoint other) {
+        if (vertices != other.vertices || edges != other.edges
+                || directed != other.directed || names != other.names) {
+            return "different graph";
+        }
+        if (!startVertex.equals(other.startVertex)) {
+            return "start vertex " + other.startVertex;
+        }
+        if (coverage != other.coverage) {
+            return "coverage " + other.coverage;
+        }
+        if (runs != other.runs) {
+            return "loops " + other.runs;
+        }
+        if (mode != other.mode) {
+            return "rwmode " + other.mode;
+        }
+        if (discoverMode != other.discoverMode) {
+            return "discover mode " + other.discoverMode;
+        }
+        if (stepLimit != other.stepLimit) {
+            return "step limit " + other.stepLimit;
+        }
+        if (seed == null ? other.seed != null : !seed.equals(other.seed)) {
+            return other.seed == null ? "no seed" : "seed " + other.seed;
+        }
+        return null;
+    }
+
+    /**
+     * Zapise kontrolni bod do souboru. Zapisuje se do docasneho souboru
+     * (jmeno s priponou TEMP_SUFFIX), ktery se po zapsani na disk
+     * prejmenuje na pozadovany soubor.
+     *
+     * @param file soubor kontrolniho bodu
+     * @throw IOException pokud dojde k chybe pri zapisu
+     */
+    public void write(File file) throws IOException {
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        FileOutputStream stream = new FileOutputStream(temp);
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeObject(this);
+            out.flush();
+            stream.getFD().sync();
+        } finally {
+            stream.close();
+        }
+
+        // na nekterych systemech nelze prejmenovat na existujici soubor
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                throw new IOException("can't rename " + temp + " to " + file);
+            }
+        }
+    }
+
+    /**
+     * Nacte kontrolni bod ze souboru
+     *
+     * @param file soubor kontrolniho bodu
+     * @return nacteny kontrolni bod
+     * @throw IOException pokud dojde k chybe pri cteni nebo soubor neobsahuje
+     *     kontrolni bod
+     */
+    public static Checkpoint load(File file) throws IOException {
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        try {
+            return (Checkpoint) in.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("not a checkpoint file: " + file);
+        } catch (ClassCastException ex) {
+            throw new IOException("not a checkpoint file: " + file);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Vytvori hlubokou kopii objektu serializaci
+     *
+     * @param object objekt, ktery se ma zkopirovat
+     * @return kopie objektu
+     */
+    static Object copy(Serializable object) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(object);
+            out.close();
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            return in.readObject();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage());
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Spocita otisk jmen vrcholu v poradi jejich indexu
+     *
+     * @param graph graf
+     * @return otisk jmen vrcholu
+     */
+    static long computeNames(Graph graph) {
+        long hash = 0;
+        for (Vertex v : graph.getVertices()) {
+            hash += (v.getIndex() + 1) * 0x9E3779B97F4A7C15L * v.getName().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Vraci melkou kopii kontrolniho bodu
+     */
+    private Checkpoint copyFields() {
+        try {
+            return (Checkpoint) clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex.getMessage());
+        }
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public String getStartVertex() {
+        return startVertex;
+    }
+
+    public int getCoverage() {
+        return coverage;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getCompletedRuns() {
+        return completedRuns;
+    }
+
+    public RWResult getResult() {
+        return result;
+    }
+
+    public long[] getAverageVisits() {
+        return averageVisits;
+    }
+
+    public long[] getAverageTimes() {
+        return averageTimes;
+    }
+
+    public WalkState getWalk() {
+        return walk;
+    }
+}
@@ -0,0 +1,221 @@
+// File: CheckpointWriter.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tato trida zapisuje kontrolni body testovani nahodne prochazky
+ * (<code>Checkpoint</code>) na pozadi, samostatnym vlaknem. Nahodna
+ * prochazka pouze preda nemenny snimek sveho stavu a pokracuje dal,
+ * na zapis na disk neceka. Pokud se predchozi kontrolni bod jeste zapisuje,
+ * novy snimek ho ve fronte nahradi (zapise se vzdy jen posledni).
+ * <p>
+ * Nahodna prochazka se metodou <code>isDue</code> pta, zda-li jiz uplynul
+ * interval od posledniho kontrolniho bodu. Po dokonceni behu se predava
+ * jen pocet dokoncenych behu, kontrolni bod s jejich vysledky se vytvori
+ * (rozhranim <code>Source</code>) az ve chvili, kdy se ma zapsat.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class CheckpointWriter {
+
+    // implicitni interval kontrolnich bodu (v sekundach)
+    public static final int DEFAULT_INTERVAL = 600;
+
+    private File file;
+    private long interval;
+    private long lastCheckpoint;
+
+    // kontrolni bod s dokoncenymi behy, ke kteremu se pridava stav prochazky
+    private Checkpoint base;
+    private Source source;
+    private int completedRuns;
+    private int queuedRuns;
+
+    private Thread thread;
+    private Checkpoint pending;
+    private boolean closed;
+    private IOException error;
+    private int written;
+
+    /**
+     * Vytvori novou instanci tridy CheckpointWriter a spusti vlakno pro zapis
+     *
+     * @param file soubor kontrolniho bodu
+     * @param interval interval mezi kontrolnimi body v sekundach
+     * @param base kontrolni bod bez rozbehnute nahodne prochazky
+     * @param source zdroj kontrolnich bodu s dokoncenymi behy
+     */
+    public CheckpointWriter(File file, int interval, Checkpoint base, Source source) {
+        this.file = file;
+        this.interval = interval * 1000L;
+        this.base = base;
+        this.source = source;
+        completedRuns = base.getCompletedRuns();
+        queuedRuns = completedRuns;
+        lastCheckpoint = System.currentTimeMillis();
+
+        thread = new Thread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        }, "checkpoint-writer");
+        thread.start();
+    }
+
+    /**
+     * Vraci informaci o tom, zda-li jiz uplynul interval od posledniho
+     * kontrolniho bodu
+     *
+     * @return <code>true</code> pokud se ma vytvorit novy kontrolni bod
+     */
+    public boolean isDue() {
+        return System.currentTimeMillis() - lastCheckpoint >= interval;
+    }
+
+    /**
+     * Preda snimek rozbehnute nahodne prochazky k zapisu na pozadi
+     *
+     * @param walk snimek stavu nahodne prochazky
+     */
+    public void submit(WalkState walk) {
+        lastCheckpoint = System.currentTimeMillis();
+        queuedRuns = completedRuns;
+        enqueue(getBase().withWalk(walk));
+    }
+
+    /**
+     * Nastavi pocet dokoncenych behu. Vola se po kazdem dokoncenem behu,
+     * kontrolni bod se vytvori a preda k zapisu jen pokud uz uplynul
+     * interval od posledniho kontrolniho bodu.
+     *
+     * @param completedRuns pocet dokoncenych behu
+     */
+    public void setCompleted(int completedRuns) {
+        this.completedRuns = completedRuns;
+        if (isDue()) {
+            submitCompleted();
+        }
+    }
+
+    /**
+     * Zapise posledni dokoncene behy (pokud jeste nebyly zapsany), pocka
+     * na zapsani posledniho kontrolniho bodu a ukonci vlakno
+     *
+     * @throw IOException pokud se nektery kontrolni bod nepodarilo zapsat
+     */
+    public void close() throws IOException {
+        if (completedRuns != queuedRuns) {
+            submitCompleted();
+        }
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Vraci pocet zapsanych kontrolnich bodu
+     *
+     * @return pocet zapsanych kontrolnich bodu
+     */
+    public synchronized int getWritten() {
+        return written;
+    }
+
+    /**
+     * Preda k zapisu kontrolni bod s dokoncenymi behy
+     */
+    private void submitCompleted() {
+        lastCheckpoint = System.currentTimeMillis();
+        queuedRuns = completedRuns;
+        enqueue(getBase());
+    }
+
+    /**
+     * Vraci kontrolni bod s aktualnim poctem dokoncenych behu, pripadne
+     * ho necha vytvorit zdrojem
+     */
+    private Checkpoint getBase() {
+        if (base.getCompletedRuns() != completedRuns) {
+            base = source.createCompleted(completedRuns);
+        }
+        return base;
+    }
+
+    /**
+     * Zaradi kontrolni bod k zapisu (nahradi dosud nezapsany)
+     */
+    private synchronized void enqueue(Checkpoint checkpoint) {
+        pending = checkpoint;
+        notifyAll();
+    }
+
+    /**
+     * Smycka zapisovaciho vlakna
+     */
+    private void writeLoop() {
+        while (true) {
+            Checkpoint checkpoint;
+            synchronized (this) {
+                while (pending == null && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+                if (pending == null) {
+                    return;
+                }
+                checkpoint = pending;
+                pending = null;
+            }
+
+            try {
+                checkpoint.write(file);
+                synchronized (this) {
+                    written++;
+                }
+            } catch (IOException ex) {
+                synchronized (this) {
+                    error = ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Zdroj kontrolnich bodu s vysledky dokoncenych behu. Vola se ve vlakne
+     * nahodne prochazky, jen kdyz se ma kontrolni bod zapsat.
+     */
+    public interface Source {
+
+        /**
+         * Vytvori kontrolni bod s vysledky dokoncenych behu
+         *
+         * @param completedRuns pocet dokoncenych behu
+         * @return kontrolni bod bez rozbehnute nahodne prochazky
+         */
+        Checkpoint createCompleted(int completedRuns);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public File getFile() {
+        return file;
+    }
+}
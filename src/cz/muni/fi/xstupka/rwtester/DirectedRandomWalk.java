@@ -17,7 +17,7 @@ public class DirectedRandomWalk extends RandomWalk {
     
     // pravdepodobnost restartu algoritmu v kazdem kroku
     // tzn. 1 / RESTART_CHANCE
-    private static final int RESTART_CHANCE = 1000000;
+    static final int RESTART_CHANCE = 1000000;
     
     private boolean stop;
     private int coverage;
@@ -44,16 +44,41 @@ public class DirectedRandomWalk extends RandomWalk {
      */
     public void runCover(String startVertex, int coverage) throws GraphException {               
         Vertex start = getGraph().getVertex(startVertex);
-        Vertex v = start;
         initGraph();
+        walkCover(start, start, coverage);
+    }
+
+    /**
+     * Pokracuje v nahodne prochazce pro pokryti grafu ze snimku jejiho stavu.
+     *
+     * @param startVertex pocatecni vrchol, ze ktereho byla nahodna prochazka spustena
+     * @param coverage procentualni pokryti, ktere ma byt dosazeno (v procentech)
+     * @param state snimek stavu nahodne prochazky
+     * @throws GraphException pokud vrchol zadaneho jmena v grafu neexistuje
+     */
+    public void resumeCover(String startVertex, int coverage, WalkState state) throws GraphException {
+        Vertex start = getGraph().getVertex(startVertex);
+        Vertex v = restoreState(state);
+        walkCover(start, v, coverage);
+    }
+
+    /**
+     * Provadi nahodnou prochazku pro pokryti grafu z vrcholu <code>v</code>
+     *
+     * @param start pocatecni vrchol, do ktereho se nahodna prochazka restartuje
+     * @param v vrchol, ktery ma nahodna prochazka zpracovat jako dalsi
+     * @param coverage procentualni pokryti, ktere ma byt dosazeno (v procentech)
+     */
+    private void walkCover(Vertex start, Vertex v, int coverage) {
         type = "D-CO";
         
         this.coverage = coverage;
         stop = false;
 
         while (visitedVertices != vertices) {
+            checkpoint(v);
             processVertex(v);
-            if (visitedVertices == vertices || stop) {
+            if (visitedVertices == vertices || stop || isStepLimitReached()) {
                 break;
             }
             Vertex next = getRandomNeighbour(v);
@@ -66,7 +91,7 @@ public class DirectedRandomWalk extends RandomWalk {
             v = next;
         }
         
-        updatePercentageCover();
+        finishRun();
     }
 
     /**
@@ -87,12 +112,15 @@ public class DirectedRandomWalk extends RandomWalk {
         
         if (v.equals(u)) {
             processVertex(v);
-            updatePercentageCover();
+            finishRun();
             return;
         }
         
         while (!v.equals(u)) {
             processVertex(v);
+            if (isStepLimitReached()) {
+                break;
+            }
             
             // ziska seznam sousedu
             if (isDiscoverMode()) {
@@ -116,7 +144,7 @@ public class DirectedRandomWalk extends RandomWalk {
             v = next;
         }       
         
-        updatePercentageCover();
+        finishRun();
     }    
     
     /**
@@ -125,6 +153,8 @@ public class DirectedRandomWalk extends RandomWalk {
      * @param v vrchol, ktery ma byt v danem momenta zpracovan
      */
     private void processVertex(Vertex v) {
+        recordVisit(v);
+        
         // nalezen novy doposud neobjeveny vrchol
         if (v.getValueB() == INFINITY) {
             v.setValueB(time);
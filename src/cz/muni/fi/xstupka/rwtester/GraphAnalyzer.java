@@ -4,16 +4,22 @@
 package cz.muni.fi.xstupka.rwtester;
 
 import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.GzipFiles;
+import cz.muni.fi.xstupka.rwtester.graph.RangeExecutor;
+import cz.muni.fi.xstupka.rwtester.graph.RangeTask;
+import cz.muni.fi.xstupka.rwtester.graph.TextOutput;
 import cz.muni.fi.xstupka.rwtester.graph.Vertex;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Collection;
+import java.util.AbstractList;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Tato trida slouzi k analyze grafu
+ * Tato trida slouzi k analyze grafu.
+ * Stupne vrcholu se pocitaji paralelne - pole vrcholu se rozdeli na souvisle
+ * useky, kazde vlakno spocita histogram stupnu sveho useku a histogramy se
+ * nakonec sectou.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
@@ -24,11 +30,13 @@ public class GraphAnalyzer {
     public final static int OUT_DEGREE = 2;
 
     private Graph graph;
+    private int threads;
+    private boolean compressed;
 
-    private List<String> vertices;
-    private List<Integer> degrees;
-    private List<Integer> inDegrees;
-    private List<Integer> outDegrees;
+    private Vertex[] vertexArray;
+    private int[] degreeArray;
+    private int[] inDegreeArray;
+    private int[] outDegreeArray;
     
     // vysledna zavislost poctu vrcholu na stupni vrcholu
     // (jestli se graf ridi mocninnym zakonem resp. je-li graf bezskalovy)
@@ -47,11 +55,7 @@ public class GraphAnalyzer {
             throw new NullPointerException();
         }
         this.graph = graph;
-
-        vertices = new LinkedList<String>();
-        degrees = new LinkedList<Integer>();
-        inDegrees = new LinkedList<Integer>();
-        outDegrees = new LinkedList<Integer>();
+        setThreads(1);
     }
     
     /**
@@ -59,7 +63,14 @@ public class GraphAnalyzer {
      * @return list of vertices
      */
     public List<String> getVertices() {
-        return vertices;
+        return new AbstractList<String>() {
+            public String get(int index) {
+                return vertexArray[index].getName();
+            }
+            public int size() {
+                return vertexArray == null ? 0 : vertexArray.length;
+            }
+        };
     }
 
     /**
@@ -68,7 +79,7 @@ public class GraphAnalyzer {
      * @return list of degrees
      */
     public List<Integer> getDegrees() {
-        return degrees;
+        return asList(degreeArray);
     }
     
     /**
@@ -76,7 +87,7 @@ public class GraphAnalyzer {
      * @return list of in-degrees
      */
     public List<Integer> getInDegrees() {
-        return inDegrees;
+        return asList(inDegreeArray);
     }    
     
     /**
@@ -84,7 +95,44 @@ public class GraphAnalyzer {
      * @return list of out-degrees
      */
     public List<Integer> getOutDegrees() {
-        return outDegrees;
+        return asList(outDegreeArray);
+    }
+    
+    /**
+     * Returns the number of threads used by the analysis.
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads used by the analysis (default is 1).
+     * @param threads number of threads
+     * @throws IllegalArgumentException if <i>threads</i> is lower than 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads parameter is lower than 1");
+        }
+        this.threads = threads;
+    }
+    
+    /**
+     * Returns true if the results are saved gzip compressed.
+     * @return true if the results are compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Sets whether the results should be saved gzip compressed
+     * (".gz" is appended to the names of all files).
+     * @param compressed true if the results should be compressed
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
     }
     
     /**
@@ -119,82 +167,121 @@ public class GraphAnalyzer {
      * This method generates text files containing results of statistics.
      * For undirected graphs two files are created: template_deg.txt and
      * template_info.txt. For directed graphs four files are created: 
-     * template_[deg/in/out].txt and template_info.txt.
+     * template_[deg/in/out].txt and template_info.txt. If the results are
+     * compressed all names end with ".gz".
      * 
      * @param template common name for all generated files
      * @throws IOException on error when saving
      */    
     public void saveResults(String template) throws IOException {
+        String suffix = compressed ? GzipFiles.SUFFIX : "";
         if (graph.isDirected()) {
-            saveDeg(new File(template + "_deg.txt"));
-            saveIn(new File(template + "_in.txt"));
-            saveOut(new File(template + "_out.txt"));
+            saveDeg(new File(template + "_deg.txt" + suffix));
+            saveIn(new File(template + "_in.txt" + suffix));
+            saveOut(new File(template + "_out.txt" + suffix));
         } else {
-            saveDeg(new File(template + "_deg.txt"));
+            saveDeg(new File(template + "_deg.txt" + suffix));
         }
         
-        saveInfo(new File(template + "_info.txt"));
+        saveInfo(new File(template + "_info.txt" + suffix));
     }
     
     /**
      * Generates info about the structure.
      */
     public void analyze() {
-        Collection<Vertex> foo = graph.getVertices();
-        for (Vertex v : foo) {
-            vertices.add(v.getName());
-            if (graph.isDirected()) {
-                inDegrees.add(v.getInDegree());
-                outDegrees.add(v.getDegree());
-                degrees.add(v.getDegree() + v.getInDegree());
-            } else {
-                degrees.add(v.getDegree());
-            }
+        vertexArray = graph.getVertices().toArray(new Vertex[0]);
+        final boolean directed = graph.isDirected();
+        
+        degreeArray = new int[vertexArray.length];
+        if (directed) {
+            inDegreeArray = new int[vertexArray.length];
+            outDegreeArray = new int[vertexArray.length];
+        } else {
+            inDegreeArray = null;
+            outDegreeArray = null;
         }
         
-        if (graph.isDirected()) {
-            degreeResults = generateStatistics(degrees);
-            inDegreeResults = generateStatistics(inDegrees);
-            outDegreeResults = generateStatistics(outDegrees);
+        // kazde vlakno vyplni stupne vrcholu sveho useku
+        RangeExecutor executor = new RangeExecutor(threads);
+        executor.execute(vertexArray.length, new RangeTask<Object>() {
+            public Object compute(int from, int to) {
+                for (int p = from; p < to; p++) {
+                    Vertex v = vertexArray[p];
+                    if (directed) {
+                        inDegreeArray[p] = v.getInDegree();
+                        outDegreeArray[p] = v.getDegree();
+                        degreeArray[p] = v.getDegree() + v.getInDegree();
+                    } else {
+                        degreeArray[p] = v.getDegree();
+                    }
+                }
+                return null;
+            }
+        });
+        
+        if (directed) {
+            degreeResults = generateStatistics(degreeArray, executor);
+            inDegreeResults = generateStatistics(inDegreeArray, executor);
+            outDegreeResults = generateStatistics(outDegreeArray, executor);
         } else {
-            degreeResults = generateStatistics(degrees);
-        }        
+            degreeResults = generateStatistics(degreeArray, executor);
+        }
+        executor.shutdown();
     }
 
     /**
      * Generates required statistics.
+     * Every thread builds a histogram of its range of values, the histograms
+     * are merged at the end.
      */
-    private List<int[]> generateStatistics(List<Integer> list) {        
-        int min = 0;
-        int max = 0;
-        boolean started = false;
+    private List<int[]> generateStatistics(final int[] values, RangeExecutor executor) {
         // find min and max values
-        for (int i : list) {
-            if (!started) {
-                started = true;
-                min = i;
-                max = i;
-            }
-            if (i < min) {
-                min = i;
-            }
-            if (i > max) {
-                max = i;
+        List<int[]> bounds = executor.execute(values.length, new RangeTask<int[]>() {
+            public int[] compute(int from, int to) {
+                if (from == to) {
+                    return null;
+                }
+                int[] bar = new int[] {values[from], values[from]};
+                for (int p = from + 1; p < to; p++) {
+                    bar[0] = Math.min(bar[0], values[p]);
+                    bar[1] = Math.max(bar[1], values[p]);
+                }
+                return bar;
             }
+        });
+        int[] range = mergeBounds(bounds);
+        
+        List<int[]> result = new LinkedList<int []>();
+        if (range == null) {
+            return result;
         }
+        final int min = range[0];
+        final int max = range[1];
+        
         // computes statistics
-        List<int[]> result = new LinkedList<int []>();
-        for (int p = min; p <= max; p++) {
-            int count = 0;
-            for (int i : list) {
-                if (i == p) {
-                    count++;
+        List<long[]> histograms = executor.execute(values.length, new RangeTask<long[]>() {
+            public long[] compute(int from, int to) {
+                long[] histogram = new long[max - min + 1];
+                for (int p = from; p < to; p++) {
+                    histogram[values[p] - min]++;
                 }
+                return histogram;
+            }
+        });
+        
+        long[] total = new long[max - min + 1];
+        for (long[] histogram : histograms) {
+            for (int p = 0; p < total.length; p++) {
+                total[p] += histogram[p];
             }
-            if (count > 0) {
+        }
+        
+        for (int p = 0; p < total.length; p++) {
+            if (total[p] > 0) {
                 int []bar = new int[2];
-                bar[0] = p;
-                bar[1] = count;
+                bar[0] = min + p;
+                bar[1] = (int) total[p];
                 result.add(bar);
             }
         }
@@ -202,7 +289,7 @@ public class GraphAnalyzer {
     }
     
     private void saveInfo(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
+        TextOutput out = GzipFiles.openOutput(file);
         
         out.write("GRAPH INFO FILE\n\n");
         out.write("Directed: " + graph.isDirected() + "\n");
@@ -216,52 +303,82 @@ public class GraphAnalyzer {
         out.write(" (i.e. average 1 vertex = " + ratio + " edge[s])\n\n");
         
         if (graph.isDirected()) {
-            out.write("Degree (min/max): " + getMinDegree(graph, DEGREE) + "/" + getMaxDegree(graph, DEGREE) + "\n");
-            out.write("In degree (min/max): " + getMinDegree(graph, IN_DEGREE) + "/" + getMaxDegree(graph, IN_DEGREE) + "\n");
-            out.write("Out degree (min/max): " + getMinDegree(graph, OUT_DEGREE) + "/" + getMaxDegree(graph, OUT_DEGREE) + "\n");
+            out.write("Degree (min/max): " + getBounds(degreeResults) + "\n");
+            out.write("In degree (min/max): " + getBounds(inDegreeResults) + "\n");
+            out.write("Out degree (min/max): " + getBounds(outDegreeResults) + "\n");
         } else {
-            out.write("Degree (min/max): " + getMinDegree(graph, DEGREE) + "/" + getMaxDegree(graph, DEGREE) + "\n");
+            out.write("Degree (min/max): " + getBounds(degreeResults) + "\n");
         }
         
         out.close();        
     }
 
     private void saveDeg(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
+        TextOutput out = GzipFiles.openOutput(file);
         List<int[]> st = getResults(DEGREE);
         for (int []p : st) {
-            out.write(p[0] + " " + p[1] + "\n");
+            out.write(p[0]).write(' ').write(p[1]).write('\n');
         }
         out.close();
     }
 
     private void saveIn(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
+        TextOutput out = GzipFiles.openOutput(file);
         List<int[]> st = getResults(IN_DEGREE);
         for (int []p : st) {
-            out.write(p[0] + " " + p[1] + "\n");
+            out.write(p[0]).write(' ').write(p[1]).write('\n');
         }
         out.close();
     }
 
     private void saveOut(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
+        TextOutput out = GzipFiles.openOutput(file);
         List<int[]> st = getResults(OUT_DEGREE);
         for (int []p : st) {
-            out.write(p[0] + " " + p[1] + "\n");
+            out.write(p[0]).write(' ').write(p[1]).write('\n');
         }
         out.close();
     }
     
+    /**
+     * Returns "min/max" description of the computed statistics.
+     * The statistics are sorted by the degree, so the first item holds
+     * the minimal and the last item the maximal degree.
+     */
+    private String getBounds(List<int[]> results) {
+        if (results.isEmpty()) {
+            return "0/0";
+        }
+        return results.get(0)[0] + "/" + results.get(results.size() - 1)[0];
+    }
+    
     /**
      * Vraci vzdalenost vrcholu ktery je nejdale od pocatku
      * startu BFS algoritmu, tedy vzdalenost nejvyssi.
      */
     public static long getMaxLength(Graph graph) {
-        Collection<Vertex> vertices = graph.getVertices();
+        return getMaxLength(graph, 1);
+    }
+    
+    /**
+     * Vraci vzdalenost vrcholu ktery je nejdale od pocatku
+     * startu BFS algoritmu. Vrcholy prochazi zadany pocet vlaken.
+     */
+    public static long getMaxLength(Graph graph, int threads) {
+        final Vertex[] vertices = graph.getVertices().toArray(new Vertex[0]);
+        RangeExecutor executor = new RangeExecutor(threads);
+        List<Long> maxima = executor.execute(vertices.length, new RangeTask<Long>() {
+            public Long compute(int from, int to) {
+                long max = 0;
+                for (int p = from; p < to; p++) {
+                    max = Math.max(max, vertices[p].getLength());
+                }
+                return max;
+            }
+        });
+        executor.shutdown();
         long max = 0;
-        for (Vertex v : vertices) {
-            long current = v.getLength();
+        for (long current : maxima) {
             if (current > max) {
                 max = current;
             }
@@ -275,45 +392,7 @@ public class GraphAnalyzer {
      * @param type DEGREE, IN_DEGREE, OUT_DEGREE
      */
     public static int getMinDegree(Graph graph, int type) {
-        Collection<Vertex> vertices = graph.getVertices();
-        
-        int min = 0;
-        
-        if (graph.isDirected()) {
-            boolean running = false;
-            for (Vertex v : vertices) {
-                int value;
-                if (type == DEGREE) {
-                    value = v.getDegree() + v.getInDegree();
-                } else if (type == IN_DEGREE) {
-                    value = v.getInDegree();
-                } else {
-                    value = v.getDegree();
-                }
-                
-                if (!running) {
-                    min = value;
-                    running = true;
-                }
-                if (value < min) {
-                    min = value;
-                }
-            }
-            
-        } else {
-            boolean running = false;
-            for (Vertex v : vertices) {
-                if (!running) {
-                    min = v.getDegree();
-                    running = true;
-                }
-                if (v.getDegree() < min) {
-                    min = v.getDegree();
-                }
-            }
-        }
-        
-        return min;
+        return getDegreeBounds(graph, type, 1)[0];
     }
     
     /**
@@ -322,44 +401,92 @@ public class GraphAnalyzer {
      * @param type DEGREE, IN_DEGREE, OUT_DEGREE
      */
     public static int getMaxDegree(Graph graph, int type) {
-        Collection<Vertex> vertices = graph.getVertices();
-        
-        int max = 0;
+        return getDegreeBounds(graph, type, 1)[1];
+    }
+    
+    /**
+     * Returns min and max degree of the graph computed in one parallel scan.
+     * @param graph we ask for
+     * @param type DEGREE, IN_DEGREE, OUT_DEGREE
+     * @param threads number of threads to be used
+     * @return two numbers, the min and the max degree (0, 0 for an empty graph)
+     */
+    public static int[] getDegreeBounds(Graph graph, final int type, int threads) {
+        final Vertex[] vertices = graph.getVertices().toArray(new Vertex[0]);
+        final boolean directed = graph.isDirected();
         
-        if (graph.isDirected()) {
-            boolean running = false;
-            for (Vertex v : vertices) {
-                int value;
-                if (type == DEGREE) {
-                    value = v.getDegree() + v.getInDegree();
-                } else if (type == IN_DEGREE) {
-                    value = v.getInDegree();
-                } else {
-                    value = v.getDegree();
+        RangeExecutor executor = new RangeExecutor(threads);
+        List<int[]> bounds = executor.execute(vertices.length, new RangeTask<int[]>() {
+            public int[] compute(int from, int to) {
+                if (from == to) {
+                    return null;
                 }
-                
-                if (!running) {
-                    max = value;
-                    running = true;
-                }
-                if (value > max) {
-                    max = value;
+                int[] bar = new int[2];
+                bar[0] = Integer.MAX_VALUE;
+                bar[1] = Integer.MIN_VALUE;
+                for (int p = from; p < to; p++) {
+                    int value = getDegree(directed, vertices[p], type);
+                    bar[0] = Math.min(bar[0], value);
+                    bar[1] = Math.max(bar[1], value);
                 }
+                return bar;
             }
-            
-        } else {
-            boolean running = false;
-            for (Vertex v : vertices) {
-                if (!running) {
-                    max = v.getDegree();
-                    running = true;
-                }
-                if (v.getDegree() > max) {
-                    max = v.getDegree();
-                }
+        });
+        executor.shutdown();
+        
+        int[] result = mergeBounds(bounds);
+        if (result == null) {
+            return new int[] {0, 0};
+        }
+        return result;
+    }
+    
+    /**
+     * Merges partial min/max pairs, empty ranges are represented by null.
+     * @return merged min/max pair or null if all ranges were empty
+     */
+    private static int[] mergeBounds(List<int[]> bounds) {
+        int[] result = null;
+        for (int[] bar : bounds) {
+            if (bar == null) {
+                continue;
+            }
+            if (result == null) {
+                result = new int[] {bar[0], bar[1]};
+            } else {
+                result[0] = Math.min(result[0], bar[0]);
+                result[1] = Math.max(result[1], bar[1]);
             }
         }
-        
-        return max;
+        return result;
+    }
+    
+    /**
+     * Returns the required degree of the vertex.
+     */
+    private static int getDegree(boolean directed, Vertex v, int type) {
+        if (!directed) {
+            return v.getDegree();
+        }
+        if (type == DEGREE) {
+            return v.getDegree() + v.getInDegree();
+        } else if (type == IN_DEGREE) {
+            return v.getInDegree();
+        }
+        return v.getDegree();
+    }
+    
+    /**
+     * Returns read-only list view of the given array.
+     */
+    private static List<Integer> asList(final int[] array) {
+        return new AbstractList<Integer>() {
+            public Integer get(int index) {
+                return array[index];
+            }
+            public int size() {
+                return array == null ? 0 : array.length;
+            }
+        };
     }
 }
@@ -0,0 +1,309 @@
+// File: HittingTimeSolver.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import java.util.Arrays;
+
+/**
+ * Tato trida pocita presne stredni doby zasahu ciloveho vrcholu.
+ * Misto opakovaneho spousteni nahodne prochazky (rezim hledani cesty)
+ * resi soustavu linearnich rovnic
+ * <pre>
+ *     h(v) = 1 + sum P(v, w) h(w),    h(target) = 0
+ * </pre>
+ * nad matici prechodu <code>TransitionMatrix</code>. Vysledkem jsou stredni
+ * doby zasahu ze vsech pocatecnich vrcholu najednou. Reverzibilni prochazky
+ * (neorientovany graf v modu classic nebo outdegree) se resi metodou
+ * sdruzenych gradientu nad symetrizovanou soustavou, ostatni
+ * Gauss-Seidelovou metodou.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class HittingTimeSolver {
+
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private TransitionMatrix matrix;
+    private double tolerance;
+    private int maxIterations;
+
+    // informace o poslednim vypoctu
+    private String method;
+    private int iterations;
+    private boolean converged;
+
+    /**
+     * Vytvori novou instanci tridy HittingTimeSolver
+     *
+     * @param matrix matice prechodu nahodne prochazky
+     * @throws NullPointerException pokud je parametr <code>matrix</code> null
+     */
+    public HittingTimeSolver(TransitionMatrix matrix) {
+        if (matrix == null) {
+            throw new NullPointerException("matrix parameter is null");
+        }
+        this.matrix = matrix;
+        setTolerance(DEFAULT_TOLERANCE);
+        setMaxIterations(DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Spocita stredni doby zasahu zadaneho vrcholu.
+     *
+     * @param target index ciloveho vrcholu
+     * @return pole indexovane indexy vrcholu se stredni dobou zasahu ciloveho
+     *     vrcholu z daneho vrcholu; <code>Double.POSITIVE_INFINITY</code> pokud
+     *     prochazka z daneho vrcholu cilovy vrchol zasahne s pravdepodobnosti
+     *     mensi nez 1
+     */
+    public double[] solve(int target) {
+        boolean[] reachable = findReachable(target);
+
+        double[] h = new double[matrix.getSize()];
+        if (matrix.isReversible()) {
+            method = "conjugate gradient";
+            solveConjugateGradient(target, reachable, h);
+        } else {
+            method = "Gauss-Seidel";
+            solveGaussSeidel(target, reachable, h);
+        }
+
+        for (int p = 0; p < h.length; p++) {
+            if (!reachable[p]) {
+                h[p] = Double.POSITIVE_INFINITY;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Najde vrcholy, ze kterych prochazka zasahne cilovy vrchol
+     * s pravdepodobnosti 1. Nejprve se prohledavanim do sirky po obracenych
+     * hranach najdou vrcholy, ze kterych je cil dosazitelny. Ze zbylych
+     * vrcholu se pak stejne hledaji vrcholy, ze kterych se do nich prochazka
+     * muze dostat pred zasahem cile - doba zasahu z nich je nekonecna,
+     * i kdyz je cil z nich dosazitelny. Restart vede z kazdeho vrcholu do
+     * vrcholu restartu, pokud se tedy prochazka z vrcholu restartu muze
+     * dostat mimo dosah cile, doba zasahu je nekonecna odevsad.
+     */
+    private boolean[] findReachable(int target) {
+        TransitionMatrix transposed = matrix.transpose();
+        int[] offsets = transposed.getOffsets();
+        int[] targets = transposed.getTargets();
+        int size = matrix.getSize();
+        boolean restart = matrix.getRestart() > 0;
+
+        boolean[] reachable = new boolean[size];
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        reachable[target] = true;
+        queue[tail++] = target;
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int q = offsets[u]; q < offsets[u + 1]; q++) {
+                int v = targets[q];
+                if (!reachable[v]) {
+                    reachable[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        if (restart && reachable[matrix.getRestartVertex()]) {
+            Arrays.fill(reachable, true);
+            return reachable;
+        }
+
+        // vrcholy, ze kterych se prochazka muze dostat mimo dosah cile;
+        // cilem prochazka konci, proto se pres nej neprohledava
+        boolean[] escaping = new boolean[size];
+        head = 0;
+        tail = 0;
+        for (int p = 0; p < size; p++) {
+            if (!reachable[p]) {
+                escaping[p] = true;
+                queue[tail++] = p;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int q = offsets[u]; q < offsets[u + 1]; q++) {
+                int v = targets[q];
+                if (v != target && !escaping[v]) {
+                    escaping[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        boolean everywhere = restart && escaping[matrix.getRestartVertex()];
+        for (int p = 0; p < size; p++) {
+            reachable[p] = p == target || !(everywhere || escaping[p]);
+        }
+        return reachable;
+    }
+
+    /**
+     * Gauss-Seidelova metoda. Hodnoty se upravuji na miste, kazda nova
+     * hodnota se hned pouzije pro dalsi vrcholy.
+     */
+    private void solveGaussSeidel(int target, boolean[] reachable, double[] h) {
+        int size = matrix.getSize();
+        double[] diagonal = new double[size];
+        for (int p = 0; p < size; p++) {
+            diagonal[p] = matrix.getDiagonal(p);
+        }
+
+        converged = false;
+        for (iterations = 1; iterations <= maxIterations; iterations++) {
+            double maxChange = 0;
+            double maxValue = 0;
+            for (int p = 0; p < size; p++) {
+                if (p == target || !reachable[p]) {
+                    continue;
+                }
+                // h[p] se vyskytuje i na prave strane (smycka, restart),
+                // proto ji nejprve odecteme a pak vydelime
+                double old = h[p];
+                double value = (1 + matrix.multiplyRow(p, h) - diagonal[p] * old) / (1 - diagonal[p]);
+                h[p] = value;
+                maxChange = Math.max(maxChange, Math.abs(value - old));
+                maxValue = Math.max(maxValue, value);
+            }
+            if (maxChange <= tolerance * Math.max(1.0, maxValue)) {
+                converged = true;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Metoda sdruzenych gradientu s Jacobiho predpodminenim.
+     * Pro reverzibilni prochazku se stacionarnim rozdelenim pi je matice
+     * D(pi) (I - P) symetricka a na vrcholech ruznych od cile (v ramci
+     * komponenty souvislosti cile) pozitivne definitni. Resime tedy soustavu
+     * D(pi) (I - P) h = pi.
+     */
+    private void solveConjugateGradient(int target, boolean[] reachable, double[] h) {
+        int size = matrix.getSize();
+        double[] pi = matrix.getReversibleWeights();
+        boolean[] active = new boolean[size];
+        for (int p = 0; p < size; p++) {
+            active[p] = reachable[p] && p != target && pi[p] > 0;
+        }
+
+        double[] r = new double[size];
+        double[] z = new double[size];
+        double[] d = new double[size];
+        double[] q = new double[size];
+        double[] preconditioner = new double[size];
+
+        double normB = 0;
+        for (int p = 0; p < size; p++) {
+            if (active[p]) {
+                r[p] = pi[p];                   // h = 0 => r = b
+                preconditioner[p] = 1.0 / (pi[p] * (1 - matrix.getDiagonal(p)));
+                z[p] = preconditioner[p] * r[p];
+                d[p] = z[p];
+                normB += pi[p] * pi[p];
+            }
+        }
+        normB = Math.sqrt(normB);
+        double rz = dot(r, z, active);
+
+        converged = normB == 0;
+        for (iterations = 1; iterations <= maxIterations && !converged; iterations++) {
+            multiplySymmetric(d, q, pi, active);
+            double alpha = rz / dot(d, q, active);
+            double normR = 0;
+            for (int p = 0; p < size; p++) {
+                if (active[p]) {
+                    h[p] += alpha * d[p];
+                    r[p] -= alpha * q[p];
+                    z[p] = preconditioner[p] * r[p];
+                    normR += r[p] * r[p];
+                }
+            }
+            if (Math.sqrt(normR) <= tolerance * normB) {
+                converged = true;
+                break;
+            }
+            double rzNew = dot(r, z, active);
+            double beta = rzNew / rz;
+            rz = rzNew;
+            for (int p = 0; p < size; p++) {
+                if (active[p]) {
+                    d[p] = z[p] + beta * d[p];
+                }
+            }
+        }
+    }
+
+    /**
+     * Spocita y = D(pi) (I - P) x na aktivnich vrcholech, ostatni slozky
+     * vektoru x se povazuji za nulove.
+     */
+    private void multiplySymmetric(double[] x, double[] y, double[] pi, boolean[] active) {
+        for (int p = 0; p < x.length; p++) {
+            if (!active[p]) {
+                x[p] = 0;
+            }
+        }
+        for (int p = 0; p < x.length; p++) {
+            if (active[p]) {
+                y[p] = pi[p] * (x[p] - matrix.multiplyRow(p, x));
+            }
+        }
+    }
+
+    /**
+     * Skalarni soucin pres aktivni vrcholy.
+     */
+    private static double dot(double[] a, double[] b, boolean[] active) {
+        double sum = 0;
+        for (int p = 0; p < a.length; p++) {
+            if (active[p]) {
+                sum += a[p] * b[p];
+            }
+        }
+        return sum;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public TransitionMatrix getMatrix() {
+        return matrix;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -4,22 +4,38 @@
 package cz.muni.fi.xstupka.rwtester;
 
 import cz.muni.fi.xstupka.rwtester.graph.CompleteGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.CopyModelGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.DirectedScaleFreeGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.EdgeGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.GeneratorBlocks;
 import cz.muni.fi.xstupka.rwtester.graph.Graph;
 import cz.muni.fi.xstupka.rwtester.graph.GraphException;
 import cz.muni.fi.xstupka.rwtester.graph.GraphFactory;
-import cz.muni.fi.xstupka.rwtester.graph.GraphGMLTimeWriter;
-import cz.muni.fi.xstupka.rwtester.graph.GraphGMLVisitedWriter;
+import cz.muni.fi.xstupka.rwtester.graph.GraphFormat;
+import cz.muni.fi.xstupka.rwtester.graph.GraphGMLAverageWriter;
 import cz.muni.fi.xstupka.rwtester.graph.GraphGMLWriter;
-import cz.muni.fi.xstupka.rwtester.graph.GraphLoader;
 import cz.muni.fi.xstupka.rwtester.graph.GraphLoaderException;
+import cz.muni.fi.xstupka.rwtester.graph.GraphStreamWriter;
 import cz.muni.fi.xstupka.rwtester.graph.GraphTextWriter;
 import cz.muni.fi.xstupka.rwtester.graph.GraphWriter;
+import cz.muni.fi.xstupka.rwtester.graph.GzipFiles;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitCompleteGraph;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitHypercubeGraph;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitLatticeGraph;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitTreeGraph;
+import cz.muni.fi.xstupka.rwtester.graph.LatticeGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.RMatGraphGenerator;
 import cz.muni.fi.xstupka.rwtester.graph.RandomGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.RangeExecutor;
+import cz.muni.fi.xstupka.rwtester.graph.RegularGraphGenerator;
 import cz.muni.fi.xstupka.rwtester.graph.ScaleFreeGraphGenerator;
+import cz.muni.fi.xstupka.rwtester.graph.SmallWorldGraphGenerator;
 import cz.muni.fi.xstupka.rwtester.graph.TreeGraphGenerator;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 
@@ -37,10 +53,17 @@ public class Main {
     public static final int DEFAULT_LOOP = 10;
     public static final int DEFAULT_COVERAGE = 100;
     public static final String DEFAULT_RW_MODE = "classic";
+    public static final long DEFAULT_STEPS = 1000000;
+    
+    // odvozeni semena generatoru grafu, aby graf nesdilel nahodna cisla s prochazkou
+    public static final long GENERATOR_SEED = 0x2545F4914F6CDD1DL;
     
     
     private ProgramOptions options;
     
+    // zapisovac vysledku sdileny vsemi zapisy jednoho experimentu
+    private ResultWriter results;
+    
     /**
      * Hlavni metoda main, vstupni bod aplikace
      *
@@ -69,9 +92,26 @@ public class Main {
              printHelpAndExit(options.getOptions());
          }
          
-         // pokud je zadana volba "generate", program vygeneruje pozadovany graf a skonci
+         // pokud je zadana volba "generate", program vygeneruje pozadovany graf a skonci,
+         // spolu s volbou "mode" se vygenerovany graf primo pouzije
          if (options.hasOption("generate")) {
-             generateGraphAndExit();
+             if (!options.hasOption("mode")) {
+                 generateGraphAndExit();
+             }
+             if (options.hasOption("implicit") || options.hasOption("input")) {
+                 System.out.println("Error: -generate can't be combined with -input or -implicit");
+                 System.exit(0);
+             }
+             if (options.hasOption("stream")) {
+                 System.out.println("Error: -stream can't be combined with -mode");
+                 System.exit(0);
+             }
+         }
+         
+         // pokud je zadana volba "unpack", program rozepise CSV soubor vysledku
+         // do textovych souboru a skonci
+         if (options.hasOption("unpack")) {
+             unpackResultsAndExit();
          }
          
          // pokud je zadana volba "convert", program zkonvertuje graf do daneho
@@ -90,6 +130,8 @@ public class Main {
                  runCoverAndExit();
              } else if (mode.equals("path")) { // nahodna prochazka pro nalezeni cesty k vrcholu
                  runPathAndExit();
+             } else if (mode.equals("stationary")) { // stacionarni rozdeleni nahodne prochazky
+                 runStationaryAndExit();
              } else { // neznamy mod pro volbu "mode"
                  System.out.println("Error: '" + mode + "' unknown mode");
                  System.exit(0);
@@ -130,12 +172,27 @@ public class Main {
          Graph graph = loadGraph(graphName);
          RWManager manager = new RWManager(graph);
          manager.setRandomWalkMode(rwmode);
+         manager.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
          
          // pokud je zapnuta volba pro discover mod, bude tento mod pouzit
          if (options.hasOption("discover")) {
              manager.setDiscoverMode(true);
          }
          
+         // zaznam trajektorie nahodne prochazky
+         if (options.hasOption("trajectory")) {
+             manager.setTrajectoryFile(new File(options.getOptionValue("trajectory")));
+         }
+         
+         // semeno nahodne prochazky a cache vysledku
+         setCache(manager);
+         
+         // kontrolni body a pokracovani od posledniho kontrolniho bodu
+         setCheckpoint(manager);
+         
+         // omezeni delky nahodne prochazky
+         setStepLimit(manager, graph, startVertex);
+         
          // kontrola modu
          if (foo.equals("indegree") || foo.equals("rindegree")) {
              if (!graph.isDirected()) {
@@ -144,26 +201,28 @@ public class Main {
              }
          }
          
+         String truncatedStr = null;
          try {
-            // spusti testovani nahodne prochazky
-            RWResult result = manager.testCover(loop, startVertex, coverage);
+            // spusti testovani nahodne prochazky nebo prehraje zaznamenanou trajektorii
+            RWResult result;
+            if (options.hasOption("replay")) {
+                result = manager.replayTrajectory(new File(options.getOptionValue("replay")));
+            } else {
+                result = manager.testCover(loop, startVertex, coverage);
+            }
             if (result == null) {
                 System.exit(0); // doslo k chybe
             }
+            truncatedStr = getTruncated(manager, result);
             
             // pouzije tridu ResultWriter k vypisu vysledku analyzy nahodne prochazky
             System.out.println("\nSaving results");            
-            ResultWriter resultWriter = new ResultWriter(template);
+            ResultWriter resultWriter = getResultWriter(template);
             resultWriter.write(result);
             // vypise informace do gml souboru
             if (options.hasOption("gml")) {
-                // vypise graf s oznacenim vrcholu podle poctu navstiveni
-                GraphWriter writer = new GraphGMLVisitedWriter(manager.getAverageGraph());
-                writer.write(new File(template + "_coverage.gml"));
-                
-                // vypise graf s oznacenim vrcholu podle casu prvniho pristupu
-                GraphWriter writerTime = new GraphGMLTimeWriter(manager.getAverageGraph());
-                writerTime.write(new File(template + "_time.gml"));
+                // vypise graf s oznacenim vrcholu podle poctu navstiveni a casu prvniho pristupu
+                writeAverageGraph(manager.getAverageGraph(), template);
             }
             
             System.out.println("\nDONE");
@@ -180,7 +239,7 @@ public class Main {
          String loopStr = loop + "";
          String directedStr = graph.isDirected() + "";
          String coverageStr = coverage + "";
-         writeReportConfig(template, "cover", foo, loopStr, directedStr, coverageStr);
+         writeReportConfig(template, "cover", foo, loopStr, directedStr, coverageStr, truncatedStr);
          
          System.exit(0);
      }
@@ -214,12 +273,24 @@ public class Main {
          Graph graph = loadGraph(graphName);
          RWManager manager = new RWManager(graph);
          manager.setRandomWalkMode(rwmode);
+         manager.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
          
          // pokud je zapnuta volba pro discover mod, bude tento mod pouzit
          if (options.hasOption("discover")) {
              manager.setDiscoverMode(true);
          }
          
+         // zaznam trajektorie nahodne prochazky
+         if (options.hasOption("trajectory")) {
+             manager.setTrajectoryFile(new File(options.getOptionValue("trajectory")));
+         }
+         
+         // semeno nahodne prochazky a cache vysledku
+         setCache(manager);
+         
+         // omezeni delky nahodne prochazky
+         setStepLimit(manager, graph, startVertex);
+         
          // kontrola modu
          if (foo.equals("indegree") || foo.equals("rindegree")) {
              if (!graph.isDirected()) {
@@ -228,26 +299,41 @@ public class Main {
              }
          }
          
+         String truncatedStr = null;
          try {
-            // spusti testovani nahodne prochazky
-            RWResult result = manager.testFindPath(loop, startVertex, endVertex);
+            // misto simulace spocita presne stredni doby zasahu a skonci
+            if (options.hasOption("exact")) {
+                double[] times = manager.computeHittingTimes(startVertex, endVertex);
+                if (times == null) {
+                    System.exit(0); // doslo k chybe
+                }
+                System.out.println("\nSaving results");
+                ResultWriter resultWriter = getResultWriter(template);
+                resultWriter.writeHittingTimes(graph, times);
+                System.out.println("\nDONE");
+                System.exit(0);
+            }
+            
+            // spusti testovani nahodne prochazky nebo prehraje zaznamenanou trajektorii
+            RWResult result;
+            if (options.hasOption("replay")) {
+                result = manager.replayTrajectory(new File(options.getOptionValue("replay")));
+            } else {
+                result = manager.testFindPath(loop, startVertex, endVertex);
+            }
             if (result == null) {
                 System.exit(0); // doslo k chybe
             }
+            truncatedStr = getTruncated(manager, result);
             
             // pouzije tridu ResultWriter k vypisu vysledku analyzy nahodne prochazky
             System.out.println("\nSaving results");            
-            ResultWriter resultWriter = new ResultWriter(template);
+            ResultWriter resultWriter = getResultWriter(template);
             resultWriter.write(result);
             // vypise informace do gml souboru
             if (options.hasOption("gml")) {
-                // vypise graf s oznacenim vrcholu podle poctu navstiveni
-                GraphWriter writerVisited = new GraphGMLVisitedWriter(manager.getAverageGraph());
-                writerVisited.write(new File(template + "_coverage.gml"));
-                
-                // vypise graf s oznacenim vrcholu podle casu prvniho pristupu
-                GraphWriter writerTime = new GraphGMLTimeWriter(manager.getAverageGraph());
-                writerTime.write(new File(template + "_time.gml"));
+                // vypise graf s oznacenim vrcholu podle poctu navstiveni a casu prvniho pristupu
+                writeAverageGraph(manager.getAverageGraph(), template);
             }
             
             System.out.println("\nDONE");
@@ -263,11 +349,133 @@ public class Main {
          // generuje konfiguracni soubor pro program rwreport
          String loopStr = loop + "";
          String directedStr = graph.isDirected() + "";
-         writeReportConfig(template, "path", foo, loopStr, directedStr, null);
+         writeReportConfig(template, "path", foo, loopStr, directedStr, null, truncatedStr);
+         
+         System.exit(0);
+     }
+     
+     /**
+      * Vypocet stacionarniho rozdeleni nahodne prochazky a ocekavaneho
+      * poctu navstiveni vrcholu bez spousteni nahodne prochazky
+      */
+     public void runStationaryAndExit() {
+         
+         String foo = getRWMode(DEFAULT_RW_MODE);
+         int rwmode = RandomWalk.CLASSIC_MODE;
+         if (foo.equals("classic")) {
+             rwmode = RandomWalk.CLASSIC_MODE;
+         } else if (foo.equals("outdegree")) {
+             rwmode = RandomWalk.OUT_DEGREE_MODE;
+         } else if (foo.equals("routdegree")) {
+             rwmode = RandomWalk.REVERSE_OUT_DEGREE_MODE;
+         } else if (foo.equals("indegree")) {
+             rwmode = RandomWalk.IN_DEGREE_MODE;
+         } else if (foo.equals("rindegree")) {
+             rwmode = RandomWalk.REVERSE_IN_DEGREE_MODE;
+         }
+         
+         String graphName = getGraphName();
+         String template = getTemplate(graphName);
+         String startVertex = getStart(DEFAULT_START_VERTEX);
+         long steps = getSteps(DEFAULT_STEPS);
+         
+         // nacte graf
+         Graph graph = loadGraph(graphName);
+         RWManager manager = new RWManager(graph);
+         manager.setRandomWalkMode(rwmode);
+         manager.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+         
+         // kontrola modu
+         if (foo.equals("indegree") || foo.equals("rindegree")) {
+             if (!graph.isDirected()) {
+                 System.out.println("Error: " + foo + " rwmode selected but the graph isn't directed");
+                 System.exit(0);
+             }
+         }
+         
+         try {
+            double[] distribution = manager.computeStationaryDistribution(startVertex);
+            RWResult result = manager.analyzeExpectedVisits(distribution, steps);
+            
+            System.out.println("\nSaving results");
+            ResultWriter resultWriter = getResultWriter(template);
+            resultWriter.writeStationary(graph, distribution);
+            resultWriter.writeDegreeVisited(result);
+            
+            System.out.println("\nDONE");
+            
+         } catch (GraphException ex) {
+            System.out.println("Error (" + ex.getMessage() + ")");
+         } catch (IOException ex) {
+             System.out.print("IO Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         }
          
          System.exit(0);
      }
      
+     /**
+      * Nastavi maximalni pocet kroku nahodne prochazky podle volby "limit".
+      * Hodnota "auto" pouzije horni odhad casu pokryti grafu ze spektralni
+      * mezery (pouze pro neorientovane grafy).
+      *
+      * @param manager manager, kteremu se ma limit nastavit
+      * @param graph testovany graf
+      * @param startVertex pocatecni vrchol nahodne prochazky
+      */
+     private void setStepLimit(RWManager manager, Graph graph, String startVertex) {
+         if (!options.hasOption("limit")) {
+             return;
+         }
+         
+         String foo = options.getOptionValue("limit");
+         if (foo.equals("auto")) {
+             if (graph.isDirected()) {
+                 System.out.println("Error: -limit auto can be used for undirected graphs only");
+                 System.exit(0);
+             }
+             try {
+                 manager.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+                 System.out.println("");
+                 SpectralGapEstimator estimator = manager.estimateSpectralGap(startVertex);
+                 manager.setStepLimit((long) Math.ceil(estimator.getCoverTimeUpperBound()));
+             } catch (GraphException ex) {
+                 System.out.println("Error (" + ex.getMessage() + ")");
+                 System.exit(0);
+             }
+             return;
+         }
+         
+         try {
+             long bar = Long.parseLong(foo);
+             if (bar < 0) {
+                 System.out.println("Error: -limit argument must not be negative");
+                 System.exit(0);
+             }
+             manager.setStepLimit(bar);
+         } catch (NumberFormatException ex) {
+             System.out.println("Error: can't parse integer value for -limit argument");
+             System.exit(0);
+         }
+     }
+     
+     /**
+      * Vraci pocet behu ukoncenych limitem kroku pro konfiguracni soubor
+      * programu RWReport
+      *
+      * @param manager manager testovani nahodne prochazky
+      * @param result vysledek testovani
+      * @return pocet behu ukoncenych limitem kroku nebo null, pokud neni
+      *     limit kroku nastaven
+      */
+     private String getTruncated(RWManager manager, RWResult result) {
+         if (manager.getStepLimit() <= 0) {
+             return null;
+         }
+         return result.getTruncated() + "";
+     }
+     
      /**
       * Vygeneruje textovy soubor s konfiguracnim soubrem pro program
       * RWReport, ktery z vysledku testovani vytvari HTML zpravu
@@ -279,7 +487,35 @@ public class Main {
                                    String rwmode, 
                                    String loop, 
                                    String directed, 
-                                   String coverage) {
+                                   String coverage,
+                                   String truncated) {
+         // v rezimu CSV se konfigurace zapise do souboru vysledku
+         if (getResultWriter(template).getResultFile() != null) {
+             Map<String, String> config = new LinkedHashMap<String, String>();
+             config.put("template", template);
+             config.put("mode", mode);
+             config.put("rwmode", rwmode);
+             config.put("loop", loop);
+             config.put("directed", directed);
+             if (coverage != null) {
+                 config.put("coverage", coverage);
+             }
+             if (truncated != null) {
+                 config.put("truncated", truncated);
+             }
+             
+             System.out.println("\nWriting config for rwreport to '" + results.getResultFile() + "'\n");
+             try {
+                 results.writeConfig(config);
+             } catch (IOException ex) {
+                 System.out.print("IO Error: ");
+                 System.out.println(ex.getMessage());
+                 System.exit(0);
+             }
+             System.out.println("ALL DONE\n");
+             return;
+         }
+         
          System.out.println("\nGenerating '" + template + "_config.txt' config file for rwreport\n");
          
          try {
@@ -294,6 +530,9 @@ public class Main {
             if (coverage != null) {
                 out.write("coverage=" + coverage + "\n");
             }
+            if (truncated != null) {
+                out.write("truncated=" + truncated + "\n");
+            }
          
             out.close();
          } catch (IOException ex) {
@@ -312,10 +551,26 @@ public class Main {
          String graphName = getGraphName();
          Graph graph = loadGraph(graphName);
          RWManager manager = new RWManager(graph);
+         manager.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+         manager.setCompressed(isCompressed());
          String template = getTemplate(graphName);
              
          // analyza grafu a zapis vysledku do textovych souboru podle sablony
          manager.analyzeGraph(template);
+         
+         // odhad spektralni mezery a predpoved casu promichani a pokryti grafu
+         if (options.hasOption("spectral")) {
+             if (graph.isDirected()) {
+                 System.out.println("Error: spectral gap can be estimated for undirected graphs only");
+                 System.exit(0);
+             }
+             try {
+                 System.out.println("");
+                 manager.estimateSpectralGap(getStart(DEFAULT_START_VERTEX));
+             } catch (GraphException ex) {
+                 System.out.println("Error (" + ex.getMessage() + ")");
+             }
+         }
 
          System.exit(0);
      }
@@ -362,7 +617,7 @@ public class Main {
              }
              
              System.out.println("Saving graph to " + newGraphName);
-             writer.write(new File(newGraphName));
+             writeGraph(writer, new File(newGraphName));
          } catch (IOException ex) {
              System.out.print("IO Error: ");
              System.out.println(ex.getMessage());
@@ -373,18 +628,135 @@ public class Main {
          System.exit(0);
      }
      
+     /**
+      * Zapise graf do souboru a vypise propustnost zapisu (objem zapsanych
+      * dat a rychlost), podle ktere lze overit, ze zapis probiha rychlosti
+      * disku. Pri volbe -gzip se k nazvu souboru prida pripona .gz
+      * a graf se zapise komprimovane.
+      *
+      * @param writer trida pro zapis grafu v pozadovanem formatu
+      * @param file soubor, do ktereho se ma graf zapsat
+      * @throw IOException pri chybe behem ukladani
+      */
+     private void writeGraph(GraphWriter writer, File file) throws IOException {
+         if (isCompressed()) {
+             file = new File(file.getPath() + GzipFiles.SUFFIX);
+         }
+         long start = System.nanoTime();
+         writer.write(file);
+         double seconds = (System.nanoTime() - start) / 1e9;
+         double megabytes = file.length() / (1024.0 * 1024.0);
+         System.out.println("Written " + file.getName() + ": "
+                 + String.format("%.1f MB in %.2f s (%.1f MB/s)", megabytes, seconds, megabytes / Math.max(seconds, 1e-9)));
+     }
+     
+     /**
+      * Zapise prumerny graf do souboru sablona_coverage.gml a sablona_time.gml
+      * jednim pruchodem grafem (pripadne komprimovane).
+      *
+      * @param graph prumerny graf nahodne prochazky
+      * @param template sablona pro vystupni soubory
+      */
+     private void writeAverageGraph(Graph graph, String template) throws IOException {
+         String suffix = isCompressed() ? GzipFiles.SUFFIX : "";
+         File visitedFile = new File(template + "_coverage.gml" + suffix);
+         File timeFile = new File(template + "_time.gml" + suffix);
+         
+         long start = System.nanoTime();
+         new GraphGMLAverageWriter(graph).write(visitedFile, timeFile);
+         double seconds = (System.nanoTime() - start) / 1e9;
+         double megabytes = (visitedFile.length() + timeFile.length()) / (1024.0 * 1024.0);
+         System.out.println("Written " + visitedFile.getName() + ", " + timeFile.getName() + ": "
+                 + String.format("%.1f MB in %.2f s (%.1f MB/s)", megabytes, seconds, megabytes / Math.max(seconds, 1e-9)));
+     }
+     
      /**
       * Vygeneruje pozadovany graf a skonci
       */
      private void generateGraphAndExit() {
          String regexp = options.getOptionValue("generate");
          String graphName = getTemplate(regexp) + ".graph";
+         EdgeGenerator generator = createGenerator(regexp);
+         
+         System.out.println("Saving graph to '" + graphName + "'");
+         
+         try {
+             GraphWriter writer;
+             if (options.hasOption("stream")) {
+                 GraphStreamWriter streamWriter = new GraphStreamWriter(generator);
+                 streamWriter.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+                 writer = streamWriter;
+             } else {
+                 writer = new GraphTextWriter(generator.getGraph());
+             }
+             writeGraph(writer, new File(graphName));
+         } catch (IllegalArgumentException ex) {
+             System.out.print("Error: ");
+             System.out.println(ex.getMessage() + " (use -stream)");
+             System.exit(0);
+         } catch (IOException ex) {
+             System.out.print("IO Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         }
+         
+         System.out.println("DONE");
+         
+         System.exit(0);
+     }
+     
+     /**
+      * Vygeneruje pozadovany graf v pameti pro zvoleny mod (volba "generate"
+      * spolu s volbou "mode"), graf se tedy nemusi zapisovat a znovu nacitat.
+      * Graf se ulozi do souboru, jen pokud je zadana volba "save".
+      *
+      * @param regexp popis generovaneho grafu
+      * @return vygenerovany graf
+      */
+     private Graph generateGraph(String regexp) {
+         EdgeGenerator generator = createGenerator(regexp);
+         
+         Graph graph = null;
+         try {
+             graph = generator.getGraph();
+             if (options.hasOption("save")) {
+                 String graphName = getTemplate(regexp) + ".graph";
+                 System.out.println("Saving graph to '" + graphName + "'");
+                 writeGraph(new GraphTextWriter(graph), new File(graphName));
+             }
+         } catch (IllegalArgumentException ex) {
+             System.out.print("Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         } catch (IOException ex) {
+             System.out.print("IO Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         }
          
+         return graph;
+     }
+     
+     /**
+      * Vytvori generator grafu podle regularniho vyrazu volby "generate"
+      *
+      * @param regexp popis generovaneho grafu
+      * @return generator grafu
+      */
+     private EdgeGenerator createGenerator(String regexp) {
          // regularni vyrazy pro rozpoznani jaky graf vygenerovat
          String regexpSF = "SF\\d+-\\d+"; // bezskalovy graf
+         String regexpSFC = "SFC\\d+-\\d+"; // bezskalovy graf (copy model)
          String regexpT = "T\\d+-\\d+"; // n-arni strom
          String regexpK = "K\\d+";      // uplny graf
-         String regexpR = "R\\d+-\\d+"; // nahodny graf
+         String regexpR = "R\\d+-\\d+"; // nahodny graf G(n,m)
+         String regexpG = "G\\d+-(0|1)(\\.\\d+)?"; // nahodny graf G(n,p)
+         String regexpRMAT = "RMAT\\d+-\\d+"; // orientovany graf R-MAT
+         String regexpWS = "WS\\d+-\\d+-(0|1)(\\.\\d+)?"; // graf maleho sveta
+         String regexpGRID = "GRID\\d+x\\d+(x\\d+)?"; // mrizka 2D/3D
+         String regexpTORUS = "TORUS\\d+x\\d+(x\\d+)?"; // mrizka s periodickymi okraji
+         String regexpREG = "REG\\d+-\\d+"; // nahodny regularni graf
+         String regexpDSF = "DSF\\d+"; // orientovany bezskalovy graf
 
          /* String [] data = regexp.split(..) oddeli od retezce
           * regexp pocatecni pismeno => zbyde pouze retezec cisel
@@ -392,59 +764,101 @@ public class Main {
           * metody
           */
          
-         Graph graph = null;
+         EdgeGenerator generator = null;
          
          if (regexp.matches(regexpSF)) {
              String [] data = regexp.split("SF");
-             graph = generateScaleFreeGraph(data[1]);
+             generator = generateScaleFreeGraph(data[1]);
+         } else if (regexp.matches(regexpSFC)) {
+             String [] data = regexp.split("SFC");
+             generator = generateCopyModelGraph(data[1]);
          } else if (regexp.matches(regexpT)) {
              String [] data = regexp.split("T");
-             graph = generateTreeGraph(data[1]);
+             generator = generateTreeGraph(data[1]);
          } else if (regexp.matches(regexpK)) {
              String [] data = regexp.split("K");
-             graph = generateCompleteGraph(data[1]);
+             generator = generateCompleteGraph(data[1]);
          } else if (regexp.matches(regexpR)) {
              String [] data = regexp.split("R");
-             graph = generateRandomGraph(data[1]);
+             generator = generateRandomGraph(data[1]);
+         } else if (regexp.matches(regexpG)) {
+             String [] data = regexp.split("G");
+             generator = generateProbabilityGraph(data[1]);
+         } else if (regexp.matches(regexpRMAT)) {
+             String [] data = regexp.split("RMAT");
+             generator = generateRMatGraph(data[1]);
+         } else if (regexp.matches(regexpWS)) {
+             String [] data = regexp.split("WS");
+             generator = generateSmallWorldGraph(data[1]);
+         } else if (regexp.matches(regexpGRID)) {
+             String [] data = regexp.split("GRID");
+             generator = generateLatticeGraph(data[1], false);
+         } else if (regexp.matches(regexpTORUS)) {
+             String [] data = regexp.split("TORUS");
+             generator = generateLatticeGraph(data[1], true);
+         } else if (regexp.matches(regexpREG)) {
+             String [] data = regexp.split("REG");
+             generator = generateRegularGraph(data[1]);
+         } else if (regexp.matches(regexpDSF)) {
+             String [] data = regexp.split("DSF");
+             generator = generateDirectedScaleFreeGraph(data[1]);
          } else {
              System.out.println("Error: unrecognized value '" + regexp + "' for generate option");
              System.exit(0);
          }
          
-         System.out.println("Saving graph to '" + graphName + "'");
+         return generator;
+     }
+     
+     /**
+      * Vygeneruje nahodny graf
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateRandomGraph(String data) {
+         String [] foo = data.split("-");
+         int vertices = Integer.parseInt(foo[0]);
+         int edges = Integer.parseInt(foo[1]);
          
+         System.out.println("Generating: random graph (vertices = " + vertices
+                 + ", edges = "  + edges + ")");
+
          try {
-             GraphWriter writer = new GraphTextWriter(graph);
-             writer.write(new File(graphName));
-         } catch (IOException ex) {
-             System.out.print("IO Error: ");
-             System.out.println(ex.getMessage());
+             RandomGraphGenerator generator = new RandomGraphGenerator(vertices, edges);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a random graph (in 'R" + data + "')");
              System.exit(0);
          }
          
-         System.out.println("DONE");
-         
-         System.exit(0);
+         return null; // sem se program nikdy nedostane
      }
      
      /**
-      * Vygeneruje nahodny graf
+      * Vygeneruje nahodny graf, kde je kazda hrana s danou pravdepodobnosti
       *
       * @param data retezec popisujici typ grafu
       */
-     private Graph generateRandomGraph(String data) {
+     private EdgeGenerator generateProbabilityGraph(String data) {
          String [] foo = data.split("-");
          int vertices = Integer.parseInt(foo[0]);
-         int edges = Integer.parseInt(foo[1]);
+         double probability = Double.parseDouble(foo[1]);
          
          System.out.println("Generating: random graph (vertices = " + vertices
-                 + ", edges = "  + edges + ")");
+                 + ", probability = "  + probability + ")");
 
          try {
-             GraphFactory generator = new RandomGraphGenerator(vertices, edges);
-             return generator.getGraph();
+             RandomGraphGenerator generator = new RandomGraphGenerator(vertices, probability);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
          } catch (IllegalArgumentException ex) {
-             System.out.println("Error: wrong parameters for generating a random graph (in 'R" + data + "')");
+             System.out.println("Error: wrong parameters for generating a random graph (in 'G" + data + "')");
              System.exit(0);
          }
          
@@ -456,7 +870,7 @@ public class Main {
       *
       * @param data retezec popisujici typ grafu
       */
-     private Graph generateScaleFreeGraph(String data) {
+     private EdgeGenerator generateScaleFreeGraph(String data) {
          String [] foo = data.split("-");
          int connect = Integer.parseInt(foo[0]);
          int vertices = Integer.parseInt(foo[1]);
@@ -465,8 +879,11 @@ public class Main {
                  + ", vertices = "  + vertices + ")");
 
          try {
-             GraphFactory generator = new ScaleFreeGraphGenerator(vertices, connect);
-             return generator.getGraph();
+             ScaleFreeGraphGenerator generator = new ScaleFreeGraphGenerator(vertices, connect);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             return generator;
          } catch (IllegalArgumentException ex) {
              System.out.println("Error: wrong parameters for generating a scale-free graph (in 'SF" + data + "')");
              System.exit(0);
@@ -475,12 +892,244 @@ public class Main {
          return null; // sem se program nikdy nedostane
      }
      
+    /**
+      * Vygeneruje bezskalovy graf aproximaci preferencniho pripojovani
+      * (copy model), ktera se generuje paralelne
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateCopyModelGraph(String data) {
+         String [] foo = data.split("-");
+         int connect = Integer.parseInt(foo[0]);
+         int vertices = Integer.parseInt(foo[1]);
+         
+         System.out.println("Generating: scale-free graph, copy model (connect = " + connect
+                 + ", vertices = "  + vertices + ")");
+
+         try {
+             CopyModelGraphGenerator generator = new CopyModelGraphGenerator(vertices, connect);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a scale-free graph (in 'SFC" + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+    /**
+      * Vygeneruje orientovany graf R-MAT, parametry a, b, c, d jsou dany
+      * volbou "rmatparams"
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateRMatGraph(String data) {
+         String [] foo = data.split("-");
+         int scale = Integer.parseInt(foo[0]);
+         int edgeFactor = Integer.parseInt(foo[1]);
+         double[] params = getRMatParams();
+         
+         System.out.println("Generating: R-MAT graph (scale = " + scale
+                 + ", edge factor = "  + edgeFactor + ", a, b, c, d = " + params[0]
+                 + ", " + params[1] + ", " + params[2] + ", " + params[3] + ")");
+
+         try {
+             RMatGraphGenerator generator = new RMatGraphGenerator(scale, edgeFactor,
+                     params[0], params[1], params[2], params[3]);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a R-MAT graph (in 'RMAT" + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+     /**
+      * Vygeneruje graf maleho sveta (Watts, Strogatz)
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateSmallWorldGraph(String data) {
+         String [] foo = data.split("-");
+         int vertices = Integer.parseInt(foo[0]);
+         int degree = Integer.parseInt(foo[1]);
+         double probability = Double.parseDouble(foo[2]);
+         
+         System.out.println("Generating: small-world graph (vertices = " + vertices
+                 + ", degree = "  + degree + ", probability = " + probability + ")");
+
+         try {
+             SmallWorldGraphGenerator generator = new SmallWorldGraphGenerator(vertices, degree, probability);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a small-world graph (in 'WS" + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+    /**
+      * Vygeneruje 2D nebo 3D mrizku
+      *
+      * @param data retezec popisujici typ grafu
+      * @param torus true pro mrizku s periodickymi okraji
+      */
+     private EdgeGenerator generateLatticeGraph(String data, boolean torus) {
+         String [] foo = data.split("x");
+         int [] sides = new int[foo.length];
+         for (int p = 0; p < foo.length; p++) {
+             sides[p] = Integer.parseInt(foo[p]);
+         }
+         
+         System.out.println("Generating: " + (torus ? "torus" : "grid") + " lattice (sides = " + data + ")");
+
+         try {
+             LatticeGraphGenerator generator = new LatticeGraphGenerator(sides, torus);
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a lattice (in '"
+                     + (torus ? "TORUS" : "GRID") + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+    /**
+      * Vygeneruje nahodny regularni graf
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateRegularGraph(String data) {
+         String [] foo = data.split("-");
+         int degree = Integer.parseInt(foo[0]);
+         int vertices = Integer.parseInt(foo[1]);
+         
+         System.out.println("Generating: random regular graph (degree = " + degree
+                 + ", vertices = "  + vertices + ")");
+
+         try {
+             RegularGraphGenerator generator = new RegularGraphGenerator(degree, vertices);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a regular graph (in 'REG" + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+    /**
+      * Vraci parametry a, b, c, d grafu R-MAT (volba "rmatparams")
+      *
+      * @return pole ctyr pravdepodobnosti
+      */
+     private double[] getRMatParams() {
+         if (!options.hasOption("rmatparams")) {
+             return new double[] {RMatGraphGenerator.DEFAULT_A, RMatGraphGenerator.DEFAULT_B,
+                     RMatGraphGenerator.DEFAULT_C, RMatGraphGenerator.DEFAULT_D};
+         }
+         
+         String[] foo = options.getOptionValue("rmatparams").split(",");
+         if (foo.length != 4) {
+             System.out.println("Error: -rmatparams argument must be four numbers a,b,c,d");
+             System.exit(0);
+         }
+         double[] params = new double[4];
+         try {
+             for (int p = 0; p < 4; p++) {
+                 params[p] = Double.parseDouble(foo[p].trim());
+             }
+         } catch (NumberFormatException ex) {
+             System.out.println("Error: can't parse value for -rmatparams argument");
+             System.exit(0);
+         }
+         return params;
+     }
+     
+    /**
+      * Vygeneruje orientovany bezskalovy graf, parametry alfa, beta, gama,
+      * delta_in a delta_out jsou dany volbou "dsfparams"
+      *
+      * @param data retezec popisujici typ grafu
+      */
+     private EdgeGenerator generateDirectedScaleFreeGraph(String data) {
+         int vertices = Integer.parseInt(data);
+         double[] params = getDsfParams();
+         
+         System.out.println("Generating: directed scale-free graph (vertices = " + vertices
+                 + ", alpha, beta, gamma = " + params[0] + ", " + params[1] + ", " + params[2]
+                 + ", delta in, out = " + params[3] + ", " + params[4] + ")");
+
+         try {
+             DirectedScaleFreeGraphGenerator generator = new DirectedScaleFreeGraphGenerator(vertices,
+                     params[0], params[1], params[2], params[3], params[4]);
+             if (getSeed() != null) {
+                 generator.setSeed(getGeneratorSeed());
+             }
+             return generator;
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters for generating a directed scale-free graph (in 'DSF" + data + "')");
+             System.exit(0);
+         }
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+     /**
+      * Vraci parametry alfa, beta, gama, delta_in a delta_out orientovaneho
+      * bezskaloveho grafu (volba "dsfparams")
+      *
+      * @return pole peti parametru
+      */
+     private double[] getDsfParams() {
+         if (!options.hasOption("dsfparams")) {
+             return new double[] {DirectedScaleFreeGraphGenerator.DEFAULT_ALPHA,
+                     DirectedScaleFreeGraphGenerator.DEFAULT_BETA, DirectedScaleFreeGraphGenerator.DEFAULT_GAMMA,
+                     DirectedScaleFreeGraphGenerator.DEFAULT_DELTA_IN, DirectedScaleFreeGraphGenerator.DEFAULT_DELTA_OUT};
+         }
+         
+         String[] foo = options.getOptionValue("dsfparams").split(",");
+         if (foo.length != 5) {
+             System.out.println("Error: -dsfparams argument must be five numbers alpha,beta,gamma,din,dout");
+             System.exit(0);
+         }
+         double[] params = new double[5];
+         try {
+             for (int p = 0; p < 5; p++) {
+                 params[p] = Double.parseDouble(foo[p].trim());
+             }
+         } catch (NumberFormatException ex) {
+             System.out.println("Error: can't parse value for -dsfparams argument");
+             System.exit(0);
+         }
+         return params;
+     }
+     
     /**
       * Vygeneruje n-arni strom
       *
       * @param data retezec popisujici typ grafu
       */
-     private Graph generateTreeGraph(String data) {
+     private EdgeGenerator generateTreeGraph(String data) {
          String [] foo = data.split("-");
          int arity = Integer.parseInt(foo[0]);
          int depth = Integer.parseInt(foo[1]);
@@ -489,8 +1138,9 @@ public class Main {
                  + ", depth = "  + depth + ")");
 
          try {
-             GraphFactory generator = new TreeGraphGenerator(depth, arity);
-             return generator.getGraph();
+             TreeGraphGenerator generator = new TreeGraphGenerator(depth, arity);
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
          } catch (IllegalArgumentException ex) {
              System.out.println("Error: wrong parameters for generating a tree (in 'T" + data + "')");
              System.exit(0);
@@ -504,14 +1154,15 @@ public class Main {
       *
       * @param data retezec popisujici typ grafu
       */
-     private Graph generateCompleteGraph(String data) {
+     private EdgeGenerator generateCompleteGraph(String data) {
          int vertices = Integer.parseInt(data);
          
          System.out.println("Generating: complete graph (vertices = " + vertices + ")");
 
          try {
-             GraphFactory generator = new CompleteGraphGenerator(vertices);
-             return generator.getGraph();
+             CompleteGraphGenerator generator = new CompleteGraphGenerator(vertices);
+             generator.setThreads(getThreads(RangeExecutor.getDefaultThreads()));
+             return generator;
          } catch (IllegalArgumentException ex) {
              System.out.println("Error: wrong parameters for generating a complete graph (in 'K" + data + "')");
              System.exit(0);
@@ -527,10 +1178,17 @@ public class Main {
       * @return nacteny graf
       */
      private Graph loadGraph(String graphName) {
+         if (options.hasOption("implicit")) {
+             return createImplicitGraph(graphName);
+         }
+         if (options.hasOption("generate")) {
+             return generateGraph(graphName);
+         }
+         
          Graph graph = null;
          try {
              System.out.println("Loading " + graphName);
-             GraphFactory loader = new GraphLoader(new File(graphName));
+             GraphFactory loader = GraphFormat.load(new File(graphName), getInputFormat(), !options.hasOption("nosidecar"));
              graph = loader.getGraph();             
          } catch (GraphLoaderException ex) {
              System.out.print("Error: ");
@@ -545,12 +1203,55 @@ public class Main {
      }
      
      /**
+      * Vytvori implicitni graf (volba "implicit"), jehoz hrany se nikde
+      * neukladaji, ale pocitaji z cisel vrcholu
+      *
+      * @param name popis grafu
+      * @return implicitni graf
+      */
+     private Graph createImplicitGraph(String name) {
+         System.out.println("Creating implicit graph " + name);
+         try {
+             if (name.matches("K\\d+")) {
+                 return new ImplicitCompleteGraph(Integer.parseInt(name.substring(1)));
+             } else if (name.matches("T\\d+-\\d+")) {
+                 String [] foo = name.substring(1).split("-");
+                 return new ImplicitTreeGraph(Integer.parseInt(foo[1]), Integer.parseInt(foo[0]));
+             } else if (name.matches("Q\\d+")) {
+                 return new ImplicitHypercubeGraph(Integer.parseInt(name.substring(1)));
+             } else if (name.matches("(GRID|TORUS)\\d+x\\d+(x\\d+)?")) {
+                 boolean torus = name.startsWith("TORUS");
+                 String [] foo = name.substring(torus ? 5 : 4).split("x");
+                 int [] sides = new int[foo.length];
+                 for (int p = 0; p < foo.length; p++) {
+                     sides[p] = Integer.parseInt(foo[p]);
+                 }
+                 return new ImplicitLatticeGraph(sides, torus);
+             }
+         } catch (IllegalArgumentException ex) {
+             System.out.println("Error: wrong parameters of the implicit graph '" + name + "'");
+             System.exit(0);
+         }
+         
+         System.out.println("Error: unrecognized value '" + name + "' for implicit option");
+         System.exit(0);
+         
+         return null; // sem se program nikdy nedostane
+     }
+     
+    /**
       * Vraci pozadovany vstupni graf.
       * Tato volba je pro nektere mody povinna.
       *
       * @return pozadovany vstupni graf
       */
      private String getGraphName() {
+         if (options.hasOption("implicit")) {
+             return options.getOptionValue("implicit");
+         }
+         if (options.hasOption("generate")) {
+             return options.getOptionValue("generate");
+         }
          if (options.hasOption("input")) {
              return options.getOptionValue("input");
          }
@@ -561,6 +1262,27 @@ public class Main {
          return null;
      }
      
+     /**
+      * Vraci format vstupniho grafu (volba "format").
+      *
+      * @return format vstupniho grafu, null pokud se ma urcit podle pripony
+      */
+     private String getInputFormat() {
+         if (!options.hasOption("format")) {
+             return null;
+         }
+         
+         String format = options.getOptionValue("format");
+         if (GraphFormat.isSupported(format)) {
+             return format;
+         }
+         
+         System.out.println("Error: unknown input format '" + format + "'");
+         System.exit(1);
+         
+         return null;
+     }
+     
      /**
       * Vraci volbu pro "convert"
       * 
@@ -589,7 +1311,7 @@ public class Main {
          if (options.hasOption("template")) {
              return options.getOptionValue("template");
          }
-         return defaultValue.replaceAll(".graph", "");
+         return GzipFiles.removeSuffix(defaultValue).replaceAll(".graph", "");
      }
      
      /**
@@ -636,6 +1358,79 @@ public class Main {
          return defaultValue;
      }
      
+     /**
+      * Nastavi manazeru semeno nahodne prochazky a cache vysledku
+      * (volby "seed", "cache" a "cachesize").
+      *
+      * @param manager manazer testovani nahodne prochazky
+      */
+     private void setCache(RWManager manager) {
+         if (options.hasOption("seed")) {
+             manager.setSeed(getSeed());
+         }
+         
+         if (!options.hasOption("cache")) {
+             return;
+         }
+         int size = ResultCache.DEFAULT_SIZE;
+         if (options.hasOption("cachesize")) {
+             try {
+                 size = Integer.parseInt(options.getOptionValue("cachesize"));
+             } catch (NumberFormatException ex) {
+                 System.out.println("Error: can't parse integer value for -cachesize argument");
+                 System.exit(0);
+             }
+         }
+         try {
+             manager.setCache(new ResultCache(new File(options.getOptionValue("cache")), size));
+         } catch (IOException ex) {
+             System.out.print("IO Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         }
+     }
+     
+     /**
+      * Nastavi manazeru soubor a interval kontrolnich bodu a pripadne
+      * pokracovani od posledniho kontrolniho bodu (volby "checkpoint",
+      * "interval" a "resume").
+      *
+      * @param manager manazer testovani nahodne prochazky
+      */
+     private void setCheckpoint(RWManager manager) {
+         if (!options.hasOption("checkpoint")) {
+             if (options.hasOption("resume")) {
+                 System.out.println("Error: -resume requires the -checkpoint file");
+                 System.exit(0);
+             }
+             return;
+         }
+         manager.setCheckpointFile(new File(options.getOptionValue("checkpoint")));
+         
+         if (options.hasOption("interval")) {
+             try {
+                 int interval = Integer.parseInt(options.getOptionValue("interval"));
+                 if (interval <= 0) {
+                     System.out.println("Error: -interval argument must be positive");
+                     System.exit(0);
+                 }
+                 manager.setCheckpointInterval(interval);
+             } catch (NumberFormatException ex) {
+                 System.out.println("Error: can't parse integer value for -interval argument");
+                 System.exit(0);
+             }
+         }
+         
+         if (options.hasOption("resume")) {
+             // zaznam trajektorie by neobsahoval behy pred kontrolnim bodem
+             if (options.hasOption("trajectory") || options.hasOption("replay")) {
+                 System.out.println("Error: -resume can't be combined with -trajectory or -replay");
+                 System.exit(0);
+             }
+             manager.setResume(true);
+         }
+     }
+     
      /**
       * Vraci pozadovany pocet opakovani nahodne prochazky
       *
@@ -675,4 +1470,163 @@ public class Main {
          }
          return defaultValue;
      }
+
+     /**
+      * Vraci pozadovanou delku nahodne prochazky
+      *
+      * @param defaultValue co se ma vratit v pripade, ze neni dana volba zadana
+      * @return pozadovana delka nahodne prochazky
+      */
+     private long getSteps(long defaultValue) {
+         if (options.hasOption("steps")) {
+             try {
+                String foo = options.getOptionValue("steps");
+                long bar = Long.parseLong(foo);
+                if (bar <= 0) {
+                    System.out.println("Error: -steps argument must be positive");
+                    System.exit(0);
+                }
+                return bar;
+             } catch (NumberFormatException ex) {
+                 System.out.println("Error: can't parse integer value for -steps argument");
+                 System.exit(0);
+             }
+         }
+         return defaultValue;
+     }
+
+     /**
+      * Vraci pozadovany pocet vlaken
+      *
+      * @param defaultValue co se ma vratit v pripade, ze neni dana volba zadana
+      * @return pozadovany pocet vlaken
+      */
+     private int getThreads(int defaultValue) {
+         if (options.hasOption("threads")) {
+             try {
+                String foo = options.getOptionValue("threads");
+                int bar = Integer.parseInt(foo);
+                if (bar < 1) {
+                    System.out.println("Error: -threads argument must be at least 1");
+                    System.exit(0);
+                }
+                return bar;
+             } catch (NumberFormatException ex) {
+                 System.out.println("Error: can't parse integer value for -threads argument");
+                 System.exit(0);
+             }
+         }
+         return defaultValue;
+     }
+     
+     /**
+      * Vraci semeno nahodne prochazky nebo generatoru grafu (volba "seed")
+      *
+      * @return semeno nebo null, pokud neni volba zadana
+      */
+     private Long getSeed() {
+         if (!options.hasOption("seed")) {
+             return null;
+         }
+         try {
+             return Long.valueOf(options.getOptionValue("seed"));
+         } catch (NumberFormatException ex) {
+             System.out.println("Error: can't parse integer value for -seed argument");
+             System.exit(0);
+         }
+         return null; // sem se program nikdy nedostane
+     }
+     
+     /**
+      * Vraci semeno generatoru grafu odvozene ze zadaneho semena. Nahodna
+      * prochazka pouziva semeno primo (beh p semeno + p), generovany graf
+      * by jinak s prvnim behem sdilel stejnou posloupnost nahodnych cisel.
+      *
+      * @return semeno generatoru grafu
+      */
+     private long getGeneratorSeed() {
+         return GeneratorBlocks.mix(getSeed().longValue() ^ GENERATOR_SEED);
+     }
+     
+     /**
+      * Vraci true, pokud se maji vystupni soubory zapisovat komprimovane
+      *
+      * @return true, pokud byla zadana volba -gzip
+      */
+     private boolean isCompressed() {
+         return options.hasOption("gzip");
+     }
+     
+     /**
+      * Vraci zapisovac vysledku experimentu. Podle voleb -output a -results
+      * zapisuje vysledky do textovych souboru podle sablony, do souboru
+      * sablona_results.csv nebo je pripojuje ke spolecnemu CSV souboru.
+      *
+      * @param template sablona pro vysledne soubory (jmeno experimentu)
+      * @return zapisovac vysledku
+      */
+     private ResultWriter getResultWriter(String template) {
+         if (results != null) {
+             return results;
+         }
+         
+         results = new ResultWriter(template);
+         results.setCompressed(isCompressed());
+         
+         String suffix = isCompressed() ? GzipFiles.SUFFIX : "";
+         if (options.hasOption("results")) {
+             results.setResultFile(new File(options.getOptionValue("results")), true);
+         } else if (getOutputFormat("text").equals("csv")) {
+             results.setResultFile(new File(template + "_results.csv" + suffix), false);
+         }
+         return results;
+     }
+     
+     /**
+      * Vraci pozadovany format vysledku
+      *
+      * @param defaultValue co se ma vratit v pripade, ze neni dana volba zadana
+      * @return pozadovany format vysledku (text nebo csv)
+      */
+     private String getOutputFormat(String defaultValue) {
+         if (options.hasOption("output")) {
+             String foo = options.getOptionValue("output");
+             if (!foo.equals("text") && !foo.equals("csv")) {
+                 System.out.println("Error: unknown value for -output argument");
+                 System.exit(0);
+             }
+             return foo;
+         }
+         return defaultValue;
+     }
+     
+     /**
+      * Rozepise CSV soubor vysledku do textovych souboru pro program rwreport
+      * a skonci. Pri zadane volbe -template se rozepise pouze tento
+      * experiment, jinak vsechny experimenty ze souboru.
+      */
+     private void unpackResultsAndExit() {
+         String fileName = options.getOptionValue("unpack");
+         String experiment = options.hasOption("template") ? options.getOptionValue("template") : null;
+         
+         try {
+             System.out.println("Loading " + fileName);
+             ResultReader reader = new ResultReader(new File(fileName), experiment);
+             if (reader.getExperiments().isEmpty()) {
+                 System.out.println("Error: no results found in '" + fileName + "'");
+                 System.exit(0);
+             }
+             for (String foo : reader.getExperiments()) {
+                 int files = reader.unpack(foo, foo);
+                 System.out.println("Unpacked " + foo + ": " + files + " files");
+             }
+         } catch (IOException ex) {
+             System.out.print("IO Error: ");
+             System.out.println(ex.getMessage());
+             System.exit(0);
+         }
+         
+         System.out.println("DONE");
+         System.exit(0);
+     }
 }
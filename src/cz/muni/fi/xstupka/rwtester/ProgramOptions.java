@@ -105,7 +105,7 @@ public class ProgramOptions {
         
         Option mode = OptionBuilder.withArgName("mode")
                                     .hasArg()
-                                    .withDescription("possible modes: analyze, cover, path")
+                                    .withDescription("possible modes: analyze, cover, path, stationary")
                                     .create("mode");        
         options.addOption(mode);
         
@@ -135,7 +135,7 @@ public class ProgramOptions {
         
         Option generate = OptionBuilder.withArgName("regexp")
                                     .hasArg()
-                                    .withDescription("generate a new graph according to the given regular expression (examples: SF2-100, K50, T2-10, R100-500)")
+                                    .withDescription("generate a new graph according to the given regular expression (examples: SF2-100, SFC2-100, K50, T2-10, R100-500, G100-0.05, RMAT16-8, WS1000-10-0.1, GRID100x100, TORUS20x20x20, REG3-1000, DSF1000), with -mode the generated graph is used directly")
                                     .create("generate");
         options.addOption(generate);
         
@@ -158,5 +158,135 @@ public class ProgramOptions {
         Option gml = OptionBuilder.withDescription("generate gml info files")
                                    .create("gml");
         options.addOption(gml);
+        
+        Option exact = OptionBuilder.withDescription("compute exact expected hitting times instead of running the random walk (path mode only)")
+                                   .create("exact");
+        options.addOption(exact);
+        
+        Option spectral = OptionBuilder.withDescription("estimate the spectral gap and predict mixing and cover times (analyze mode, undirected graphs only)")
+                                   .create("spectral");
+        options.addOption(spectral);
+        
+        Option limit = OptionBuilder.withArgName("steps|auto")
+                                    .hasArg()
+                                    .withDescription("stop each random walk after the given number of steps, auto uses the predicted cover time (cover and path mode)")
+                                    .create("limit");
+        options.addOption(limit);
+        
+        Option steps = OptionBuilder.withArgName("count")
+                                    .hasArg()
+                                    .withDescription("length of the random walk used to scale the expected number of visits (stationary mode only)")
+                                    .create("steps");
+        options.addOption(steps);
+        
+        Option threads = OptionBuilder.withArgName("count")
+                                    .hasArg()
+                                    .withDescription("number of threads used by the analysis, numerical methods and graph generation (default: number of processors)")
+                                    .create("threads");
+        options.addOption(threads);
+        
+        Option gzip = OptionBuilder.withDescription("write output graphs and results gzip compressed (.gz is appended to file names)")
+                                   .create("gzip");
+        options.addOption(gzip);
+        
+        Option output = OptionBuilder.withArgName("format")
+                                    .hasArg()
+                                    .withDescription("format of the results: text (one file per series, default) or csv (all series in template_results.csv)")
+                                    .create("output");
+        options.addOption(output);
+        
+        Option results = OptionBuilder.withArgName("file")
+                                    .hasArg()
+                                    .withDescription("append all results of the experiment to the given csv file shared by a whole sweep")
+                                    .create("results");
+        options.addOption(results);
+        
+        Option unpack = OptionBuilder.withArgName("file")
+                                    .hasArg()
+                                    .withDescription("unpack a csv results file into text files for rwreport (-template selects one experiment)")
+                                    .create("unpack");
+        options.addOption(unpack);
+        
+        Option trajectory = OptionBuilder.withArgName("file")
+                                    .hasArg()
+                                    .withDescription("record the trajectory of all random walks to a binary file (cover and path mode)")
+                                    .create("trajectory");
+        options.addOption(trajectory);
+        
+        Option replay = OptionBuilder.withArgName("file")
+                                    .hasArg()
+                                    .withDescription("analyze a recorded trajectory instead of running the random walk (cover and path mode)")
+                                    .create("replay");
+        options.addOption(replay);
+        
+        Option format = OptionBuilder.withArgName("format")
+                                    .hasArg()
+                                    .withDescription("format of the input graph: text, snap, mtx or metis (default by the file extension)")
+                                    .create("format");
+        options.addOption(format);
+        
+        Option checkpoint = OptionBuilder.withArgName("file")
+                                    .hasArg()
+                                    .withDescription("periodically save the state of the experiment to the given file (cover mode)")
+                                    .create("checkpoint");
+        options.addOption(checkpoint);
+        
+        Option interval = OptionBuilder.withArgName("seconds")
+                                    .hasArg()
+                                    .withDescription("interval between checkpoints in seconds (default 600)")
+                                    .create("interval");
+        options.addOption(interval);
+        
+        Option resume = OptionBuilder.withDescription("continue the experiment from the last checkpoint (cover mode, requires -checkpoint)")
+                                   .create("resume");
+        options.addOption(resume);
+        
+        Option seed = OptionBuilder.withArgName("number")
+                                    .hasArg()
+                                    .withDescription("seed of the random walk or of the generated graph, runs with the same seed are identical (cover and path mode, -generate)")
+                                    .create("seed");
+        options.addOption(seed);
+        
+        Option cache = OptionBuilder.withArgName("dir")
+                                    .hasArg()
+                                    .withDescription("reuse results of identical experiments stored in the given cache directory (cover and path mode, with -seed only)")
+                                    .create("cache");
+        options.addOption(cache);
+        
+        Option cachesize = OptionBuilder.withArgName("MB")
+                                    .hasArg()
+                                    .withDescription("maximal size of the cache directory, least recently used results are removed (default 1024)")
+                                    .create("cachesize");
+        options.addOption(cachesize);
+        
+        Option nosidecar = OptionBuilder.withDescription("do not load or write the binary copy of the input graph (graph.bin)")
+                                   .create("nosidecar");
+        options.addOption(nosidecar);
+        
+        Option stream = OptionBuilder.withDescription("write the generated graph straight to the file without building it in memory (-generate only)")
+                                   .create("stream");
+        options.addOption(stream);
+        
+        Option rmatparams = OptionBuilder.withArgName("a,b,c,d")
+                                    .hasArg()
+                                    .withDescription("quadrant propabilities of a generated R-MAT graph (default 0.57,0.19,0.19,0.05)")
+                                    .create("rmatparams");
+        options.addOption(rmatparams);
+        
+        Option implicit = OptionBuilder.withArgName("graph")
+                                    .hasArg()
+                                    .withDescription("use a graph whose edges are computed from vertex numbers instead of -input (examples: K1000000, T2-20, Q20, GRID1000x1000, TORUS100x100x100)")
+                                    .create("implicit");
+        options.addOption(implicit);
+        
+        Option save = OptionBuilder.withDescription("save the graph generated for -mode to template.graph (-generate with -mode)")
+                                   .create("save");
+        options.addOption(save);
+        
+        Option dsfparams = OptionBuilder.withArgName("alpha,beta,gamma,din,dout")
+                                    .hasArg()
+                                    .withDescription("parameters of a generated directed scale-free graph (default 0.41,0.54,0.05,0.2,0)")
+                                    .create("dsfparams");
+        options.addOption(dsfparams);
     }
 }
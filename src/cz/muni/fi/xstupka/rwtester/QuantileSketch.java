@@ -0,0 +1,189 @@
+// File: QuantileSketch.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import java.io.Serializable;
+
+/**
+ * Tato trida uchovava priblizne rozdeleni nezapornych celych cisel
+ * (napr. casu pokryti grafu z jednotlivych behu nahodne prochazky)
+ * v pameti nezavisle na poctu zaznamenanych hodnot.
+ * <p>
+ * Jedna se o histogram s logaritmickymi prihradkami ve stylu HDR histogramu.
+ * Hodnoty mensi nez 2^PRECISION_BITS se ukladaji presne, vetsi hodnoty
+ * se ukladaji s relativni chybou nejvyse 2^-(PRECISION_BITS - 1) (mene nez 1 %).
+ * Pocet prihradek je nejvyse nekolik tisic a pole se zvetsuje az podle
+ * nejvetsi zaznamenane hodnoty. Minimum a maximum se uchovavaji presne.
+ * <p>
+ * Histogramy lze slucovat metodou <code>merge</code>, kazdy beh nebo kazde
+ * vlakno tak muze plnit vlastni instanci a vysledky se na konci sectou.
+ * Trida neni synchronizovana.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class QuantileSketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // pocet bitu, ktere se u kazde hodnoty uchovavaji presne
+    public static final int PRECISION_BITS = 8;
+
+    private static final int HALF = 1 << (PRECISION_BITS - 1);
+
+    private long[] counts;
+    private long count;
+    private long min;
+    private long max;
+
+    /**
+     * Vytvori novou prazdnou instanci tridy QuantileSketch
+     */
+    public QuantileSketch() {
+        counts = new long[2 * HALF];
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Zaznamena hodnotu.
+     *
+     * @param value nezaporna hodnota
+     * @throws IllegalArgumentException pokud je hodnota zaporna
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Zaznamena hodnotu vicekrat.
+     *
+     * @param value nezaporna hodnota
+     * @param times kolikrat se ma hodnota zaznamenat
+     * @throws IllegalArgumentException pokud je hodnota zaporna
+     */
+    public void record(long value, long times) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value parameter is negative");
+        }
+        if (times <= 0) {
+            return;
+        }
+        int index = getIndex(value);
+        ensureCapacity(index + 1);
+        counts[index] += times;
+        count += times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Pricte k tomuto histogramu vsechny hodnoty zadaneho histogramu.
+     *
+     * @param other histogram, ktery se ma pricist
+     * @throws NullPointerException pokud je parametr <code>other</code> null
+     */
+    public void merge(QuantileSketch other) {
+        if (other == null) {
+            throw new NullPointerException("other parameter is null");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        ensureCapacity(other.counts.length);
+        for (int p = 0; p < other.counts.length; p++) {
+            counts[p] += other.counts[p];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Vraci priblizny kvantil zaznamenanych hodnot.
+     *
+     * @param quantile pozadovany kvantil v rozsahu 0.0 - 1.0 (napr. 0.99)
+     * @return hodnota, pod kterou (vcetne) lezi alespon dany podil hodnot;
+     *     pro prazdny histogram 0
+     */
+    public long getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (quantile >= 1.0) {
+            return max;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long sum = 0;
+        for (int p = 0; p < counts.length; p++) {
+            sum += counts[p];
+            if (sum >= rank) {
+                // stred prihradky, nejvyse vsak skutecne extremy
+                long value = getLowerBound(p) + (getWidth(p) - 1) / 2;
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Vraci index prihradky pro danou hodnotu.
+     */
+    private static int getIndex(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (PRECISION_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Vraci nejmensi hodnotu, ktera patri do dane prihradky.
+     */
+    private static long getLowerBound(int index) {
+        if (index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        return ((long) (index - shift * HALF)) << shift;
+    }
+
+    /**
+     * Vraci pocet ruznych hodnot, ktere patri do dane prihradky.
+     */
+    private static long getWidth(int index) {
+        if (index < 2 * HALF) {
+            return 1;
+        }
+        return 1L << (index / HALF - 1);
+    }
+
+    /**
+     * Zvetsi pole prihradek tak, aby melo alespon danou velikost.
+     */
+    private void ensureCapacity(int size) {
+        if (size > counts.length) {
+            long[] foo = new long[Math.max(size, counts.length + HALF)];
+            System.arraycopy(counts, 0, foo, 0, counts.length);
+            counts = foo;
+        }
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+}
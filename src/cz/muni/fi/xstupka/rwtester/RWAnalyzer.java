@@ -32,34 +32,147 @@ public class RWAnalyzer {
      * @throws NullPointerException pokud je parametr <code>rw</code> null
      */
     public static RWResult analyze(RandomWalk rw) {
+        return analyze(rw, 1);
+    }
+    
+    /**
+     * Provadi analyzu dokoncene nahodne prochazky, vrcholy grafu prochazi
+     * zadany pocet vlaken. Viz metoda <code>analyze(RandomWalk)</code>.
+     * 
+     * @param rw dokoncena nahodna prochazka, jejiz analyza ma byt provedena
+     * @param threads pocet vlaken
+     * @return vysledek analyzy v podobe instance tridy <code>RWResult</code>
+     * @throws NullPointerException pokud je parametr <code>rw</code> null
+     */
+    public static RWResult analyze(RandomWalk rw, int threads) {
         if (rw == null) {
             throw new NullPointerException("rw parameter is null");
         }
         
-        Graph graph = rw.getGraph();
+        return analyze(rw.getGraph(), rw.getTime(), rw.getVisitedVertices(), rw.getPercentageCover(), threads);
+    }
+    
+    /**
+     * Provadi analyzu dokonceneho behu nahodne prochazky, jehoz vysledky
+     * jsou ulozeny v hodnotach vrcholu grafu (<i>valueA</i> - pocet navstiveni,
+     * <i>valueB</i> - cas prvniho pristupu, <i>length</i> - vzdalenost
+     * od pocatku). Pouziva se napr. pri prehravani zaznamenane trajektorie.
+     *
+     * @param graph graf s nastavenymi hodnotami vrcholu
+     * @param time celkovy cas behu nahodne prochazky
+     * @param visitedVertices pocet navstivenych vrcholu
+     * @param percentageCover casy dosazeni procentualnich pokryti (101 prvku)
+     * @return vysledek analyzy v podobe instance tridy <code>RWResult</code>
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     */
+    public static RWResult analyze(Graph graph, long time, int visitedVertices, long[] percentageCover) {
+        return analyze(graph, time, visitedVertices, percentageCover, 1);
+    }
+    
+    /**
+     * Provadi analyzu dokonceneho behu nahodne prochazky ulozeneho
+     * v hodnotach vrcholu grafu, vrcholy grafu prochazi zadany pocet vlaken.
+     * Viz metoda <code>analyze(Graph, long, int, long[])</code>.
+     *
+     * @param graph graf s nastavenymi hodnotami vrcholu
+     * @param time celkovy cas behu nahodne prochazky
+     * @param visitedVertices pocet navstivenych vrcholu
+     * @param percentageCover casy dosazeni procentualnich pokryti (101 prvku)
+     * @param threads pocet vlaken
+     * @return vysledek analyzy v podobe instance tridy <code>RWResult</code>
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     */
+    public static RWResult analyze(Graph graph, long time, int visitedVertices, long[] percentageCover,
+            int threads) {
+        if (graph == null) {
+            throw new NullPointerException("graph parameter is null");
+        }
         
         // vytvori novou instanci tridy RWResult a nastavi ji orientaci grafu
         RWResult result = new RWResult(graph.isDirected());
         
         // nastavi zavislost poctu navstiveni vrcholu na stupni vrcholu
-        setDegreeVisited(graph, result);
+        setDegreeVisited(graph, result, threads);
         
         // nastavi zavislost casu prvniho pristupu k vrcholu na stupni vrcholu
-        setDegreeTime(graph, result);
+        setDegreeTime(graph, result, threads);
         
         // nastavi zavislost pomeru casu prvniho pristupu a vzdalenosti od pocatku
         // nahodne prochazky na stupni vrcholu
-        setDegreeTimeLength(graph, result);
+        setDegreeTimeLength(graph, result, threads);
         
         // nastavi zavislost poctu navstiveni vrcholu na vzdalenosti od pocatku
-        setLengthVisited(graph, result);
+        setLengthVisited(graph, result, threads);
         
         // nastavi zavislost casu prvniho navstiveni vrcholu na vzdalenosti od pocatku
-        setLengthTime(graph, result);
+        setLengthTime(graph, result, threads);
         
         // nastavi prubeh procentualniho pokryti grafu
-        result.setPercentageCover(rw.getPercentageCover());
+        result.setPercentageCover(percentageCover);
+        
+        // zaznamena celkovy cas a casy dosazeni vybranych pokryti do histogramu
+        setQuantiles(graph, time, visitedVertices, percentageCover, result);
+        
+        return result;
+    }
+    
+    /**
+     * Zaznamena celkovy cas nahodne prochazky a casy dosazeni 50, 90 a 99%
+     * pokryti grafu do histogramu vysledku. Pokryti, ktera nahodna prochazka
+     * nedosahla, se nezaznamenavaji.
+     *
+     * @param graph graf, na kterem byla nahodna prochazka spustena
+     * @param time celkovy cas nahodne prochazky
+     * @param visitedVertices pocet navstivenych vrcholu
+     * @param cover casy dosazeni procentualnich pokryti
+     * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     */
+    private static void setQuantiles(Graph graph, long time, int visitedVertices, long[] cover, RWResult result) {
+        result.getQuantileSketch(RWResult.TIME).record(time);
+        
+        int vertices = graph.getNumberOfVertices();
+        int coverage = (int) (((double) visitedVertices / (double) vertices) * 100.0);
+        if (coverage >= 50) {
+            result.getQuantileSketch(RWResult.COVER_50).record(cover[50]);
+        }
+        if (coverage >= 90) {
+            result.getQuantileSketch(RWResult.COVER_90).record(cover[90]);
+        }
+        if (coverage >= 99) {
+            result.getQuantileSketch(RWResult.COVER_99).record(cover[99]);
+        }
+    }
+    
+    /**
+     * Provadi analyzu poctu navstiveni vrcholu grafu. Na rozdil od metody
+     * <code>analyze</code> nepotrebuje dokoncenou nahodnou prochazku, pocty
+     * navstiveni se berou primo z hodnot <i>valueA</i> vrcholu grafu.
+     * Vysledek obsahuje pouze zavislosti poctu navstiveni na stupni vrcholu.
+     *
+     * @param graph graf s nastavenymi pocty navstiveni vrcholu
+     * @return vysledek analyzy v podobe instance tridy <code>RWResult</code>
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     */
+    public static RWResult analyzeVisits(Graph graph) {
+        return analyzeVisits(graph, 1);
+    }
+    
+    /**
+     * Provadi analyzu poctu navstiveni vrcholu grafu, vrcholy grafu
+     * prochazi zadany pocet vlaken. Viz metoda <code>analyzeVisits(Graph)</code>.
+     *
+     * @param graph graf s nastavenymi pocty navstiveni vrcholu
+     * @param threads pocet vlaken
+     * @return vysledek analyzy v podobe instance tridy <code>RWResult</code>
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     */
+    public static RWResult analyzeVisits(Graph graph, int threads) {
+        if (graph == null) {
+            throw new NullPointerException("graph parameter is null");
+        }
         
+        RWResult result = new RWResult(graph.isDirected());
+        setDegreeVisited(graph, result, threads);
         return result;
     }
     
@@ -69,10 +182,11 @@ public class RWAnalyzer {
      * 
      * @param graph graf, ze ktereho maji byt ziskana potrebna data
      * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     * @param threads pocet vlaken
      */   
-    private static void setLengthVisited(Graph graph, RWResult result) {
+    private static void setLengthVisited(Graph graph, RWResult result, int threads) {
         Collection<Vertex> vertices = graph.getVertices();
-        long maxLength = GraphAnalyzer.getMaxLength(graph);
+        long maxLength = GraphAnalyzer.getMaxLength(graph, threads);
         
         Map<Long, long[]> data = createDataMap(0, maxLength);
         
@@ -98,10 +212,11 @@ public class RWAnalyzer {
      * 
      * @param graph graf, ze ktereho maji byt ziskana potrebna data
      * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     * @param threads pocet vlaken
      */   
-    private static void setLengthTime(Graph graph, RWResult result) {
+    private static void setLengthTime(Graph graph, RWResult result, int threads) {
         Collection<Vertex> vertices = graph.getVertices();
-        long maxLength = GraphAnalyzer.getMaxLength(graph);
+        long maxLength = GraphAnalyzer.getMaxLength(graph, threads);
         
         Map<Long, long[]> data = createDataMap(0, maxLength);
         
@@ -126,19 +241,20 @@ public class RWAnalyzer {
      * 
      * @param graph graf, ze ktereho maji byt ziskana potrebna data
      * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     * @param threads pocet vlaken
      */   
-    private static void setDegreeVisited(Graph graph, RWResult result) {        
+    private static void setDegreeVisited(Graph graph, RWResult result, int threads) {        
         if (graph.isDirected()) {
-            List<int []> result1 = analyzeDegreeVisited(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeVisited(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeVisited(result1);
             
-            List<int []> result2 = analyzeDegreeVisited(graph, GraphAnalyzer.IN_DEGREE);
+            List<int []> result2 = analyzeDegreeVisited(graph, GraphAnalyzer.IN_DEGREE, threads);
             result.setInDegreeVisited(result2);
             
-            List<int []> result3 = analyzeDegreeVisited(graph, GraphAnalyzer.OUT_DEGREE);
+            List<int []> result3 = analyzeDegreeVisited(graph, GraphAnalyzer.OUT_DEGREE, threads);
             result.setOutDegreeVisited(result3);
         } else {
-            List<int []> result1 = analyzeDegreeVisited(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeVisited(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeVisited(result1);
         }
     }
@@ -148,19 +264,20 @@ public class RWAnalyzer {
      * 
      * @param graph graf, ze ktereho maji byt ziskana potrebna data
      * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     * @param threads pocet vlaken
      */   
-    private static void setDegreeTime(Graph graph, RWResult result) {        
+    private static void setDegreeTime(Graph graph, RWResult result, int threads) {        
         if (graph.isDirected()) {
-            List<int []> result1 = analyzeDegreeTime(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeTime(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeTime(result1);
             
-            List<int []> result2 = analyzeDegreeTime(graph, GraphAnalyzer.IN_DEGREE);
+            List<int []> result2 = analyzeDegreeTime(graph, GraphAnalyzer.IN_DEGREE, threads);
             result.setInDegreeTime(result2);
             
-            List<int []> result3 = analyzeDegreeTime(graph, GraphAnalyzer.OUT_DEGREE);
+            List<int []> result3 = analyzeDegreeTime(graph, GraphAnalyzer.OUT_DEGREE, threads);
             result.setOutDegreeTime(result3);
         } else {
-            List<int []> result1 = analyzeDegreeTime(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeTime(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeTime(result1);
         }
     }
@@ -171,19 +288,20 @@ public class RWAnalyzer {
      * 
      * @param graph graf, ze ktereho maji byt ziskana potrebna data
      * @param result vysledek, do ktereho maji byt ziskana data ulozena
+     * @param threads pocet vlaken
      */    
-    private static void setDegreeTimeLength(Graph graph, RWResult result) {        
+    private static void setDegreeTimeLength(Graph graph, RWResult result, int threads) {        
         if (graph.isDirected()) {
-            List<int []> result1 = analyzeDegreeTimeLength(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeTimeLength(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeTimeLength(result1);
             
-            List<int []> result2 = analyzeDegreeTimeLength(graph, GraphAnalyzer.IN_DEGREE);
+            List<int []> result2 = analyzeDegreeTimeLength(graph, GraphAnalyzer.IN_DEGREE, threads);
             result.setInDegreeTimeLength(result2);
             
-            List<int []> result3 = analyzeDegreeTimeLength(graph, GraphAnalyzer.OUT_DEGREE);
+            List<int []> result3 = analyzeDegreeTimeLength(graph, GraphAnalyzer.OUT_DEGREE, threads);
             result.setOutDegreeTimeLength(result3);
         } else {
-            List<int []> result1 = analyzeDegreeTimeLength(graph, GraphAnalyzer.DEGREE);
+            List<int []> result1 = analyzeDegreeTimeLength(graph, GraphAnalyzer.DEGREE, threads);
             result.setDegreeTimeLength(result1);
         }
     }
@@ -198,13 +316,15 @@ public class RWAnalyzer {
      * @param type typ stupne, pro ktery se ma analyza provest, moznosti jsou:
      *     <code>GraphAnalyzer.DEGREE</code>, <code>GraphAnalyzer.IN_DEGREE</code>
      *     a <code>GraphAnalyzer.OUT_DEGREE</code>
+     * @param threads pocet vlaken
      * @return seznam dvojic cisel. Prvni udava pozadovany stupen vrcholu a druhe
      *     pak prumerny pocet navstiveni vsech vrcholu majicich tento stupen
      */
-    private static List<int[]> analyzeDegreeVisited(Graph graph, int type) {            
+    private static List<int[]> analyzeDegreeVisited(Graph graph, int type, int threads) {            
         Collection<Vertex> vertices = graph.getVertices();
-        int min = GraphAnalyzer.getMinDegree(graph, type);
-        int max = GraphAnalyzer.getMaxDegree(graph, type);
+        int[] bounds = GraphAnalyzer.getDegreeBounds(graph, type, threads);
+        int min = bounds[0];
+        int max = bounds[1];
             
         /*  
          * Pro vypocet pouzijeme Map. klicem bude stupen vrcholu a hodnotou
@@ -247,13 +367,15 @@ public class RWAnalyzer {
      * @param type typ stupne, pro ktery se ma analyza provest, moznosti jsou:
      *     <code>GraphAnalyzer.DEGREE</code>, <code>GraphAnalyzer.IN_DEGREE</code>
      *     a <code>GraphAnalyzer.OUT_DEGREE</code>
+     * @param threads pocet vlaken
      * @return seznam dvojic cisel. Prvni udava pozadovany stupen vrcholu a druhe
      *     pak prumerny cas prvniho navstiveni vrcholu majicich tento stupen.
      */
-    private static List<int[]> analyzeDegreeTime(Graph graph, int type) {            
+    private static List<int[]> analyzeDegreeTime(Graph graph, int type, int threads) {            
         Collection<Vertex> vertices = graph.getVertices();
-        int min = GraphAnalyzer.getMinDegree(graph, type);
-        int max = GraphAnalyzer.getMaxDegree(graph, type);
+        int[] bounds = GraphAnalyzer.getDegreeBounds(graph, type, threads);
+        int min = bounds[0];
+        int max = bounds[1];
             
         /*  
          * Pro vypocet pouzijeme Map. klicem bude stupen vrcholu a hodnotou
@@ -298,14 +420,16 @@ public class RWAnalyzer {
      * @param type typ stupne, pro ktery se ma analyza provest, moznosti jsou:
      *     <code>GraphAnalyzer.DEGREE</code>, <code>GraphAnalyzer.IN_DEGREE</code>
      *     a <code>GraphAnalyzer.OUT_DEGREE</code>
+     * @param threads pocet vlaken
      * @return seznam dvojic cisel. Prvni udava stupen vrcholu a druhe pak
      *     pomer casu prvniho navstiveni vrcholu majicich tento stupen a vzdalenosti
      *     techto vrcholu od pocatku nahodne prochazky.
      */
-    private static List<int[]> analyzeDegreeTimeLength(Graph graph, int type) {            
+    private static List<int[]> analyzeDegreeTimeLength(Graph graph, int type, int threads) {            
         Collection<Vertex> vertices = graph.getVertices();
-        int min = GraphAnalyzer.getMinDegree(graph, type);
-        int max = GraphAnalyzer.getMaxDegree(graph, type);
+        int[] bounds = GraphAnalyzer.getDegreeBounds(graph, type, threads);
+        int min = bounds[0];
+        int max = bounds[1];
             
         /*
          *  tentokrat je dvojice soucet casu prvniho pristupu
@@ -6,7 +6,9 @@ package cz.muni.fi.xstupka.rwtester;
 import cz.muni.fi.xstupka.rwtester.graph.Graph;
 import cz.muni.fi.xstupka.rwtester.graph.GraphException;
 import cz.muni.fi.xstupka.rwtester.graph.GraphImpl;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitGraph;
 import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.io.File;
 import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -25,6 +27,15 @@ public class RWManager {
     private String graphName;
     private int randomWalkMode;
     private boolean discoverMode;
+    private int threads;
+    private long stepLimit;
+    private boolean compressed;
+    private File trajectoryFile;
+    private File checkpointFile;
+    private int checkpointInterval;
+    private boolean resume;
+    private ResultCache cache;
+    private Long seed;
     private Graph averageGraph;
             
     /** 
@@ -40,10 +51,16 @@ public class RWManager {
         graphName = graph.toString();
         setRandomWalkMode(RandomWalk.CLASSIC_MODE);
         setDiscoverMode(false);
+        setThreads(1);
+        setStepLimit(0);
+        setCheckpointInterval(CheckpointWriter.DEFAULT_INTERVAL);
     }
 
     /**
      * Spusti testovani nahodne prochazky v rezimu pokryti grafu.
+     * Je-li nastaven soubor kontrolniho bodu, stav testovani se do nej
+     * periodicky zapisuje a pri nastavene volbe <code>resume</code> se
+     * v testovani pokracuje od posledniho kontrolniho bodu.
      * 
      * @param runs kolikrat ma byt nahodna prochazka spustena (t.j. z kolika testu ma byt
      *     vytvoren vysledny prumer)
@@ -68,8 +85,9 @@ public class RWManager {
             System.out.println("PASSED\n");
         }
 
-        // seznam vysledku jednotlivych nahodnych prochazek
-        RWResult[] results = new RWResult[runs];
+        // prumer vysledku jednotlivych nahodnych prochazek, vysledky se pridavaji
+        // postupne a neni tedy nutne je drzet v pameti vsechny najednou
+        RWResult result = new RWResult(graph.isDirected(), runs);
         
         // zvolime prislusnou nahodnou prochazku podle toho, jedna-li se
         // o orientovany nebo neorientovany graf
@@ -86,6 +104,7 @@ public class RWManager {
         
         randomWalk.setMode(randomWalkMode);
         randomWalk.setDiscoverMode(discoverMode);
+        randomWalk.setStepLimit(stepLimit);
         if (discoverMode) {
             System.out.println("Discover mode ON");
         } else {
@@ -104,26 +123,124 @@ public class RWManager {
         
         System.out.println("start vertex: " + startVertex);
         System.out.println("loops: " + runs);
+        if (seed != null) {
+            System.out.println("seed: " + seed);
+        }
+        if (stepLimit > 0) {
+            System.out.println("step limit: " + stepLimit);
+        }
         System.out.println("coverage: " + coverage + "%");
-        System.out.println("");
+        
+        // stejny experiment mohl byt jiz spocitan
+        String cacheKey = getCacheKey("cover", startVertex, String.valueOf(coverage), runs);
+        RWResult cached = lookupCache(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
         
         // vytvorime novy prumerny graf
-        averageGraph = new GraphImpl(graph);
+        averageGraph = copyGraph();
         
-        // spustime vsechny nahodne prochazky a prubezne alayzujeme ziskana data
-        for (int p = 0; p < runs; p++) {
-            System.out.print("Running test " + (p+1) + "\t\t");
-            randomWalk.runCover(startVertex, coverage);
-            System.out.print("Analyzing");
-            results[p] = RWAnalyzer.analyze(randomWalk);
-            updateAverageGraph();
-            System.out.println("\tDONE");
+        // pripadne pokracujeme od posledniho kontrolniho bodu
+        Checkpoint checkpoint = new Checkpoint(graph, startVertex, coverage, runs,
+                randomWalkMode, discoverMode, stepLimit, seed);
+        WalkState resumeState = null;
+        int firstRun = 0;
+        if (resume) {
+            Checkpoint saved;
+            try {
+                saved = Checkpoint.load(checkpointFile);
+            } catch (IOException ex) {
+                System.out.println("FAILED (can't read checkpoint: " + ex.getMessage() + ")");
+                return null;
+            }
+            String mismatch = checkpoint.getMismatch(saved);
+            if (mismatch != null) {
+                System.out.println("FAILED (checkpoint was made with " + mismatch + ")");
+                return null;
+            }
+            checkpoint = saved;
+            firstRun = saved.getCompletedRuns();
+            if (firstRun > 0) {
+                result = saved.getResult();
+                restoreAverageGraph(saved);
+            }
+            resumeState = saved.getWalk();
+            System.out.print("resuming: " + firstRun + " loops completed");
+            if (resumeState != null) {
+                System.out.print(", loop " + (firstRun + 1) + " at time " + resumeState.getTime());
+            }
+            System.out.println("");
+        }
+        System.out.println("");
+        
+        // otevreme soubor pro zaznam trajektorie
+        TrajectoryRecorder recorder;
+        try {
+            recorder = openTrajectory(randomWalk);
+        } catch (IOException ex) {
+            System.out.println("FAILED (can't open trajectory file: " + ex.getMessage() + ")");
+            return null;
+        }
+        
+        CheckpointWriter checkpointWriter = null;
+        if (checkpointFile != null) {
+            // kontrolni bod s dokoncenymi behy se vytvari jen pri zapisu
+            final Checkpoint parameters = checkpoint;
+            final RWResult completed = result;
+            checkpointWriter = new CheckpointWriter(checkpointFile, checkpointInterval, checkpoint,
+                    new CheckpointWriter.Source() {
+                public Checkpoint createCompleted(int completedRuns) {
+                    return createCheckpoint(parameters, completedRuns, completed);
+                }
+            });
+            System.out.println("checkpoint: " + checkpointFile + " (every " + checkpointInterval + " s)");
+        }
+        randomWalk.setCheckpointWriter(checkpointWriter);
+        
+        try {
+            // spustime vsechny nahodne prochazky a prubezne alayzujeme ziskana data
+            for (int p = firstRun; p < runs; p++) {
+                System.out.print("Running test " + (p+1) + "\t\t");
+                if (seed != null) {
+                    randomWalk.setSeed(seed.longValue() + p);
+                }
+                if (resumeState != null) {
+                    randomWalk.resumeCover(startVertex, coverage, resumeState);
+                    resumeState = null;
+                } else {
+                    randomWalk.runCover(startVertex, coverage);
+                }
+                System.out.print("Analyzing");
+                result.add(RWAnalyzer.analyze(randomWalk, threads));
+                updateAverageGraph();
+                if (randomWalk.isStepLimitReached()) {
+                    result.setTruncated(result.getTruncated() + 1);
+                }
+                // kontrolni bod obsahuje i pocet behu ukoncenych limitem kroku
+                if (checkpointWriter != null) {
+                    checkpointWriter.setCompleted(p + 1);
+                }
+                if (randomWalk.isStepLimitReached()) {
+                    System.out.println("\tDONE (step limit reached)");
+                } else {
+                    System.out.println("\tDONE");
+                }
+            }
+        } finally {
+            closeTrajectory(recorder);
+            closeCheckpoint(checkpointWriter);
         }
         
         computeAverageGraph(runs);
 
         // vratime celkovy vysledek jako prumer vsech dosazenych vysledku
-        return new RWResult(results);
+        result.finish();
+        if (result.getTruncated() > 0) {
+            System.out.println("truncated: " + result.getTruncated() + "/" + runs + " loops reached the step limit");
+        }
+        storeCache(cacheKey, result);
+        return result;
     }
     
     /**
@@ -149,8 +266,9 @@ public class RWManager {
             System.out.println("PASSED\n");
         }
         
-        // seznam vysledku jednotlivych nahodnych prochazek
-        RWResult[] results = new RWResult[runs];
+        // prumer vysledku jednotlivych nahodnych prochazek, vysledky se pridavaji
+        // postupne a neni tedy nutne je drzet v pameti vsechny najednou
+        RWResult result = new RWResult(graph.isDirected(), runs);
         
         // zvolime prislusnou nahodnou prochazku podle toho, jedna-li se
         // o orientovany nebo neorientovany graf
@@ -167,6 +285,7 @@ public class RWManager {
         
         randomWalk.setMode(randomWalkMode);
         randomWalk.setDiscoverMode(discoverMode);
+        randomWalk.setStepLimit(stepLimit);
         if (discoverMode) {
             System.out.println("Discover mode ON");
         } else {
@@ -185,25 +304,424 @@ public class RWManager {
         System.out.println("start vertex: " + startVertex);
         System.out.println("target vertex: " + endVertex);
         System.out.println("loops: " + runs);
+        if (seed != null) {
+            System.out.println("seed: " + seed);
+        }
+        if (stepLimit > 0) {
+            System.out.println("step limit: " + stepLimit);
+        }
+        
+        // stejny experiment mohl byt jiz spocitan
+        String cacheKey = getCacheKey("path", startVertex, endVertex, runs);
+        RWResult cached = lookupCache(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
         System.out.println("");      
         
+        // otevreme soubor pro zaznam trajektorie
+        TrajectoryRecorder recorder;
+        try {
+            recorder = openTrajectory(randomWalk);
+        } catch (IOException ex) {
+            System.out.println("FAILED (can't open trajectory file: " + ex.getMessage() + ")");
+            return null;
+        }
+        
         // vytvorime novy prumerny graf
-        averageGraph = new GraphImpl(graph);
+        averageGraph = copyGraph();
                 
-        // spustime vsechny nahodne prochazky a prubezne alayzujeme ziskana data
-        for (int p = 0; p < runs; p++) {
-            System.out.print("Running test " + (p+1) + "\t\t");
-            randomWalk.runFindPath(startVertex, endVertex);
-            System.out.print("Analyzing");
-            results[p] = RWAnalyzer.analyze(randomWalk);
-            updateAverageGraph();
-            System.out.println("\tDONE");
+        try {
+            // spustime vsechny nahodne prochazky a prubezne alayzujeme ziskana data
+            for (int p = 0; p < runs; p++) {
+                System.out.print("Running test " + (p+1) + "\t\t");
+                if (seed != null) {
+                    randomWalk.setSeed(seed.longValue() + p);
+                }
+                randomWalk.runFindPath(startVertex, endVertex);
+                System.out.print("Analyzing");
+                result.add(RWAnalyzer.analyze(randomWalk, threads));
+                updateAverageGraph();
+                if (randomWalk.isStepLimitReached()) {
+                    result.setTruncated(result.getTruncated() + 1);
+                    System.out.println("\tDONE (step limit reached)");
+                } else {
+                    System.out.println("\tDONE");
+                }
+            }
+        } finally {
+            closeTrajectory(recorder);
         }
         
         computeAverageGraph(runs);
         
         // vratime celkovy vysledek jako prumer vsech dosazenych vysledku
-        return new RWResult(results);
+        result.finish();
+        if (result.getTruncated() > 0) {
+            System.out.println("truncated: " + result.getTruncated() + "/" + runs + " loops reached the step limit");
+        }
+        storeCache(cacheKey, result);
+        return result;
+    }
+    
+    /**
+     * Spocita presne stredni doby zasahu ciloveho vrcholu ze vsech vrcholu grafu.
+     * Jedna se o analytickou obdobu metody <code>testFindPath</code> - misto
+     * simulace nahodne prochazky resi soustavu linearnich rovnic nad matici
+     * prechodu odpovidajici zvolenemu modu nahodne prochazky.
+     *
+     * @param startVertex pocatecni vrchol (u orientovanych grafu vrchol restartu)
+     * @param endVertex cilovy vrchol
+     * @return pole indexovane indexy vrcholu se strednimi dobami zasahu nebo null,
+     *     pokud cilovy vrchol neni z pocatecniho vrcholu dosazitelny
+     * @throw GraphException pokud aspon jeden z vrcholu zadaneho jmena v grafu neexistuje
+     */
+    public double[] computeHittingTimes(String startVertex, String endVertex) throws GraphException {
+        Vertex start = graph.getVertex(startVertex);
+        Vertex end = graph.getVertex(endVertex);
+        
+        System.out.print("\nBuilding transition matrix");
+        TransitionMatrix matrix = new TransitionMatrix(graph, randomWalkMode, start);
+        System.out.println("\tDONE");
+        
+        HittingTimeSolver solver = new HittingTimeSolver(matrix);
+        System.out.print("Solving hitting times");
+        double[] times = solver.solve(end.getIndex());
+        System.out.println("\tDONE");
+        
+        System.out.println("method: " + solver.getMethod());
+        System.out.println("iterations: " + solver.getIterations());
+        System.out.println("converged: " + solver.isConverged());
+        
+        double result = times[start.getIndex()];
+        if (Double.isInfinite(result)) {
+            System.out.println("FAILED (\"" + endVertex + "\" in unreachable)");
+            return null;
+        }
+        System.out.println("expected hitting time " + startVertex + " -> " + endVertex + ": " + result);
+        
+        return times;
+    }
+    
+    /**
+     * Spocita stacionarni rozdeleni nahodne prochazky zvoleneho modu
+     * (vcetne restartu u orientovanych grafu) paralelni mocninnou metodou.
+     * Pocet vlaken je dan vlastnosti <code>threads</code>.
+     *
+     * @param startVertex pocatecni vrchol nahodne prochazky
+     * @return pole indexovane indexy vrcholu s pravdepodobnosti pobytu
+     *     nahodne prochazky v danem vrcholu
+     * @throw GraphException pokud vrchol zadaneho jmena v grafu neexistuje
+     */
+    public double[] computeStationaryDistribution(String startVertex) throws GraphException {
+        Vertex start = graph.getVertex(startVertex);
+        
+        System.out.print("\nBuilding transition matrix");
+        TransitionMatrix matrix = new TransitionMatrix(graph, randomWalkMode, start);
+        System.out.println("\tDONE");
+        
+        StationaryDistribution stationary = new StationaryDistribution(matrix);
+        stationary.setThreads(threads);
+        System.out.print("Power iteration (threads: " + threads + ")");
+        double[] distribution = stationary.compute(start.getIndex());
+        System.out.println("\tDONE");
+        
+        System.out.println("iterations: " + stationary.getIterations());
+        System.out.println("converged: " + stationary.isConverged() + " (error " + stationary.getError() + ")");
+        
+        return distribution;
+    }
+    
+    /**
+     * Spocita ocekavane pocty navstiveni vrcholu behem nahodne prochazky
+     * dane delky a jejich zavislost na stupni vrcholu. Ocekavane pocty
+     * navstiveni se ulozi do hodnot <i>valueA</i> vrcholu grafu.
+     *
+     * @param distribution stacionarni rozdeleni nahodne prochazky
+     * @param steps delka nahodne prochazky
+     * @return vysledek analyzy, viz <code>RWAnalyzer.analyzeVisits</code>
+     */
+    public RWResult analyzeExpectedVisits(double[] distribution, long steps) {
+        for (Vertex v : graph.getVertices()) {
+            v.setValueA(Math.round(distribution[v.getIndex()] * steps));
+        }
+        return RWAnalyzer.analyzeVisits(graph, threads);
+    }
+    
+    /**
+     * Odhadne spektralni mezeru klasicke nahodne prochazky na komponente
+     * souvislosti daneho vrcholu a vypise predpokladany rozsah casu
+     * promichani a casu pokryti grafu. Pouze pro neorientovane grafy.
+     *
+     * @param startVertex pocatecni vrchol nahodne prochazky
+     * @return odhad spektralni mezery
+     * @throw GraphException pokud vrchol zadaneho jmena v grafu neexistuje
+     */
+    public SpectralGapEstimator estimateSpectralGap(String startVertex) throws GraphException {
+        Vertex start = graph.getVertex(startVertex);
+        
+        SpectralGapEstimator estimator = new SpectralGapEstimator(graph);
+        estimator.setThreads(threads);
+        System.out.print("Estimating spectral gap (threads: " + threads + ")");
+        estimator.estimate(start);
+        System.out.println("\tDONE");
+        
+        System.out.println("component of \"" + startVertex + "\": " + estimator.getComponentSize()
+                + " vertices, " + estimator.getComponentEdges() + " edges");
+        System.out.println("iterations: " + estimator.getIterations() + " (converged: " + estimator.isConverged() + ")");
+        System.out.println("second eigenvalue (lazy walk): " + estimator.getEigenvalue());
+        System.out.println("spectral gap: " + estimator.getSpectralGap());
+        System.out.println("relaxation time: " + estimator.getRelaxationTime());
+        System.out.println("predicted mixing time: " + (long) Math.floor(estimator.getMixingTimeLowerBound())
+                + " - " + (long) Math.ceil(estimator.getMixingTimeUpperBound()) + " steps");
+        System.out.println("predicted cover time: " + (long) Math.floor(estimator.getCoverTimeLowerBound())
+                + " - " + (long) Math.ceil(estimator.getCoverTimeUpperBound()) + " steps");
+        
+        return estimator;
+    }
+    
+    /**
+     * Prehraje trajektorii zaznamenanou pri drivejsim testovani nahodne
+     * prochazky (viz <code>setTrajectoryFile</code>) a analyzuje ji stejne
+     * jako metody <code>testCover</code> a <code>testFindPath</code>,
+     * nahodna prochazka se tedy nemusi spoustet znovu.
+     *
+     * @param file soubor se zaznamenanou trajektorii
+     * @return prumer vysledku vsech behu nebo null, pokud trajektorie
+     *     neobsahuje zadny beh
+     * @throw IOException pokud dojde k chybe pri cteni trajektorie
+     */
+    public RWResult replayTrajectory(File file) throws IOException {
+        final TrajectoryReader reader = new TrajectoryReader(file);
+        System.out.println("\nReplaying trajectory " + file);
+        System.out.println("runs: " + reader.getRuns());
+        System.out.println("steps: " + reader.getSteps());
+        if (reader.getRuns() == 0) {
+            System.out.println("FAILED (trajectory contains no runs)");
+            return null;
+        }
+        if (!reader.isRecordedOn(graph)) {
+            System.out.println("FAILED (trajectory was recorded on a different graph with "
+                    + reader.getVertices() + " vertices and " + reader.getEdges() + " edges)");
+            return null;
+        }
+        if (discoverMode) {
+            System.out.println("Discover mode ON");
+        }
+        System.out.println("");
+        
+        // vytvorime novy prumerny graf
+        averageGraph = copyGraph();
+        
+        // po kazdem prehranem behu se aktualizuje prumerny graf
+        TrajectoryAnalyzer analyzer = new TrajectoryAnalyzer(graph, reader.getRuns()) {
+            private int run = 0;
+            
+            public void startRun() {
+                run++;
+                System.out.print("Replaying test " + run + "\t\t");
+                super.startRun();
+            }
+            
+            public void endRun() {
+                super.endRun();
+                updateAverageGraph();
+                System.out.println("Analyzing\tDONE");
+            }
+        };
+        analyzer.setDiscoverMode(discoverMode);
+        analyzer.setThreads(threads);
+        reader.replay(analyzer);
+        
+        computeAverageGraph(reader.getRuns());
+        return analyzer.getResult();
+    }
+    
+    /**
+     * Otevre soubor pro zaznam trajektorie a nastavi ho nahodne prochazce
+     *
+     * @param randomWalk nahodna prochazka, jejiz trajektorie se ma zaznamenat
+     * @return zapisovac trajektorie nebo null, pokud se trajektorie nezaznamenava
+     * @throw IOException pokud soubor nelze otevrit
+     */
+    private TrajectoryRecorder openTrajectory(RandomWalk randomWalk) throws IOException {
+        if (trajectoryFile == null) {
+            randomWalk.setTrajectorySink(null);
+            return null;
+        }
+        TrajectoryRecorder recorder = new TrajectoryRecorder(trajectoryFile, graph);
+        randomWalk.setTrajectorySink(recorder);
+        System.out.println("trajectory: " + trajectoryFile);
+        return recorder;
+    }
+    
+    /**
+     * Uzavre soubor se zaznamem trajektorie
+     *
+     * @param recorder zapisovac trajektorie (muze byt null)
+     */
+    private void closeTrajectory(TrajectoryRecorder recorder) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+            System.out.println("Trajectory: " + recorder.getSteps() + " steps written to " + trajectoryFile);
+        } catch (IOException ex) {
+            System.out.println("Error: trajectory was not written (" + ex.getMessage() + ")");
+        }
+    }
+    
+    /**
+     * Vraci klic cache pro experiment s danymi parametry. Krome zadanych
+     * parametru obsahuje mod nahodne prochazky, discover mod, limit kroku
+     * a semeno. Bez semena se cache nepouziva.
+     *
+     * @param test typ testovani
+     * @param startVertex pocatecni vrchol
+     * @param goal pozadovane pokryti nebo cilovy vrchol
+     * @param runs pocet behu
+     * @return klic cache nebo null, pokud se cache nepouziva
+     */
+    private String getCacheKey(String test, String startVertex, String goal, int runs) {
+        // pri zaznamu trajektorie se nahodna prochazka musi spustit
+        if (cache == null || trajectoryFile != null) {
+            return null;
+        }
+        // bez semena ma kazde spusteni dat novy nahodny vysledek
+        if (seed == null) {
+            System.out.println("cache: not used (no seed)");
+            return null;
+        }
+        return ResultCache.getKey(graph, test, startVertex, goal, String.valueOf(runs),
+                String.valueOf(randomWalkMode), String.valueOf(discoverMode),
+                String.valueOf(stepLimit), seed.toString());
+    }
+    
+    /**
+     * Vyhleda vysledek experimentu v cache a pripadne obnovi prumerny graf
+     *
+     * @param key klic cache (muze byt null)
+     * @return ulozeny vysledek nebo null
+     */
+    private RWResult lookupCache(String key) {
+        if (key == null) {
+            return null;
+        }
+        ResultCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            System.out.println("cache: miss " + key);
+            return null;
+        }
+        averageGraph = copyGraph();
+        try {
+            entry.restoreAverageGraph(averageGraph);
+        } catch (GraphException ex) {
+            System.out.println("cache: invalid entry " + key + " (" + ex.getMessage() + ")");
+            return null;
+        }
+        System.out.println("cache: hit " + key + "\n");
+        return entry.getResult();
+    }
+    
+    /**
+     * Ulozi vysledek experimentu a prumerny graf do cache. Vysledek s behy
+     * ukoncenymi limitem kroku se neuklada.
+     *
+     * @param key klic cache (muze byt null)
+     * @param result vysledek experimentu
+     */
+    private void storeCache(String key, RWResult result) {
+        if (key == null) {
+            return;
+        }
+        if (result.getTruncated() > 0) {
+            System.out.println("cache: not stored (truncated loops)");
+            return;
+        }
+        try {
+            cache.put(key, new ResultCache.Entry(result, averageGraph));
+        } catch (IOException ex) {
+            System.out.println("Error: result was not cached (" + ex.getMessage() + ")");
+        }
+    }
+    
+    /**
+     * Uzavre zapisovac kontrolnich bodu (pocka na zapsani posledniho)
+     *
+     * @param checkpointWriter zapisovac kontrolnich bodu (muze byt null)
+     */
+    private void closeCheckpoint(CheckpointWriter checkpointWriter) {
+        if (checkpointWriter == null) {
+            return;
+        }
+        try {
+            checkpointWriter.close();
+            System.out.println("Checkpoint: " + checkpointWriter.getWritten() + " checkpoints written to " + checkpointFile);
+        } catch (IOException ex) {
+            System.out.println("Error: checkpoint was not written (" + ex.getMessage() + ")");
+        }
+    }
+    
+    /**
+     * Vytvori kontrolni bod s vysledky dokoncenych behu a soucty prumerneho grafu
+     *
+     * @param checkpoint kontrolni bod s parametry testovani
+     * @param completedRuns pocet dokoncenych behu
+     * @param result prubezny prumer dokoncenych behu
+     * @return novy kontrolni bod
+     */
+    private Checkpoint createCheckpoint(Checkpoint checkpoint, int completedRuns, RWResult result) {
+        long[] visits = new long[graph.getNumberOfVertices()];
+        long[] times = new long[graph.getNumberOfVertices()];
+        for (Vertex vertex : graph.getVertices()) {
+            try {
+                Vertex second = averageGraph.getVertex(vertex.getName());
+                visits[vertex.getIndex()] = second.getValueA();
+                times[vertex.getIndex()] = second.getValueB();
+            } catch (GraphException ex) {
+                System.out.println("Error: " + ex.getMessage());
+                System.exit(1);
+            }
+        }
+        return checkpoint.withCompleted(completedRuns, result, visits, times);
+    }
+    
+    /**
+     * Obnovi soucty prumerneho grafu z kontrolniho bodu
+     *
+     * @param checkpoint kontrolni bod s dokoncenymi behy
+     */
+    private void restoreAverageGraph(Checkpoint checkpoint) {
+        long[] visits = checkpoint.getAverageVisits();
+        long[] times = checkpoint.getAverageTimes();
+        for (Vertex vertex : graph.getVertices()) {
+            try {
+                Vertex second = averageGraph.getVertex(vertex.getName());
+                second.setValueA(visits[vertex.getIndex()]);
+                second.setValueB(times[vertex.getIndex()]);
+            } catch (GraphException ex) {
+                System.out.println("Error: " + ex.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+    
+    /**
+     * Vytvori kopii testovaneho grafu pro prumerny graf. Implicitni graf
+     * se nekopiruje po hranach, vytvori se novy graf stejne struktury.
+     *
+     * @return kopie grafu s vynulovanymi hodnotami vrcholu
+     */
+    private Graph copyGraph() {
+        if (!(graph instanceof ImplicitGraph)) {
+            return new GraphImpl(graph);
+        }
+        Graph copy = ((ImplicitGraph) graph).copy();
+        for (Vertex v : copy.getVertices()) {
+            v.setValueB(RandomWalk.INFINITY);   // cas prvniho pristupu
+        }
+        return copy;
     }
     
     /**
@@ -242,7 +760,9 @@ public class RWManager {
      */
     public void analyzeGraph(String template) {
         GraphAnalyzer analyzer = new GraphAnalyzer(graph);
-        System.out.print("Analyzing graph");
+        analyzer.setThreads(threads);
+        analyzer.setCompressed(compressed);
+        System.out.print("Analyzing graph (threads: " + threads + ")");
         analyzer.analyze();
         System.out.println("\tDONE");
         System.out.print("Saving results");
@@ -286,6 +806,78 @@ public class RWManager {
         this.discoverMode = discoverMode;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getStepLimit() {
+        return stepLimit;
+    }
+
+    public void setStepLimit(long stepLimit) {
+        this.stepLimit = stepLimit;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public File getTrajectoryFile() {
+        return trajectoryFile;
+    }
+
+    public void setTrajectoryFile(File trajectoryFile) {
+        this.trajectoryFile = trajectoryFile;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
     public Graph getAverageGraph() {
         return averageGraph;
     }
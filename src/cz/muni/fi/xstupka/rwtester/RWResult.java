@@ -3,7 +3,9 @@
 
 package cz.muni.fi.xstupka.rwtester;
 
+import java.io.Serializable;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -17,11 +19,21 @@ import java.util.Set;
  * prave tridy <code>RWResult</code>. Trida <code>RWResult</code> take
  * umi vytvorit prumer z nekolika svych instanci. Toto je vhodne pouzit
  * napr. v pripade, ze nahodnou prochazku spoustime nekolikrat a chceme
- * ziskat prumer ze vsech mereni.
+ * ziskat prumer ze vsech mereni. Krome prumeru uchovava i rozdeleni
+ * celkoveho casu a casu dosazeni vybranych pokryti grafu pres vsechny behy
+ * (viz <code>QuantileSketch</code>), ze ktereho lze ziskat kvantily.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
-public class RWResult {
+public class RWResult implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    // jmena sledovanych rozdeleni
+    public static final String TIME = "time";
+    public static final String COVER_50 = "cover50";
+    public static final String COVER_90 = "cover90";
+    public static final String COVER_99 = "cover99";
     
     private boolean directed;
     
@@ -84,6 +96,30 @@ public class RWResult {
      */    
     private long[] percentageCover;
     
+    /*
+     * rozdeleni celkoveho casu a casu dosazeni vybranych procentualnich
+     * pokryti grafu pres vsechny behy nahodne prochazky
+     */
+    private Map<String, QuantileSketch> quantiles = new LinkedHashMap<String, QuantileSketch>();
+    
+    // pocet behu ukoncenych limitem kroku drive, nez dosahly cile
+    private int truncated;
+    
+    // kolekce pro postupny vypocet prumeru (viz metoda add)
+    private int count;
+    private Map<Integer, Double> mapDegreeVisited;
+    private Map<Integer, Double> mapInDegreeVisited;
+    private Map<Integer, Double> mapOutDegreeVisited;
+    private Map<Integer, Double> mapDegreeTime;
+    private Map<Integer, Double> mapInDegreeTime;
+    private Map<Integer, Double> mapOutDegreeTime;
+    private Map<Integer, Double> mapDegreeTimeLength;
+    private Map<Integer, Double> mapInDegreeTimeLength;
+    private Map<Integer, Double> mapOutDegreeTimeLength;
+    private Map<Integer, Double> mapLengthVisited;
+    private Map<Integer, Double> mapLengthTime;
+    private double[] averageCover;
+    
 
     /**
      * Vytvori novou instanci tridy RWResult
@@ -108,44 +144,112 @@ public class RWResult {
         if (results.length == 0) {
             throw new IllegalArgumentException();
         }
-        this.setDirected(results[0].isDirected());
+        initAverage(results[0].isDirected(), results.length);
+        for (int p = 0; p < results.length; p++) {
+            add(results[p]);
+        }
+        finish();
+    }
+    
+    /**
+     * Vytvori novou instanci tridy RWResult, ktera bude prumerem zadaneho
+     * poctu vysledku. Jednotlive vysledky se pridavaji postupne metodou
+     * <code>add</code>, po pridani vsech vysledku je nutne zavolat metodu
+     * <code>finish</code>. Jednotlive vysledky tak neni nutne drzet v pameti
+     * najednou.
+     *
+     * @param directed jedna-li se o vysledek analyzy orientovaneho 
+     *     ci neorientovaneho grafu
+     * @param count pocet vysledku, ze kterych se bude prumer pocitat
+     * @throws IllegalArgumentException pokud je pocet vysledku mensi nez 1
+     */
+    public RWResult(boolean directed, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException();
+        }
+        initAverage(directed, count);
+    }
+    
+    /**
+     * Pripravi kolekce pro postupny vypocet prumeru
+     */
+    private void initAverage(boolean directed, int count) {
+        this.setDirected(directed);
+        this.count = count;
         
-        Map<Integer, Double> mapDegreeVisited = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapInDegreeVisited = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapOutDegreeVisited = new HashMap<Integer, Double>();
+        mapDegreeVisited = new HashMap<Integer, Double>();
+        mapInDegreeVisited = new HashMap<Integer, Double>();
+        mapOutDegreeVisited = new HashMap<Integer, Double>();
         
-        Map<Integer, Double> mapDegreeTime = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapInDegreeTime = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapOutDegreeTime = new HashMap<Integer, Double>();
+        mapDegreeTime = new HashMap<Integer, Double>();
+        mapInDegreeTime = new HashMap<Integer, Double>();
+        mapOutDegreeTime = new HashMap<Integer, Double>();
         
-        Map<Integer, Double> mapDegreeTimeLength = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapInDegreeTimeLength = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapOutDegreeTimeLength = new HashMap<Integer, Double>();
+        mapDegreeTimeLength = new HashMap<Integer, Double>();
+        mapInDegreeTimeLength = new HashMap<Integer, Double>();
+        mapOutDegreeTimeLength = new HashMap<Integer, Double>();
         
-        Map<Integer, Double> mapLengthVisited = new HashMap<Integer, Double>();
-        Map<Integer, Double> mapLengthTime = new HashMap<Integer, Double>();
+        mapLengthVisited = new HashMap<Integer, Double>();
+        mapLengthTime = new HashMap<Integer, Double>();
         
+        averageCover = new double[101];
+        for (int p = 0; p < 101; p++) {
+            averageCover[p] = 0;
+        }
+    }
+    
+    /**
+     * Prida vysledek jednoho behu nahodne prochazky do prumeru
+     *
+     * @param result vysledek, ktery ma byt pridan
+     * @throws NullPointerException pokud je parametr <code>result</code> null
+     * @throws IllegalStateException pokud instance nebyla vytvorena jako prumer
+     *     nebo jiz byla uzavrena metodou <code>finish</code>
+     */
+    public void add(RWResult result) {
+        if (result == null) {
+            throw new NullPointerException();
+        }
+        if (averageCover == null) {
+            throw new IllegalStateException();
+        }
         
-        for (int p = 0; p < results.length; p++) {
-            updateMap(mapDegreeVisited, results[p].getDegreeVisited(), results.length);
-            updateMap(mapDegreeTime, results[p].getDegreeTime(), results.length);
-            updateMap(mapDegreeTimeLength, results[p].getDegreeTimeLength(), results.length);
-            updateMap(mapLengthVisited, results[p].getLengthVisited(), results.length);
-            updateMap(mapLengthTime, results[p].getLengthTime(), results.length);
-            
-            
-            if (directed) {
-                updateMap(mapInDegreeVisited, results[p].getInDegreeVisited(), results.length);
-                updateMap(mapOutDegreeVisited, results[p].getOutDegreeVisited(), results.length);
-                
-                updateMap(mapInDegreeTime, results[p].getInDegreeTime(), results.length);
-                updateMap(mapOutDegreeTime, results[p].getOutDegreeTime(), results.length);
-                
-                updateMap(mapInDegreeTimeLength, results[p].getInDegreeTimeLength(), results.length);
-                updateMap(mapOutDegreeTimeLength, results[p].getOutDegreeTimeLength(), results.length);
-            }
+        updateMap(mapDegreeVisited, result.getDegreeVisited(), count);
+        updateMap(mapDegreeTime, result.getDegreeTime(), count);
+        updateMap(mapDegreeTimeLength, result.getDegreeTimeLength(), count);
+        updateMap(mapLengthVisited, result.getLengthVisited(), count);
+        updateMap(mapLengthTime, result.getLengthTime(), count);
+        
+        
+        if (directed) {
+            updateMap(mapInDegreeVisited, result.getInDegreeVisited(), count);
+            updateMap(mapOutDegreeVisited, result.getOutDegreeVisited(), count);
             
+            updateMap(mapInDegreeTime, result.getInDegreeTime(), count);
+            updateMap(mapOutDegreeTime, result.getOutDegreeTime(), count);
             
+            updateMap(mapInDegreeTimeLength, result.getInDegreeTimeLength(), count);
+            updateMap(mapOutDegreeTimeLength, result.getOutDegreeTimeLength(), count);
+        }
+        
+        // prumer procentualniho pokryti
+        for (int q = 0; q < 101; q++) {
+            double current = (double) result.getPercentageCover()[q];
+            averageCover[q] += (current / (double) count);
+        }
+        
+        // rozdeleni casu se neprumeruji, ale slucuji
+        for (Map.Entry<String, QuantileSketch> entry : result.getQuantiles().entrySet()) {
+            getQuantileSketch(entry.getKey()).merge(entry.getValue());
+        }
+    }
+    
+    /**
+     * Dokonci vypocet prumeru po pridani vsech vysledku
+     */
+    public void finish() {
+        if (averageCover == null) {
+            throw new IllegalStateException();
         }
         
         //-------------------------------------------------------------------
@@ -167,23 +271,40 @@ public class RWResult {
         }
         //-------------------------------------------------------------------
         
-        // spocita prumer procentualniho pokryti
-        double[] foo = new double[101];
+        percentageCover = new long[101];
         for (int p = 0; p < 101; p++) {
-            foo[p] = 0;
+            percentageCover[p] = (long) averageCover[p];
         }
         
-        for (int p = 0; p < results.length; p++) {
-            for (int q = 0; q < 101; q++) {
-                double current = (double) results[p].getPercentageCover()[q];
-                foo[q] += (current / (double) results.length);
-            }
-        }
-        
-        percentageCover = new long[101];
-        for (int p = 0; p < 101; p++) {
-            percentageCover[p] = (long) foo[p];
+        // kolekce pro vypocet prumeru uz nejsou potreba
+        mapDegreeVisited = null;
+        mapInDegreeVisited = null;
+        mapOutDegreeVisited = null;
+        mapDegreeTime = null;
+        mapInDegreeTime = null;
+        mapOutDegreeTime = null;
+        mapDegreeTimeLength = null;
+        mapInDegreeTimeLength = null;
+        mapOutDegreeTimeLength = null;
+        mapLengthVisited = null;
+        mapLengthTime = null;
+        averageCover = null;
+    }
+    
+    /**
+     * Vraci histogram rozdeleni hodnot daneho jmena, pokud neexistuje,
+     * vytvori novy prazdny histogram.
+     *
+     * @param name jmeno sledovane veliciny (napr. <code>TIME</code>)
+     * @return histogram rozdeleni hodnot
+     */
+    public QuantileSketch getQuantileSketch(String name) {
+        QuantileSketch sketch = quantiles.get(name);
+        if (sketch == null) {
+            sketch = new QuantileSketch();
+            quantiles.put(name, sketch);
         }
+        return sketch;
     }
     
     /**
@@ -293,6 +414,10 @@ public class RWResult {
         this.outDegreeTime = outDegreeTime;
     }
 
+    public Map<String, QuantileSketch> getQuantiles() {
+        return quantiles;
+    }
+
     public long[] getPercentageCover() {
         return percentageCover;
     }
@@ -340,4 +465,12 @@ public class RWResult {
     public void setLengthTime(List<int[]> lengthTime) {
         this.lengthTime = lengthTime;
     }
+
+    public int getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(int truncated) {
+        this.truncated = truncated;
+    }
 }
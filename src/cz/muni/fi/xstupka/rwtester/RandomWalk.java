@@ -33,13 +33,22 @@ public abstract class RandomWalk {
     
     // cas prubezneho vypisu prubehu nahodne prochazky
     public static final long DEFAULT_VERBOSE_TIME = 1000000;
+    
+    // po kolika krocich se zjistuje, zda-li je cas na kontrolni bod
+    static final long CHECKPOINT_MASK = (1 << 16) - 1;
 
     private boolean verbose;
     private long verboseTime;
     private int mode;
     private boolean discoverMode;
+    private long stepLimit;
+    private boolean seeded;
+    private long seed;
+    private TrajectorySink trajectory;
+    private CheckpointWriter checkpointWriter;
     
     private Graph graph;
+    private Vertex[] indexedVertices;
     protected Random random;
     protected long time;
     protected int vertices;
@@ -67,6 +76,7 @@ public abstract class RandomWalk {
         setVerbose(false);
         setVerboseTime(DEFAULT_VERBOSE_TIME);
         setMode(CLASSIC_MODE);
+        setStepLimit(0);
     }
     
     /**
@@ -78,6 +88,15 @@ public abstract class RandomWalk {
         return time;
     }
 
+    /**
+     * Vraci pocet vrcholu, ktere nahodna prochazka navstivila
+     *
+     * @return pocet navstivenych vrcholu
+     */
+    public int getVisitedVertices() {
+        return visitedVertices;
+    }
+
     /**
      * Vraci procentualni pokryti grafu.
      *
@@ -112,6 +131,28 @@ public abstract class RandomWalk {
      */
     public abstract void runFindPath(String startVertex, String endVertex) throws GraphException;
 
+    /**
+     * Pokracuje v nahodne prochazce pro pokryti grafu ze snimku jejiho
+     * stavu (viz <code>saveState</code>), napr. po obnoveni z kontrolniho bodu.
+     *
+     * @param startVertex pocatecni vrchol, ze ktereho byla nahodna prochazka spustena
+     * @param coverage procentualni pokryti, ktere ma byt dosazeno (v procentech)
+     * @param state snimek stavu nahodne prochazky
+     * @throws GraphException pokud vrchol zadaneho jmena v grafu neexistuje
+     */
+    public abstract void resumeCover(String startVertex, int coverage, WalkState state) throws GraphException;
+
+    /**
+     * Vraci informaci o tom, zda-li nahodna prochazka vycerpala povoleny
+     * pocet kroku (viz <code>setStepLimit</code>).
+     *
+     * @return <code>true</code> pokud je nastaven limit a nahodna prochazka
+     *     jiz provedla pozadovany pocet kroku
+     */
+    public boolean isStepLimitReached() {
+        return stepLimit > 0 && time >= stepLimit;
+    }
+    
     /**
      * Inicializuje grap pred spustenim algoritmu
      */
@@ -124,11 +165,112 @@ public abstract class RandomWalk {
         }
         visitedVertices = 0;
         time = 0;
-        random.setSeed(hashCode() + System.nanoTime());
+        if (seeded) {
+            random.setSeed(seed);
+        } else {
+            random.setSeed(hashCode() + System.nanoTime());
+        }
         for (int p = 0; p < 101; p++) {
             percentageCover[p] = 0;
         }
         run = 1;
+        if (trajectory != null) {
+            trajectory.startRun();
+        }
+    }
+    
+    /**
+     * Vytvori snimek stavu nahodne prochazky. Kopiruji se pocty navstiveni
+     * a casy prvniho pristupu vsech vrcholu, procentualni pokryti a generator
+     * nahodnych cisel, snimek tedy na dalsim behu nahodne prochazky nezavisi.
+     *
+     * @param v vrchol, ktery ma nahodna prochazka zpracovat jako dalsi
+     * @return snimek stavu nahodne prochazky
+     */
+    public WalkState saveState(Vertex v) {
+        Vertex[] foo = getIndexedVertices();
+        long[] visits = new long[foo.length];
+        long[] firstTimes = new long[foo.length];
+        for (int p = 0; p < foo.length; p++) {
+            visits[p] = foo[p].getValueA();
+            firstTimes[p] = foo[p].getValueB();
+        }
+        return new WalkState(v.getIndex(), time, visitedVertices, run, percentageCover.clone(),
+                visits, firstTimes, (Random) Checkpoint.copy(random));
+    }
+    
+    /**
+     * Obnovi stav nahodne prochazky ze snimku (misto metody initGraph)
+     *
+     * @param state snimek stavu nahodne prochazky
+     * @return vrchol, ktery ma nahodna prochazka zpracovat jako dalsi
+     */
+    protected Vertex restoreState(WalkState state) {
+        Vertex[] foo = getIndexedVertices();
+        long[] visits = state.getVisits();
+        long[] firstTimes = state.getFirstTimes();
+        for (int p = 0; p < foo.length; p++) {
+            foo[p].setValueA(visits[p]);
+            foo[p].setValueB(firstTimes[p]);
+            foo[p].setParent(null);
+        }
+        time = state.getTime();
+        visitedVertices = state.getVisitedVertices();
+        run = state.getRun();
+        System.arraycopy(state.getPercentageCover(), 0, percentageCover, 0, percentageCover.length);
+        random = (Random) Checkpoint.copy(state.getRandom());
+        if (trajectory != null) {
+            trajectory.startRun();
+        }
+        return foo[state.getVertex()];
+    }
+    
+    /**
+     * Preda snimek stavu nahodne prochazky zapisovaci kontrolnich bodu,
+     * pokud je nastaven a uplynul interval kontrolnich bodu. Hodiny se
+     * kontroluji jen jednou za CHECKPOINT_MASK + 1 kroku.
+     *
+     * @param v vrchol, ktery ma nahodna prochazka zpracovat jako dalsi
+     */
+    protected void checkpoint(Vertex v) {
+        if (checkpointWriter != null && (time & CHECKPOINT_MASK) == 0 && checkpointWriter.isDue()) {
+            checkpointWriter.submit(saveState(v));
+        }
+    }
+    
+    /**
+     * Vraci vrcholy grafu v poli indexovanem indexy vrcholu
+     */
+    private Vertex[] getIndexedVertices() {
+        if (indexedVertices == null) {
+            indexedVertices = new Vertex[vertices];
+            for (Vertex v : graph.getVertices()) {
+                indexedVertices[v.getIndex()] = v;
+            }
+        }
+        return indexedVertices;
+    }
+    
+    /**
+     * Preda navstiveny vrchol prijemci trajektorie, pokud je nastaven
+     *
+     * @param v vrchol, ktery nahodna prochazka prave navstivila
+     */
+    protected void recordVisit(Vertex v) {
+        if (trajectory != null) {
+            trajectory.visit(v.getIndex());
+        }
+    }
+    
+    /**
+     * Dokonci beh nahodne prochazky - upravi statistiky procentualniho
+     * pokryti a oznami konec behu prijemci trajektorie
+     */
+    protected void finishRun() {
+        updatePercentageCover();
+        if (trajectory != null) {
+            trajectory.endRun();
+        }
     }
     
     /**
@@ -402,6 +544,16 @@ public abstract class RandomWalk {
      * bude "pekny".
      */
     protected void updatePercentageCover() {
+        updatePercentageCover(percentageCover);
+    }
+    
+    /**
+     * Upravi statistiky procentualniho pokryti v zadanem poli stejne jako
+     * metoda <code>updatePercentageCover()</code>.
+     *
+     * @param percentageCover pole 101 casu dosazeni procentualnich pokryti
+     */
+    static void updatePercentageCover(long[] percentageCover) {
         long current = 0;
         for (int p = 0; p < 101; p++) {
             if (percentageCover[p] > current) {
@@ -498,4 +650,74 @@ public abstract class RandomWalk {
     public void setDiscoverMode(boolean discoverMode) {
         this.discoverMode = discoverMode;
     }
+
+    /**
+     * Vraci maximalni pocet kroku nahodne prochazky
+     * @return maximalni pocet kroku, 0 znamena bez omezeni
+     */
+    public long getStepLimit() {
+        return stepLimit;
+    }
+
+    /**
+     * Nastavuje maximalni pocet kroku nahodne prochazky. Po jeho dosazeni
+     * se nahodna prochazka zastavi, i kdyz nedosahla sveho cile.
+     * @param stepLimit maximalni pocet kroku, 0 znamena bez omezeni
+     */
+    public void setStepLimit(long stepLimit) {
+        this.stepLimit = stepLimit;
+    }
+
+    /**
+     * Vraci seminko generatoru nahodnych cisel pro dalsi beh
+     * @return seminko (plati, jen pokud bylo nastaveno)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Nastavuje seminko generatoru nahodnych cisel, kterym se inicializuje
+     * kazdy dalsi beh nahodne prochazky. Behy se stejnym semenem jsou
+     * shodne. Bez nastaveni se pouziva nahodne semeno.
+     * @param seed semeno generatoru nahodnych cisel
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seeded = true;
+    }
+
+    /**
+     * Vraci prijemce trajektorie nahodne prochazky
+     * @return prijemce trajektorie nebo null
+     */
+    public TrajectorySink getTrajectorySink() {
+        return trajectory;
+    }
+
+    /**
+     * Nastavuje prijemce trajektorie nahodne prochazky, kteremu se predava
+     * index kazdeho navstiveneho vrcholu (napr. <code>TrajectoryRecorder</code>)
+     * @param trajectory prijemce trajektorie, null pro vypnuti zaznamu
+     */
+    public void setTrajectorySink(TrajectorySink trajectory) {
+        this.trajectory = trajectory;
+    }
+
+    /**
+     * Vraci zapisovac kontrolnich bodu
+     * @return zapisovac kontrolnich bodu nebo null
+     */
+    public CheckpointWriter getCheckpointWriter() {
+        return checkpointWriter;
+    }
+
+    /**
+     * Nastavuje zapisovac kontrolnich bodu, kteremu nahodna prochazka
+     * v rezimu pokryti grafu periodicky predava snimky sveho stavu
+     * @param checkpointWriter zapisovac kontrolnich bodu, null pro vypnuti
+     */
+    public void setCheckpointWriter(CheckpointWriter checkpointWriter) {
+        this.checkpointWriter = checkpointWriter;
+    }
 }
@@ -0,0 +1,327 @@
+// File: ResultCache.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.GraphException;
+import cz.muni.fi.xstupka.rwtester.graph.ImplicitGraph;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tato trida je lokalni cache vysledku testovani nahodne prochazky.
+ * Klicem je otisk obsahu grafu a parametru testovani (SHA-256), hodnotou
+ * vysledek <code>RWResult</code> spolu s prumernym grafem. Opakovane
+ * spusteni stejneho experimentu tak vysledek jen nacte.
+ * <p>
+ * Otisk grafu zahrnuje i indexy vrcholu a poradi jejich sousedu, na kterych
+ * zavisi vysledek prochazky se zadanym seedem. Stejny graf s jinak
+ * serazenymi vrcholy nebo hranami ma proto jiny klic. Kazda polozka je
+ * jeden soubor v adresari cache, pri
+ * pouziti se mu aktualizuje cas posledni zmeny. Prekroci-li velikost
+ * adresare nastavene maximum, mazou se nejdele nepouzite polozky (LRU).
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ResultCache {
+
+    // implicitni maximalni velikost cache (v MB)
+    public static final int DEFAULT_SIZE = 1024;
+
+    // pripona souboru polozek cache
+    public static final String SUFFIX = ".result";
+
+    // verze formatu polozek, zmena zneplatni vsechny polozky
+    private static final String VERSION = "2";
+
+    private File directory;
+    private long maxBytes;
+
+    /**
+     * Vytvori novou instanci tridy ResultCache, adresar se pripadne vytvori
+     *
+     * @param directory adresar cache
+     * @param maxMegabytes maximalni velikost cache v MB
+     * @throw IOException pokud adresar nelze vytvorit
+     */
+    public ResultCache(File directory, int maxMegabytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can't create cache directory " + directory);
+        }
+        this.directory = directory;
+        this.maxBytes = maxMegabytes * 1024L * 1024L;
+    }
+
+    /**
+     * Spocita klic polozky cache z obsahu grafu a parametru testovani
+     *
+     * @param graph testovany graf
+     * @param parameters parametry testovani (mod, pocatecni vrchol, ...)
+     * @return klic polozky v sestnactkovem zapisu
+     */
+    public static String getKey(Graph graph, String... parameters) {
+        long[] hash = hashGraph(graph);
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex.getMessage());
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(VERSION).append('\n');
+        text.append(graph.isDirected()).append(' ').append(graph.isWeighted()).append(' ');
+        text.append(graph.getNumberOfVertices()).append(' ').append(graph.getNumberOfEdges()).append(' ');
+        text.append(Long.toHexString(hash[0])).append(' ').append(Long.toHexString(hash[1])).append('\n');
+        for (String parameter : parameters) {
+            text.append(parameter).append('\n');
+        }
+
+        byte[] bytes;
+        try {
+            bytes = digest.digest(text.toString().getBytes("UTF-8"));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage());
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : bytes) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16));
+            key.append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Vyhleda polozku cache. Nalezene polozce aktualizuje cas pouziti.
+     *
+     * @param key klic polozky
+     * @return polozka cache nebo null, pokud neexistuje nebo ji nelze precist
+     */
+    public Entry get(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            try {
+                Entry entry = (Entry) in.readObject();
+                file.setLastModified(System.currentTimeMillis());
+                return entry;
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            return null;
+        } catch (ClassNotFoundException ex) {
+            return null;
+        } catch (ClassCastException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Ulozi polozku do cache (atomicky pres docasny soubor) a pripadne
+     * odstrani nejdele nepouzite polozky
+     *
+     * @param key klic polozky
+     * @param entry polozka cache
+     * @throw IOException pokud dojde k chybe pri zapisu
+     */
+    public void put(String key, Entry entry) throws IOException {
+        File file = new File(directory, key + SUFFIX);
+        File temp = new File(directory, key + SUFFIX + Checkpoint.TEMP_SUFFIX);
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+        try {
+            out.writeObject(entry);
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                throw new IOException("can't rename " + temp + " to " + file);
+            }
+        }
+        evict(file);
+    }
+
+    /**
+     * Smaze nejdele nepouzite polozky, dokud je cache vetsi nez maximum.
+     * Prave ulozena polozka se nemaze.
+     *
+     * @param keep polozka, ktera se nema smazat
+     */
+    private void evict(File keep) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                size += file.length();
+            }
+        }
+        if (size <= maxBytes) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            public int compare(File a, File b) {
+                long foo = a.lastModified();
+                long bar = b.lastModified();
+                return foo < bar ? -1 : (foo == bar ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (size <= maxBytes) {
+                break;
+            }
+            if (!file.getName().endsWith(SUFFIX) || file.equals(keep)) {
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    /**
+     * Spocita otisk obsahu grafu zavisly na poradi vrcholu a hran.
+     * Kazdy vrchol prispeje do dvou souctu zamichanym otiskem sveho jmena
+     * a indexu, kazda hrana (u neorientovaneho grafu obe jeji orientace)
+     * otiskem svych vrcholu, sve pozice v seznamu sousedu a vahou.
+     *
+     * @param graph graf
+     * @return dva 64bitove otisky
+     */
+    static long[] hashGraph(Graph graph) {
+        // implicitni graf je urcen svym popisem (napr. K1000000)
+        if (graph instanceof ImplicitGraph) {
+            long a = hashName(graph.toString());
+            return new long[] {mix(a), mix(a ^ 0x5851F42D4C957F2DL)};
+        }
+        
+        long first = 0;
+        long second = 0;
+        for (Vertex v : graph.getVertices()) {
+            long a = mix(hashName(v.getName()) + v.getIndex() * 0x9E3779B97F4A7C15L);
+            first += mix(a);
+            second += mix(a ^ 0x5851F42D4C957F2DL);
+
+            List<Vertex> neighbours = v.getNeighbours();
+            if (neighbours == null) {
+                continue;
+            }
+            Iterator<Integer> weights = graph.isWeighted() ? v.getWeights().iterator() : null;
+            int position = 0;
+            for (Vertex u : neighbours) {
+                long edge = a * 31 + mix(hashName(u.getName()) + u.getIndex()) + mix(position++ + 0x2545F4914F6CDD1DL);
+                if (weights != null) {
+                    edge += mix(weights.next().intValue() + 0x632BE59BD9B4E019L);
+                }
+                first += mix(edge);
+                second += mix(edge + 0x9E3779B97F4A7C15L);
+            }
+        }
+        return new long[] {first, second};
+    }
+
+    /**
+     * Otisk jmena vrcholu (FNV-1a)
+     */
+    private static long hashName(String name) {
+        long hash = 0xCBF29CE484222325L;
+        for (int p = 0; p < name.length(); p++) {
+            hash ^= name.charAt(p);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Zamicha bity 64bitove hodnoty (finalizace SplitMix64)
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Polozka cache - vysledek testovani a prumerny graf (pocty navstiveni
+     * a casy prvniho pristupu vrcholu podle jmen vrcholu).
+     */
+    public static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private RWResult result;
+        private String[] names;
+        private long[] visits;
+        private long[] times;
+
+        /**
+         * Vytvori polozku cache z vysledku a prumerneho grafu
+         *
+         * @param result vysledek testovani
+         * @param averageGraph prumerny graf
+         */
+        public Entry(RWResult result, Graph averageGraph) {
+            this.result = result;
+            int size = averageGraph.getNumberOfVertices();
+            names = new String[size];
+            visits = new long[size];
+            times = new long[size];
+            int p = 0;
+            for (Vertex v : averageGraph.getVertices()) {
+                names[p] = v.getName();
+                visits[p] = v.getValueA();
+                times[p] = v.getValueB();
+                p++;
+            }
+        }
+
+        /**
+         * Nastavi ulozeny prumerny graf do hodnot vrcholu zadaneho grafu
+         *
+         * @param averageGraph graf se stejnymi vrcholy
+         * @throw GraphException pokud graf neobsahuje nektery z vrcholu
+         */
+        public void restoreAverageGraph(Graph averageGraph) throws GraphException {
+            for (int p = 0; p < names.length; p++) {
+                Vertex v = averageGraph.getVertex(names[p]);
+                v.setValueA(visits[p]);
+                v.setValueB(times[p]);
+            }
+        }
+
+        public RWResult getResult() {
+            return result;
+        }
+    }
+}
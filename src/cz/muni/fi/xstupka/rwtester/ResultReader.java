@@ -0,0 +1,264 @@
+// File: ResultReader.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.GzipFiles;
+import cz.muni.fi.xstupka.rwtester.graph.TextOutput;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tato trida cte CSV soubor vysledku zapsany tridou <code>ResultWriter</code>
+ * (sloupce experiment, series, x, y). Komprimovany soubor se rozbali
+ * automaticky.
+ * <p>
+ * Vysledky experimentu lze metodou <code>unpack</code> zpet rozepsat
+ * do puvodnich textovych souboru <code>sablona_rada.txt</code>, ktere
+ * zpracovava program rwreport.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ResultReader {
+
+    // experiment -> rada -> dvojice x, y
+    private Map<String, Map<String, List<String[]>>> experiments;
+
+    /**
+     * Vytvori novou instanci tridy ResultReader a nacte vsechny experimenty
+     * ze souboru.
+     *
+     * @param file CSV soubor vysledku
+     * @throw IOException pokud dojde k chybe pri cteni souboru
+     */
+    public ResultReader(File file) throws IOException {
+        this(file, null);
+    }
+
+    /**
+     * Vytvori novou instanci tridy ResultReader a nacte ze souboru pouze
+     * vysledky daneho experimentu (u velkych serii experimentu se tak
+     * v pameti drzi jen potrebna data).
+     *
+     * @param file CSV soubor vysledku
+     * @param experiment jmeno experimentu, null pro vsechny experimenty
+     * @throw IOException pokud dojde k chybe pri cteni souboru nebo soubor
+     *     nema ocekavany format
+     */
+    public ResultReader(File file, String experiment) throws IOException {
+        experiments = new LinkedHashMap<String, Map<String, List<String[]>>>();
+
+        BufferedReader in = GzipFiles.openReader(file);
+        try {
+            String line;
+            int lineNo = 0;
+            String header = ResultWriter.CSV_HEADER.trim();
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                // hlavicka se opakuje u kazdeho pripojeneho souboru
+                if (line.length() == 0 || line.equals(header)) {
+                    continue;
+                }
+
+                String[] fields = parseLine(line);
+                if (fields == null) {
+                    throw new IOException("Line " + lineNo + ": expected 4 columns");
+                }
+                if (experiment != null && !experiment.equals(fields[0])) {
+                    continue;
+                }
+                getSeries(fields[0], fields[1], true).add(new String[] {fields[2], fields[3]});
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Vraci jmena vsech nactenych experimentu v poradi, v jakem jsou v souboru.
+     *
+     * @return jmena experimentu
+     */
+    public List<String> getExperiments() {
+        return new ArrayList<String>(experiments.keySet());
+    }
+
+    /**
+     * Vraci jmena vsech rad daneho experimentu.
+     *
+     * @param experiment jmeno experimentu
+     * @return jmena rad, prazdny seznam pro neznamy experiment
+     */
+    public List<String> getSeries(String experiment) {
+        Map<String, List<String[]>> series = experiments.get(experiment);
+        if (series == null) {
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(series.keySet());
+    }
+
+    /**
+     * Vraci data rady daneho experimentu jako dvojice retezcu x, y.
+     *
+     * @param experiment jmeno experimentu
+     * @param series jmeno rady
+     * @return dvojice x, y, null pokud rada neexistuje
+     */
+    public List<String[]> getData(String experiment, String series) {
+        return getSeries(experiment, series, false);
+    }
+
+    /**
+     * Vraci data ciselne rady daneho experimentu (napr. degree_visited)
+     * ve stejne podobe, v jake je vraci trida <code>RWResult</code>.
+     *
+     * @param experiment jmeno experimentu
+     * @param series jmeno rady
+     * @return dvojice x, y, null pokud rada neexistuje
+     * @throw NumberFormatException pokud rada neobsahuje cela cisla
+     */
+    public List<long[]> getNumericData(String experiment, String series) {
+        List<String[]> data = getData(experiment, series);
+        if (data == null) {
+            return null;
+        }
+        List<long[]> result = new ArrayList<long[]>(data.size());
+        for (String[] foo : data) {
+            result.add(new long[] {Long.parseLong(foo[0]), Long.parseLong(foo[1])});
+        }
+        return result;
+    }
+
+    /**
+     * Rozepise vysledky experimentu do textovych souboru ve formatu,
+     * ktery vytvari <code>ResultWriter</code> bez CSV souboru. Kvantily
+     * se zapisi do souboru <code>sablona_quantiles.txt</code> a konfigurace
+     * do souboru <code>sablona_config.txt</code>.
+     *
+     * @param experiment jmeno experimentu
+     * @param template sablona pro vysledne textove soubory
+     * @return pocet zapsanych souboru
+     * @throw IOException pokud dojde k chybe pri zapisu souboru
+     */
+    public int unpack(String experiment, String template) throws IOException {
+        Map<String, List<String[]>> allSeries = experiments.get(experiment);
+        if (allSeries == null) {
+            return 0;
+        }
+
+        int files = 0;
+        Map<String, List<String[]>> quantiles = new LinkedHashMap<String, List<String[]>>();
+        for (Map.Entry<String, List<String[]>> entry : allSeries.entrySet()) {
+            String series = entry.getKey();
+            if (series.startsWith(ResultWriter.QUANTILE_PREFIX)) {
+                quantiles.put(series.substring(ResultWriter.QUANTILE_PREFIX.length()), entry.getValue());
+                continue;
+            }
+
+            boolean config = series.equals(ResultWriter.CONFIG);
+            TextOutput out = GzipFiles.openOutput(new File(template + "_" + series + ".txt"));
+            for (String[] foo : entry.getValue()) {
+                out.write(foo[0]).write(config ? "=" : "    ").write(foo[1]).write('\n');
+            }
+            out.close();
+            files++;
+        }
+
+        if (!quantiles.isEmpty()) {
+            TextOutput out = GzipFiles.openOutput(new File(template + "_" + ResultWriter.QUANTILES + ".txt"));
+            out.write("# name    count    p50    p90    p99    max\n");
+            for (Map.Entry<String, List<String[]>> entry : quantiles.entrySet()) {
+                out.write(entry.getKey());
+                for (String column : ResultWriter.QUANTILE_COLUMNS) {
+                    out.write("    ").write(findValue(entry.getValue(), column));
+                }
+                out.write('\n');
+            }
+            out.close();
+            files++;
+        }
+
+        return files;
+    }
+
+    /**
+     * Vraci hodnotu y pro danou hodnotu x (0 pokud neni nalezena).
+     */
+    private static String findValue(List<String[]> data, String x) {
+        for (String[] foo : data) {
+            if (foo[0].equals(x)) {
+                return foo[1];
+            }
+        }
+        return "0";
+    }
+
+    /**
+     * Vraci seznam dat rady, pripadne ho vytvori.
+     */
+    private List<String[]> getSeries(String experiment, String series, boolean create) {
+        Map<String, List<String[]>> foo = experiments.get(experiment);
+        if (foo == null) {
+            if (!create) {
+                return null;
+            }
+            foo = new LinkedHashMap<String, List<String[]>>();
+            experiments.put(experiment, foo);
+        }
+        List<String[]> data = foo.get(series);
+        if (data == null && create) {
+            data = new ArrayList<String[]>();
+            foo.put(series, data);
+        }
+        return data;
+    }
+
+    /**
+     * Rozdeli radek CSV souboru na sloupce (hodnoty mohou byt v uvozovkach).
+     *
+     * @return ctyri sloupce radku, null pokud radek nema ctyri sloupce
+     */
+    private static String[] parseLine(String line) {
+        String[] fields = new String[4];
+        int count = 0;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int p = 0; p < line.length(); p++) {
+            char c = line.charAt(p);
+            if (quoted) {
+                if (c == '"') {
+                    if (p + 1 < line.length() && line.charAt(p + 1) == '"') {
+                        field.append('"');
+                        p++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (count == fields.length - 1) {
+                    return null;
+                }
+                fields[count++] = field.toString();
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted || count != fields.length - 1) {
+            return null;
+        }
+        fields[count] = field.toString();
+        return fields;
+    }
+}
@@ -3,22 +3,70 @@
 
 package cz.muni.fi.xstupka.rwtester;
 
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.GzipFiles;
+import cz.muni.fi.xstupka.rwtester.graph.TextOutput;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Tato trida slouzi k vypisu vysledku analyzy nahodne prochazky do textovych
  * souboru.
+ * <p>
+ * Kazda rada vysledku (napr. <code>degree_visited</code>) se standardne
+ * zapisuje do vlastniho souboru <code>sablona_rada.txt</code>. Po nastaveni
+ * souboru vysledku metodou <code>setResultFile</code> se vsechny rady zapisi
+ * do jedineho CSV souboru se sloupci
+ * <pre>
+ *     experiment,series,x,y
+ * </pre>
+ * kde experiment je sablona vysledku. Do jednoho souboru lze pripojovat
+ * vysledky cele serie experimentu, soubor lze cist tridou
+ * <code>ResultReader</code>.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
 public class ResultWriter {
 
+    public static final String CSV_HEADER = "experiment,series,x,y\n";
+
+    // jmena rad vysledku
+    public static final String DEGREE_VISITED = "degree_visited";
+    public static final String DEGREE_TIME = "degree_time";
+    public static final String COVERAGE = "coverage";
+    public static final String DEGREE_TIME_LENGTH = "degree_time_length";
+    public static final String LENGTH_VISITED = "length_visited";
+    public static final String LENGTH_TIME = "length_time";
+    public static final String IN_DEGREE_VISITED = "in_degree_visited";
+    public static final String OUT_DEGREE_VISITED = "out_degree_visited";
+    public static final String IN_DEGREE_TIME = "in_degree_time";
+    public static final String OUT_DEGREE_TIME = "out_degree_time";
+    public static final String IN_DEGREE_TIME_LENGTH = "in_degree_time_length";
+    public static final String OUT_DEGREE_TIME_LENGTH = "out_degree_time_length";
+    public static final String HITTING_TIME = "hitting_time";
+    public static final String STATIONARY = "stationary";
+    public static final String QUANTILES = "quantiles";
+    public static final String CONFIG = "config";
+
+    // v CSV souboru ma kazdy kvantil vlastni radu quantile_jmeno
+    public static final String QUANTILE_PREFIX = "quantile_";
+    public static final String[] QUANTILE_COLUMNS = {"count", "p50", "p90", "p99", "max"};
+
     private String fileTemplate;
-    
-    /** 
+    private boolean compressed;
+
+    // spolecny CSV soubor vysledku (null = kazda rada do vlastniho souboru)
+    private File resultFile;
+    private boolean appendResults;
+
+    // CSV vystup otevreny behem jednoho zapisu
+    private TextOutput csv;
+    private boolean csvStarted;
+
+    /**
      * Vytvori novou instanci tridy ResultWriter
      *
      * @param fileTemplate sablona pro vysledne textove soubory
@@ -29,8 +77,24 @@ public class ResultWriter {
             throw new NullPointerException("fileTemplate parameter is null");
         }
         this.fileTemplate = fileTemplate;
+        this.compressed = false;
     }
-    
+
+    /**
+     * Nastavi zapis vsech rad vysledku do jednoho CSV souboru.
+     *
+     * @param file CSV soubor vysledku, komprimuje se, pokud jeho jmeno konci
+     *     priponou .gz
+     * @param append true, pokud se maji vysledky pripojit k existujicimu
+     *     souboru (vysledky serie experimentu), jinak se soubor pri prvnim
+     *     zapisu prepise
+     */
+    public void setResultFile(File file, boolean append) {
+        this.resultFile = file;
+        this.appendResults = append;
+        this.csvStarted = false;
+    }
+
     /**
      * Zapise vysledna data do souboru.
      *
@@ -42,29 +106,112 @@ public class ResultWriter {
         if (result == null) {
             throw new NullPointerException("result parameter is null");
         }
-        
-        File degreeVisitedFile = new File(fileTemplate + "_degree_visited.txt");
-        File degreeTimeFile = new File(fileTemplate + "_degree_time.txt");        
-        File coverageFile = new File(fileTemplate + "_coverage.txt");
-        File degreeTimeLengthFile = new File(fileTemplate + "_degree_time_length.txt");
-        
-        File lengthVisitedFile = new File(fileTemplate + "_length_visited.txt");
-        File lengthTimeFile = new File(fileTemplate + "_length_time.txt");
-        
-        writeData(result.getDegreeVisited(), degreeVisitedFile);
-        writeData(result.getDegreeTime(), degreeTimeFile);
-        writeData(result.getPercentageCover(), coverageFile);
-        writeData(result.getDegreeTimeLength(), degreeTimeLengthFile);
-        
-        writeData(result.getLengthVisited(), lengthVisitedFile);
-        writeData(result.getLengthTime(), lengthTimeFile);
-        
-        // vypise data, ktera jsou specificka pouze pro orientovane grafy
-        if (result.isDirected()) {
-            writeDirected(result);
-        }
-    }
-    
+
+        try {
+            writeData(result.getDegreeVisited(), DEGREE_VISITED);
+            writeData(result.getDegreeTime(), DEGREE_TIME);
+            writeData(result.getPercentageCover(), COVERAGE);
+            writeData(result.getDegreeTimeLength(), DEGREE_TIME_LENGTH);
+
+            writeData(result.getLengthVisited(), LENGTH_VISITED);
+            writeData(result.getLengthTime(), LENGTH_TIME);
+
+            writeQuantiles(result);
+
+            // vypise data, ktera jsou specificka pouze pro orientovane grafy
+            if (result.isDirected()) {
+                writeDirected(result);
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Zapise stredni doby zasahu ciloveho vrcholu do souboru
+     * <code>sablona_hitting_time.txt</code>. Na kazdem radku je jmeno vrcholu
+     * a stredni doba zasahu z tohoto vrcholu (-1 pokud cil neni dosazitelny).
+     *
+     * @param graph graf, pro ktery byly doby zasahu spocitany
+     * @param times doby zasahu indexovane indexy vrcholu
+     * @throw IOException pokud dojde k chybe pri praci se soubory
+     */
+    public void writeHittingTimes(Graph graph, double[] times) throws IOException {
+        try {
+            writeVertexData(graph, times, HITTING_TIME);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Zapise stacionarni rozdeleni nahodne prochazky do souboru
+     * <code>sablona_stationary.txt</code>. Na kazdem radku je jmeno vrcholu
+     * a pravdepodobnost pobytu nahodne prochazky v tomto vrcholu.
+     *
+     * @param graph graf, pro ktery bylo rozdeleni spocitano
+     * @param distribution rozdeleni indexovane indexy vrcholu
+     * @throw IOException pokud dojde k chybe pri praci se soubory
+     */
+    public void writeStationary(Graph graph, double[] distribution) throws IOException {
+        try {
+            writeVertexData(graph, distribution, STATIONARY);
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Zapise pouze zavislosti poctu navstiveni vrcholu na stupni vrcholu
+     * (soubory <code>sablona_degree_visited.txt</code>, u orientovanych grafu
+     * navic <code>sablona_in_degree_visited.txt</code>
+     * a <code>sablona_out_degree_visited.txt</code>).
+     *
+     * @param result vysledek analyzy, viz <code>RWAnalyzer.analyzeVisits</code>
+     * @throw NullPointerException pokud je parametr <code>result</code> null
+     * @throw IOException pokud dojde k chybe pri praci se soubory
+     */
+    public void writeDegreeVisited(RWResult result) throws IOException {
+        if (result == null) {
+            throw new NullPointerException("result parameter is null");
+        }
+
+        try {
+            writeData(result.getDegreeVisited(), DEGREE_VISITED);
+            if (result.isDirected()) {
+                writeData(result.getInDegreeVisited(), IN_DEGREE_VISITED);
+                writeData(result.getOutDegreeVisited(), OUT_DEGREE_VISITED);
+            }
+        } finally {
+            finish();
+        }
+    }
+
+    /**
+     * Zapise konfiguraci experimentu pro program rwreport. Konfigurace
+     * se zapisuje pouze do CSV souboru vysledku (rada <code>config</code>),
+     * soubor <code>sablona_config.txt</code> vytvari trida Main.
+     *
+     * @param config dvojice klic - hodnota
+     * @throw IOException pokud dojde k chybe pri praci se soubory
+     * @throw IllegalStateException pokud neni nastaven CSV soubor vysledku
+     */
+    public void writeConfig(Map<String, String> config) throws IOException {
+        if (resultFile == null) {
+            throw new IllegalStateException("result file is not set");
+        }
+
+        try {
+            TextOutput out = open(CONFIG);
+            for (Map.Entry<String, String> entry : config.entrySet()) {
+                writePrefix(out, CONFIG);
+                out.write(escape(entry.getKey())).write(',').write(escape(entry.getValue())).write('\n');
+            }
+        } finally {
+            finish();
+        }
+    }
+
     /**
      * Zapise data, ktera jsou specificka pouze pro orientovane grafy
      *
@@ -75,59 +222,243 @@ public class ResultWriter {
         if (result == null) {
             throw new NullPointerException("result parameter is null");
         }
-        
-        File inDegreeVisitedFile = new File(fileTemplate + "_in_degree_visited.txt");
-        File outDegreeVisitedFile = new File(fileTemplate + "_out_degree_visited.txt");
-        
-        File inDegreeTimeFile = new File(fileTemplate + "_in_degree_time.txt");
-        File outDegreeTimeFile = new File(fileTemplate + "_out_degree_time.txt");
-        
-        File inDegreeTimeLengthFile = new File(fileTemplate + "_in_degree_time_length.txt");
-        File outDegreeTimeLengthFile = new File(fileTemplate + "_out_degree_time_length.txt");
-        
-        writeData(result.getInDegreeVisited(), inDegreeVisitedFile);
-        writeData(result.getOutDegreeVisited(), outDegreeVisitedFile);
-        
-        writeData(result.getInDegreeTime(), inDegreeTimeFile);
-        writeData(result.getOutDegreeTime(), outDegreeTimeFile);
-        
-        writeData(result.getInDegreeTimeLength(), inDegreeTimeLengthFile);
-        writeData(result.getOutDegreeTimeLength(), outDegreeTimeLengthFile);
-    }
-    
+
+        writeData(result.getInDegreeVisited(), IN_DEGREE_VISITED);
+        writeData(result.getOutDegreeVisited(), OUT_DEGREE_VISITED);
+
+        writeData(result.getInDegreeTime(), IN_DEGREE_TIME);
+        writeData(result.getOutDegreeTime(), OUT_DEGREE_TIME);
+
+        writeData(result.getInDegreeTimeLength(), IN_DEGREE_TIME_LENGTH);
+        writeData(result.getOutDegreeTimeLength(), OUT_DEGREE_TIME_LENGTH);
+    }
+
+    /**
+     * Vraci soubor s danou priponou sablony, u komprimovanych vysledku
+     * s priponou ".gz"
+     *
+     * @param suffix pripona sablony (napr. <code>_coverage.txt</code>)
+     * @return soubor pro zapis vysledku
+     */
+    private File getFile(String suffix) {
+        if (compressed) {
+            return new File(fileTemplate + suffix + GzipFiles.SUFFIX);
+        }
+        return new File(fileTemplate + suffix);
+    }
+
+    /**
+     * Otevre vystup pro zapis dane rady. V rezimu jednoho CSV souboru vraci
+     * stale stejny vystup, ktery se zavre az metodou <code>finish</code>.
+     *
+     * @param series jmeno rady vysledku
+     * @return vystup pro zapis rady
+     * @throw IOException pokud soubor nelze otevrit
+     */
+    private TextOutput open(String series) throws IOException {
+        if (resultFile == null) {
+            return GzipFiles.openOutput(getFile("_" + series + ".txt"));
+        }
+
+        if (csv == null) {
+            // pri prvnim zapisu se soubor prepise, pokud se nema pripojovat
+            boolean append = appendResults || csvStarted;
+            boolean header = !append || resultFile.length() == 0;
+            csv = GzipFiles.openOutput(resultFile, append);
+            if (header) {
+                csv.write(CSV_HEADER);
+            }
+            csvStarted = true;
+        }
+        return csv;
+    }
+
+    /**
+     * Zavre vystup rady (CSV vystup zustava otevreny).
+     */
+    private void close(TextOutput out) throws IOException {
+        if (out != csv) {
+            out.close();
+        }
+    }
+
+    /**
+     * Zavre CSV vystup otevreny behem zapisu.
+     */
+    private void finish() throws IOException {
+        if (csv != null) {
+            TextOutput foo = csv;
+            csv = null;
+            foo.close();
+        }
+    }
+
+    /**
+     * Na zacatek radku CSV souboru zapise jmeno experimentu a rady,
+     * v rezimu textovych souboru nezapise nic.
+     */
+    private void writePrefix(TextOutput out, String series) throws IOException {
+        if (out == csv) {
+            out.write(escape(fileTemplate)).write(',').write(series).write(',');
+        }
+    }
+
+    /**
+     * Zapise oddelovac hodnot x a y.
+     */
+    private void writeSeparator(TextOutput out) throws IOException {
+        out.write(out == csv ? "," : "    ");
+    }
+
     /**
      * Zapise data ze zadaneho seznamu do souboru
      *
      * @param data seznam dat k zapsani
-     * @param file soubor, do ktereho se maji data zapsat
+     * @param series jmeno rady vysledku
      * @throw IOException pri I/O chybe, ktera muze nastat pri praci se souborem
      */
-    private void writeData(List<int[]> data, File file) throws IOException {
-        FileWriter out = new FileWriter(file);
-        
+    private void writeData(List<int[]> data, String series) throws IOException {
+        TextOutput out = open(series);
+
         for (int[] foo : data) {
-            String line = foo[0] + "    " + foo[1] + "\n";
-            out.write(line);
+            writePrefix(out, series);
+            out.write(foo[0]);
+            writeSeparator(out);
+            out.write(foo[1]).write('\n');
         }
-        
-        out.close();
+
+        close(out);
     }
-    
+
     /**
      * Zapise data ze zadaneho seznamu do souboru
      *
      * @param data seznam dat k zapsani
-     * @param file soubor, do ktereho se maji data zapsat
+     * @param series jmeno rady vysledku
      * @throw IOException pri I/O chybe, ktera muze nastat pri praci se souborem
      */
-    private void writeData(long[] data, File file) throws IOException {
-        FileWriter out = new FileWriter(file);
-        
+    private void writeData(long[] data, String series) throws IOException {
+        TextOutput out = open(series);
+
         for (int p = 0; p < 101; p++) {
-            String line = p + "    " + data[p] + "\n";
-            out.write(line);
+            writePrefix(out, series);
+            out.write(p);
+            writeSeparator(out);
+            out.write(data[p]).write('\n');
         }
-        
-        out.close();
+
+        close(out);
+    }
+
+    /**
+     * Zapise hodnoty jednotlivych vrcholu do souboru. Na kazdem radku je
+     * jmeno vrcholu a jeho hodnota, vrcholy jsou serazeny podle indexu.
+     * Nekonecne hodnoty se zapisi jako -1.
+     *
+     * @param graph graf, jehoz vrcholy se zapisuji
+     * @param values hodnoty indexovane indexy vrcholu
+     * @param series jmeno rady vysledku
+     * @throw IOException pri I/O chybe, ktera muze nastat pri praci se souborem
+     */
+    private void writeVertexData(Graph graph, double[] values, String series) throws IOException {
+        Vertex[] vertices = new Vertex[graph.getNumberOfVertices()];
+        for (Vertex v : graph.getVertices()) {
+            vertices[v.getIndex()] = v;
+        }
+
+        TextOutput out = open(series);
+        boolean escaped = out == csv;
+        for (int p = 0; p < vertices.length; p++) {
+            double value = Double.isInfinite(values[p]) ? RandomWalk.INFINITY : values[p];
+            writePrefix(out, series);
+            out.write(escaped ? escape(vertices[p].getName()) : vertices[p].getName());
+            writeSeparator(out);
+            out.write(value).write('\n');
+        }
+        close(out);
+    }
+
+    /**
+     * Zapise kvantily rozdeleni casu pres vsechny behy nahodne prochazky.
+     * Na kazdem radku je jmeno sledovane veliciny, pocet behu, ve kterych
+     * byla zaznamenana, a hodnoty p50, p90, p99 a max. V CSV souboru
+     * ma kazda velicina vlastni radu <code>quantile_jmeno</code> a sloupec x
+     * obsahuje jmeno hodnoty (count, p50, p90, p99, max).
+     *
+     * @param result vysledek obsahujici histogramy rozdeleni
+     * @throw IOException pri I/O chybe, ktera muze nastat pri praci se souborem
+     */
+    private void writeQuantiles(RWResult result) throws IOException {
+        TextOutput out = open(QUANTILES);
+
+        if (out != csv) {
+            out.write("# name    count    p50    p90    p99    max\n");
+        }
+        for (Map.Entry<String, QuantileSketch> entry : result.getQuantiles().entrySet()) {
+            QuantileSketch sketch = entry.getValue();
+            long[] values = {
+                sketch.getCount(),
+                sketch.getQuantile(0.50),
+                sketch.getQuantile(0.90),
+                sketch.getQuantile(0.99),
+                sketch.getMax()
+            };
+
+            if (out == csv) {
+                String series = QUANTILE_PREFIX + entry.getKey();
+                for (int p = 0; p < values.length; p++) {
+                    writePrefix(out, series);
+                    out.write(QUANTILE_COLUMNS[p]).write(',').write(values[p]).write('\n');
+                }
+            } else {
+                out.write(entry.getKey());
+                for (int p = 0; p < values.length; p++) {
+                    out.write("    ").write(values[p]);
+                }
+                out.write('\n');
+            }
+        }
+
+        close(out);
+    }
+
+    /**
+     * Vraci hodnotu upravenou pro zapis do CSV souboru (hodnota obsahujici
+     * carku, uvozovky nebo konec radku se uzavre do uvozovek).
+     *
+     * @param value hodnota
+     * @return hodnota pro zapis do CSV souboru
+     */
+    public static String escape(String value) {
+        boolean quote = false;
+        for (int p = 0; p < value.length(); p++) {
+            char c = value.charAt(p);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public File getResultFile() {
+        return resultFile;
+    }
+
+    public boolean isAppendResults() {
+        return appendResults;
     }
 }
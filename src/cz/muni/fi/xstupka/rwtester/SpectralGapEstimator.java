@@ -0,0 +1,335 @@
+// File: SpectralGapEstimator.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.RangeExecutor;
+import cz.muni.fi.xstupka.rwtester.graph.RangeTask;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tato trida odhaduje spektralni mezeru klasicke nahodne prochazky
+ * na neorientovanem grafu a z ni predpovida rozsah casu promichani
+ * (mixing time) a casu pokryti grafu (cover time).
+ * <p>
+ * Pocita se s linou nahodnou prochazkou (s pravdepodobnosti 1/2 zustane ve
+ * vrcholu), jejiz vlastni cisla jsou nezaporna. Matice prechodu je podobna
+ * symetricke matici S = (I + D^-1/2 A D^-1/2) / 2, jejiz nejvetsi vlastni
+ * cislo 1 ma vlastni vektor sqrt(deg). Druhe nejvetsi vlastni cislo se hleda
+ * mocninnou metodou na podprostoru kolmem k tomuto vektoru, odhadem je
+ * Rayleighuv podil. Vypocet probiha pouze na komponente souvislosti
+ * pocatecniho vrcholu, tedy na te casti grafu, kterou muze nahodna prochazka
+ * navstivit.
+ * <p>
+ * Z relaxacniho casu t_rel = 1 / (1 - lambda2) se odvodi odhady
+ * <pre>
+ *     (t_rel - 1) ln 2  &lt;=  t_mix  &lt;=  t_rel ln(4 / pi_min)
+ *     n ln n  &lt;=  t_cov  &lt;=  H(n - 1) * 2 t_rel / pi_min
+ * </pre>
+ * kde horni mez casu pokryti je Matthewsova mez s odhadem maximalni doby
+ * zasahu 2 t_rel / pi_min a dolni mez je Feigeho mez pro libovolny graf.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class SpectralGapEstimator {
+
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+    public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+    private TransitionMatrix matrix;
+    private int threads;
+    private double tolerance;
+    private int maxIterations;
+
+    // vysledky posledniho odhadu
+    private int componentSize;
+    private long componentEdges;
+    private double piMin;
+    private double eigenvalue;
+    private int iterations;
+    private boolean converged;
+
+    /**
+     * Vytvori novou instanci tridy SpectralGapEstimator
+     *
+     * @param graph neorientovany graf
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     * @throws IllegalArgumentException pokud je graf orientovany
+     */
+    public SpectralGapEstimator(Graph graph) {
+        if (graph == null) {
+            throw new NullPointerException("graph parameter is null");
+        }
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("spectral gap can be estimated for undirected graphs only");
+        }
+        matrix = new TransitionMatrix(graph, RandomWalk.CLASSIC_MODE, null);
+        setThreads(1);
+        setTolerance(DEFAULT_TOLERANCE);
+        setMaxIterations(DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Odhadne druhe nejvetsi vlastni cislo line nahodne prochazky
+     * na komponente souvislosti daneho vrcholu. Iterace konci, kdyz je zmena
+     * odhadu mensi nez <code>tolerance</code> nasobek spektralni mezery.
+     *
+     * @param start pocatecni vrchol nahodne prochazky
+     */
+    public void estimate(Vertex start) {
+        final int size = matrix.getSize();
+        final int[] offsets = matrix.getOffsets();
+        final int[] targets = matrix.getTargets();
+        final boolean[] component = findComponent(start.getIndex());
+
+        // odmocniny stupnu a normovany vlastni vektor nejvetsiho vlastniho cisla
+        final double[] sqrtDegree = new double[size];
+        final double[] first = new double[size];
+        long degreeSum = 0;
+        int minDegree = Integer.MAX_VALUE;
+        componentSize = 0;
+        for (int p = 0; p < size; p++) {
+            if (component[p]) {
+                int degree = offsets[p + 1] - offsets[p];
+                sqrtDegree[p] = Math.sqrt(degree);
+                degreeSum += degree;
+                minDegree = Math.min(minDegree, degree);
+                componentSize++;
+            }
+        }
+        componentEdges = degreeSum / 2;
+
+        iterations = 0;
+        if (componentSize < 2 || degreeSum == 0) {
+            // trivialni komponenta, prochazka je okamzite promichana
+            piMin = 1.0;
+            eigenvalue = 0.0;
+            converged = true;
+            return;
+        }
+        piMin = (double) minDegree / degreeSum;
+        double norm = Math.sqrt(degreeSum);
+        for (int p = 0; p < size; p++) {
+            first[p] = sqrtDegree[p] / norm;
+        }
+
+        // nahodny pocatecni vektor na komponente (pevne seminko kvuli opakovatelnosti)
+        Random random = new Random(size);
+        double[] x = new double[size];
+        for (int p = 0; p < size; p++) {
+            if (component[p]) {
+                x[p] = random.nextDouble() - 0.5;
+            }
+        }
+        orthonormalize(x, first);
+        double[] y = new double[size];
+
+        RangeExecutor executor = new RangeExecutor(threads);
+        converged = false;
+        eigenvalue = 0;
+        try {
+            for (iterations = 1; iterations <= maxIterations; iterations++) {
+                final double[] current = x;
+                final double[] next = y;
+
+                // y = S x, usek vraci svuj prispevek k Rayleighovu podilu x . S x
+                List<Double> partial = executor.execute(size, new RangeTask<Double>() {
+                    public Double compute(int from, int to) {
+                        double dot = 0;
+                        for (int u = from; u < to; u++) {
+                            if (!component[u]) {
+                                continue;
+                            }
+                            double sum = 0;
+                            for (int q = offsets[u]; q < offsets[u + 1]; q++) {
+                                int v = targets[q];
+                                sum += current[v] / sqrtDegree[v];
+                            }
+                            double value = 0.5 * (current[u] + sum / sqrtDegree[u]);
+                            next[u] = value;
+                            dot += value * current[u];
+                        }
+                        return dot;
+                    }
+                });
+
+                double rayleigh = 0;
+                for (double value : partial) {
+                    rayleigh += value;
+                }
+                orthonormalize(next, first);
+                x = next;
+                y = current;
+
+                double change = Math.abs(rayleigh - eigenvalue);
+                eigenvalue = rayleigh;
+                if (change < tolerance * (1 - eigenvalue)) {
+                    converged = true;
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Najde komponentu souvislosti daneho vrcholu (prohledavanim do sirky).
+     */
+    private boolean[] findComponent(int start) {
+        int[] offsets = matrix.getOffsets();
+        int[] targets = matrix.getTargets();
+
+        boolean[] reached = new boolean[matrix.getSize()];
+        int[] queue = new int[matrix.getSize()];
+        int head = 0;
+        int tail = 0;
+        reached[start] = true;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int q = offsets[u]; q < offsets[u + 1]; q++) {
+                int v = targets[q];
+                if (!reached[v]) {
+                    reached[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Odecte z vektoru jeho slozku ve smeru normovaneho vektoru
+     * <code>first</code> a vysledek znormuje.
+     */
+    private static void orthonormalize(double[] x, double[] first) {
+        double dot = 0;
+        for (int p = 0; p < x.length; p++) {
+            dot += x[p] * first[p];
+        }
+        double norm = 0;
+        for (int p = 0; p < x.length; p++) {
+            x[p] -= dot * first[p];
+            norm += x[p] * x[p];
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int p = 0; p < x.length; p++) {
+                x[p] /= norm;
+            }
+        }
+    }
+
+    /**
+     * Vraci spektralni mezeru line nahodne prochazky, tedy 1 - lambda2.
+     *
+     * @return spektralni mezera
+     */
+    public double getSpectralGap() {
+        return 1 - eigenvalue;
+    }
+
+    /**
+     * Vraci relaxacni cas line nahodne prochazky.
+     *
+     * @return relaxacni cas 1 / (1 - lambda2)
+     */
+    public double getRelaxationTime() {
+        return 1 / getSpectralGap();
+    }
+
+    /**
+     * Vraci dolni odhad casu promichani line nahodne prochazky.
+     *
+     * @return dolni odhad casu promichani v krocich
+     */
+    public double getMixingTimeLowerBound() {
+        return Math.max(0, (getRelaxationTime() - 1) * Math.log(2));
+    }
+
+    /**
+     * Vraci horni odhad casu promichani line nahodne prochazky.
+     *
+     * @return horni odhad casu promichani v krocich
+     */
+    public double getMixingTimeUpperBound() {
+        return getRelaxationTime() * Math.log(4 / piMin);
+    }
+
+    /**
+     * Vraci dolni odhad casu pokryti komponenty.
+     *
+     * @return dolni odhad casu pokryti v krocich
+     */
+    public double getCoverTimeLowerBound() {
+        return componentSize * Math.log(componentSize);
+    }
+
+    /**
+     * Vraci horni odhad casu pokryti komponenty (Matthewsova mez).
+     *
+     * @return horni odhad casu pokryti v krocich
+     */
+    public double getCoverTimeUpperBound() {
+        double harmonic = 0;
+        for (int p = 1; p < componentSize; p++) {
+            harmonic += 1.0 / p;
+        }
+        return harmonic * 2 * getRelaxationTime() / piMin;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public int getComponentSize() {
+        return componentSize;
+    }
+
+    public long getComponentEdges() {
+        return componentEdges;
+    }
+
+    public double getPiMin() {
+        return piMin;
+    }
+
+    public double getEigenvalue() {
+        return eigenvalue;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+}
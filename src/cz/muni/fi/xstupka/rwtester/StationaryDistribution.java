@@ -0,0 +1,162 @@
+// File: StationaryDistribution.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.RangeExecutor;
+import cz.muni.fi.xstupka.rwtester.graph.RangeTask;
+import java.util.List;
+
+/**
+ * Tato trida pocita stacionarni rozdeleni nahodne prochazky mocninnou
+ * metodou nad matici prechodu <code>TransitionMatrix</code>. Pocita se
+ * s linou variantou retezce (s pravdepodobnosti 1/2 prochazka zustane
+ * ve vrcholu), ktera ma stejne stacionarni rozdeleni, ale na rozdil
+ * od puvodniho retezce konverguje i na bipartitnich grafech.
+ * <p>
+ * Vypocet zacina v pocatecnim vrcholu nahodne prochazky, vysledek je tedy
+ * stacionarni rozdeleni na te casti grafu, kterou muze prochazka z tohoto
+ * vrcholu navstivit. Novou hodnotu kazdeho vrcholu vrchol pocita sam ze svych
+ * vstupnich hran (transponovana matice), vrcholy lze proto zpracovavat
+ * paralelne bez synchronizace.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class StationaryDistribution {
+
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    public static final int DEFAULT_MAX_ITERATIONS = 1000000;
+
+    private TransitionMatrix transposed;
+    private int threads;
+    private double tolerance;
+    private int maxIterations;
+
+    // informace o poslednim vypoctu
+    private int iterations;
+    private boolean converged;
+    private double error;
+
+    /**
+     * Vytvori novou instanci tridy StationaryDistribution
+     *
+     * @param matrix matice prechodu nahodne prochazky
+     * @throws NullPointerException pokud je parametr <code>matrix</code> null
+     */
+    public StationaryDistribution(TransitionMatrix matrix) {
+        if (matrix == null) {
+            throw new NullPointerException("matrix parameter is null");
+        }
+        transposed = matrix.transpose();
+        setThreads(1);
+        setTolerance(DEFAULT_TOLERANCE);
+        setMaxIterations(DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Spocita stacionarni rozdeleni nahodne prochazky.
+     * Iterace konci, kdyz je zmena rozdeleni (v norme L1) mensi nez
+     * <code>tolerance</code>, nebo po <code>maxIterations</code> iteracich.
+     *
+     * @param start index pocatecniho vrcholu nahodne prochazky
+     * @return pole indexovane indexy vrcholu s pravdepodobnosti pobytu
+     *     nahodne prochazky v danem vrcholu
+     */
+    public double[] compute(int start) {
+        final int size = transposed.getSize();
+        final int[] offsets = transposed.getOffsets();
+        final int[] targets = transposed.getTargets();
+        final double[] probabilities = transposed.getProbabilities();
+        final double restart = transposed.getRestart();
+        final int restartVertex = transposed.getRestartVertex();
+
+        double[] x = new double[size];
+        double[] y = new double[size];
+        x[start] = 1.0;
+
+        RangeExecutor executor = new RangeExecutor(threads);
+        converged = false;
+        try {
+            for (iterations = 1; iterations <= maxIterations; iterations++) {
+                final double[] current = x;
+                final double[] next = y;
+
+                // kazdy usek vrati svuj prispevek ke zmene rozdeleni
+                List<Double> changes = executor.execute(size, new RangeTask<Double>() {
+                    public Double compute(int from, int to) {
+                        double change = 0;
+                        for (int v = from; v < to; v++) {
+                            double sum = 0;
+                            for (int q = offsets[v]; q < offsets[v + 1]; q++) {
+                                sum += probabilities[q] * current[targets[q]];
+                            }
+                            if (restart > 0) {
+                                sum = (1 - restart) * sum;
+                                if (v == restartVertex) {
+                                    sum += restart; // soucet current je 1
+                                }
+                            }
+                            double value = 0.5 * (current[v] + sum);
+                            change += Math.abs(value - current[v]);
+                            next[v] = value;
+                        }
+                        return change;
+                    }
+                });
+
+                error = 0;
+                for (double change : changes) {
+                    error += change;
+                }
+                x = next;
+                y = current;
+                if (error < tolerance) {
+                    converged = true;
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return x;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public double getError() {
+        return error;
+    }
+}
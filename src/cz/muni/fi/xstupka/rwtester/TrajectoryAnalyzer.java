@@ -0,0 +1,175 @@
+// File: TrajectoryAnalyzer.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.GraphException;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.util.List;
+
+/**
+ * Tato trida analyzuje prehravanou trajektorii nahodne prochazky stejne,
+ * jako <code>RWAnalyzer</code> analyzuje dokoncenou nahodnou prochazku.
+ * Pro kazdy beh znovu nastavi vrcholum grafu pocty navstiveni a casy prvniho
+ * pristupu, na konci behu ho analyzuje a vysledek pricte do prumeru.
+ * <p>
+ * Vzdalenosti vrcholu od pocatku se spocitaji algoritmem BFS z prvniho
+ * vrcholu behu. Discover mod se prehraje podle sousedu navstivenych vrcholu.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class TrajectoryAnalyzer implements TrajectorySink {
+
+    private Graph graph;
+    private Vertex[] vertexArray;
+    private boolean discoverMode;
+    private int threads;
+    private RWResult result;
+
+    // stav prave prehravaneho behu
+    private Vertex start;
+    private boolean runStarted;
+    private long time;
+    private int visitedVertices;
+    private long[] percentageCover;
+
+    /**
+     * Vytvori novou instanci tridy TrajectoryAnalyzer
+     *
+     * @param graph graf, na kterem byla trajektorie zaznamenana
+     * @param runs pocet behu trajektorie (viz <code>TrajectoryReader.getRuns</code>)
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     */
+    public TrajectoryAnalyzer(Graph graph, int runs) {
+        if (graph == null) {
+            throw new NullPointerException("graph parameter is null");
+        }
+        this.graph = graph;
+        vertexArray = new Vertex[graph.getNumberOfVertices()];
+        for (Vertex v : graph.getVertices()) {
+            vertexArray[v.getIndex()] = v;
+        }
+        result = new RWResult(graph.isDirected(), Math.max(runs, 1));
+        percentageCover = new long[101];
+        setDiscoverMode(false);
+        setThreads(1);
+    }
+
+    /**
+     * Zahajeni noveho behu, vynuluje hodnoty vrcholu
+     */
+    public void startRun() {
+        for (Vertex v : vertexArray) {
+            v.setValueA(0);                      // pocet navstiveni
+            v.setValueB(RandomWalk.INFINITY);    // cas prvniho pristupu
+        }
+        for (int p = 0; p < 101; p++) {
+            percentageCover[p] = 0;
+        }
+        time = 0;
+        visitedVertices = 0;
+        runStarted = true;
+    }
+
+    /**
+     * Zpracuje jeden krok nahodne prochazky
+     *
+     * @param vertex index navstiveneho vrcholu
+     */
+    public void visit(int vertex) {
+        Vertex v = vertexArray[vertex];
+
+        // prvni vrchol behu je pocatek nahodne prochazky
+        if (runStarted) {
+            runStarted = false;
+            if (v != start) {
+                computeLengths(v);
+                start = v;
+            }
+        }
+
+        if (v.getValueB() == RandomWalk.INFINITY) {
+            v.setValueB(time);
+            visitedVertices++;
+        }
+        v.setValueA(v.getValueA() + 1);
+
+        if (discoverMode) {
+            List<Vertex> neighbours = v.getNeighbours();
+            if (neighbours != null) {
+                for (Vertex neighbour : neighbours) {
+                    if (neighbour.getValueB() == RandomWalk.INFINITY) {
+                        neighbour.setValueB(time);
+                        visitedVertices++;
+                    }
+                    neighbour.setValueA(neighbour.getValueA() + 1);
+                }
+            }
+            int foo = (int) (((double) visitedVertices / (double) vertexArray.length) * 100.0);
+            if (percentageCover[foo] == 0) {
+                percentageCover[foo] = time;
+            }
+        }
+
+        time++;
+
+        int foo = (int) (((double) visitedVertices / (double) vertexArray.length) * 100.0);
+        if (percentageCover[foo] == 0) {
+            percentageCover[foo] = time;
+        }
+    }
+
+    /**
+     * Ukonceni behu, analyzuje beh a pricte ho do prumeru
+     */
+    public void endRun() {
+        RandomWalk.updatePercentageCover(percentageCover);
+        result.add(RWAnalyzer.analyze(graph, time, visitedVertices, percentageCover, threads));
+    }
+
+    /**
+     * Vraci prumer vysledku vsech prehranych behu. Po zavolani teto metody
+     * jiz nelze prehravat dalsi behy.
+     *
+     * @return prumerny vysledek
+     */
+    public RWResult getResult() {
+        result.finish();
+        return result;
+    }
+
+    /**
+     * Spocita vzdalenosti vrcholu od pocatku nahodne prochazky.
+     */
+    private void computeLengths(Vertex v) {
+        try {
+            new BFS(graph).run(v.getName());
+        } catch (GraphException ex) {
+            // vrchol je z grafu, k chybe nemuze dojit
+            throw new IllegalStateException(ex.getMessage());
+        }
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public boolean isDiscoverMode() {
+        return discoverMode;
+    }
+
+    public void setDiscoverMode(boolean discoverMode) {
+        this.discoverMode = discoverMode;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,162 @@
+// File: TrajectoryReader.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Tato trida cte trajektorii nahodne prochazky zapsanou tridou
+ * <code>TrajectoryRecorder</code> a prehrava ji do libovolneho prijemce
+ * <code>TrajectorySink</code>. Soubor se cte po usecich mapovanych
+ * do pameti, velikost haldy tedy nezavisi na delce trajektorie.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class TrajectoryReader {
+
+    private File file;
+    private long count;
+    private int runs;
+    private int vertices;
+    private int edges;
+    private long names;
+
+    /**
+     * Vytvori novou instanci tridy TrajectoryReader a precte hlavicku souboru.
+     *
+     * @param file soubor s trajektorii
+     * @throw IOException pokud soubor nelze precist nebo neni souborem
+     *     trajektorie
+     */
+    public TrajectoryReader(File file) throws IOException {
+        this.file = file;
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(TrajectoryRecorder.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            FileChannel channel = in.getChannel();
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("'" + file + "' is not a trajectory file");
+                }
+            }
+            header.flip();
+            if (header.getInt() != TrajectoryRecorder.MAGIC) {
+                throw new IOException("'" + file + "' is not a trajectory file");
+            }
+            if (header.getInt() != TrajectoryRecorder.VERSION) {
+                throw new IOException("'" + file + "' has unsupported version");
+            }
+            count = header.getLong();
+            runs = header.getInt();
+            vertices = header.getInt();
+            edges = header.getInt();
+            names = header.getLong();
+            if (in.length() < TrajectoryRecorder.HEADER_SIZE + count * 4) {
+                throw new IOException("'" + file + "' is truncated");
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Prehraje celou trajektorii do zadaneho prijemce.
+     *
+     * @param sink prijemce trajektorie
+     * @throw IOException pokud dojde k chybe pri cteni souboru
+     * @throw NullPointerException pokud je parametr <code>sink</code> null
+     */
+    public void replay(TrajectorySink sink) throws IOException {
+        if (sink == null) {
+            throw new NullPointerException("sink parameter is null");
+        }
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = in.getChannel();
+            long chunkEntries = TrajectoryRecorder.CHUNK_SIZE / 4;
+            long done = 0;
+            boolean inRun = false;
+
+            while (done < count) {
+                int size = (int) Math.min(chunkEntries, count - done);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        TrajectoryRecorder.HEADER_SIZE + done * 4, size * 4L);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+                for (int p = 0; p < size; p++) {
+                    int value = buffer.getInt();
+                    if (value == TrajectoryRecorder.RUN_START) {
+                        if (inRun) {
+                            sink.endRun();
+                        }
+                        sink.startRun();
+                        inRun = true;
+                    } else {
+                        sink.visit(value);
+                    }
+                }
+                done += size;
+            }
+
+            if (inRun) {
+                sink.endRun();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Vraci pocet kroku nahodne prochazky (bez znacek zacatku behu).
+     *
+     * @return pocet kroku
+     */
+    public long getSteps() {
+        return count - runs;
+    }
+
+    /**
+     * Zjisti, zda-li byla trajektorie zaznamenana na danem grafu (podle
+     * poctu vrcholu a hran a otisku jmen vrcholu)
+     *
+     * @param graph graf, na kterem se ma trajektorie prehrat
+     * @return <code>true</code> pokud trajektorie odpovida grafu
+     */
+    public boolean isRecordedOn(Graph graph) {
+        return vertices == graph.getNumberOfVertices() && edges == graph.getNumberOfEdges()
+                && names == Checkpoint.computeNames(graph);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getVertices() {
+        return vertices;
+    }
+
+    public int getEdges() {
+        return edges;
+    }
+}
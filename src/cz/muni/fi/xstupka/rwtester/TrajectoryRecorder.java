@@ -0,0 +1,199 @@
+// File: TrajectoryRecorder.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Tato trida zapisuje trajektorii nahodne prochazky do binarniho souboru.
+ * Soubor se zapisuje po usecich (chunk) mapovanych do pameti, zapis jednoho
+ * kroku je tedy pouze zapis cisla do pameti a velikost haldy nezavisi
+ * na delce trajektorie (i pro miliardy kroku).
+ * <p>
+ * Format souboru (little endian):
+ * <pre>
+ *     int     MAGIC
+ *     int     VERSION
+ *     long    pocet zaznamu
+ *     int     pocet behu
+ *     int     pocet vrcholu grafu
+ *     int     pocet hran grafu
+ *     long    otisk jmen vrcholu grafu (viz <code>Checkpoint</code>)
+ *     int     rezervovano
+ *     int[]   zaznamy - index vrcholu nebo RUN_START na zacatku behu
+ * </pre>
+ * Hlavicka se aktualizuje pri kazdem mapovani noveho useku a pri zavreni
+ * souboru. Chyby zapisu se hlasi az metodou <code>close</code>. Popis grafu
+ * (pocty vrcholu a hran a otisk jmen vrcholu) slouzi ke kontrole, ze se trajektorie prehrava na stejnem
+ * grafu.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class TrajectoryRecorder implements TrajectorySink {
+
+    public static final int MAGIC = 0x52575452; // "RWTR"
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 40;
+    public static final int RUN_START = -1;
+
+    // velikost jednoho mapovaneho useku v bajtech
+    public static final int CHUNK_SIZE = 1 << 26;
+
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long chunkOffset;
+    private long count;
+    private int runs;
+    private int vertices;
+    private int edges;
+    private long names;
+    private IOException error;
+
+    /**
+     * Vytvori novou instanci tridy TrajectoryRecorder a otevre soubor
+     * pro zapis (existujici soubor se prepise).
+     *
+     * @param file soubor, do ktereho se ma trajektorie zapisovat
+     * @param graph graf, na kterem se nahodna prochazka spousti
+     * @throw IOException pokud soubor nelze otevrit
+     */
+    public TrajectoryRecorder(File file, Graph graph) throws IOException {
+        vertices = graph.getNumberOfVertices();
+        edges = graph.getNumberOfEdges();
+        names = Checkpoint.computeNames(graph);
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        channel = this.file.getChannel();
+        count = 0;
+        runs = 0;
+        chunkOffset = HEADER_SIZE;
+        writeHeader();
+        map();
+    }
+
+    /**
+     * Zahajeni noveho behu nahodne prochazky
+     */
+    public void startRun() {
+        runs++;
+        put(RUN_START);
+    }
+
+    /**
+     * Zapise jeden krok nahodne prochazky
+     *
+     * @param vertex index navstiveneho vrcholu
+     */
+    public void visit(int vertex) {
+        put(vertex);
+    }
+
+    /**
+     * Ukonceni behu nahodne prochazky (zacatek dalsiho behu se pozna
+     * podle znacky RUN_START)
+     */
+    public void endRun() {
+    }
+
+    /**
+     * Zapise jeden zaznam do aktualniho useku.
+     */
+    private void put(int value) {
+        if (buffer == null) {
+            return; // po chybe se jiz nezapisuje
+        }
+        if (!buffer.hasRemaining()) {
+            chunkOffset += CHUNK_SIZE;
+            try {
+                writeHeader();
+                map();
+            } catch (IOException ex) {
+                error = ex;
+                buffer = null;
+                return;
+            }
+        }
+        buffer.putInt(value);
+        count++;
+    }
+
+    /**
+     * Namapuje dalsi usek souboru.
+     */
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, chunkOffset, CHUNK_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Zapise hlavicku souboru.
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(count);
+        header.putInt(runs);
+        header.putInt(vertices);
+        header.putInt(edges);
+        header.putLong(names);
+        header.putInt(0);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Zapise hlavicku, zkrati soubor na skutecnou delku a zavre ho.
+     *
+     * @throw IOException pokud doslo k chybe pri zapisu trajektorie
+     */
+    public void close() throws IOException {
+        try {
+            buffer = null;
+            writeHeader();
+            try {
+                channel.truncate(HEADER_SIZE + count * 4);
+            } catch (IOException ex) {
+                // nektere systemy nedovoli zkratit mapovany soubor, delku
+                // trajektorie pak urcuje pouze hlavicka
+            }
+        } finally {
+            file.close();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Vraci pocet zapsanych kroku nahodne prochazky (bez znacek zacatku behu).
+     *
+     * @return pocet kroku
+     */
+    public long getSteps() {
+        return count - runs;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+}
@@ -0,0 +1,37 @@
+// File: TrajectorySink.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+/**
+ * Rozhrani pro prijemce trajektorie nahodne prochazky, tedy posloupnosti
+ * indexu vrcholu, ktere nahodna prochazka postupne navstivila.
+ * <p>
+ * Nahodna prochazka (viz <code>RandomWalk.setTrajectorySink</code>) vola
+ * na zacatku kazdeho behu metodu <code>startRun</code>, v kazdem kroku
+ * metodu <code>visit</code> a na konci behu metodu <code>endRun</code>.
+ * Stejne tak trajektorii prehrava trida <code>TrajectoryReader</code>,
+ * zaznamenanou prochazku lze tedy dodatecne analyzovat bez jejiho
+ * opakovani.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public interface TrajectorySink {
+
+    /**
+     * Zahajeni noveho behu nahodne prochazky
+     */
+    void startRun();
+
+    /**
+     * Jeden krok nahodne prochazky
+     *
+     * @param vertex index navstiveneho vrcholu (viz <code>Vertex.getIndex</code>)
+     */
+    void visit(int vertex);
+
+    /**
+     * Ukonceni behu nahodne prochazky
+     */
+    void endRun();
+}
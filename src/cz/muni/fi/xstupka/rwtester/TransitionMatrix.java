@@ -0,0 +1,326 @@
+// File: TransitionMatrix.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import cz.muni.fi.xstupka.rwtester.graph.Graph;
+import cz.muni.fi.xstupka.rwtester.graph.Vertex;
+import java.util.List;
+
+/**
+ * Tato trida reprezentuje matici prechodu nahodne prochazky.
+ * Matice je ulozena kompaktne po radcich (pole <code>offsets</code>,
+ * <code>targets</code> a <code>probabilities</code>), radky a sloupce
+ * odpovidaji indexum vrcholu grafu (viz <code>Vertex.getIndex</code>).
+ * Pravdepodobnosti prechodu odpovidaji presne zvolenemu modu nahodne
+ * prochazky (viz <code>RandomWalk.setMode</code>). U orientovanych grafu
+ * matice zahrnuje i restart nahodne prochazky do pocatecniho vrcholu,
+ * ktery provadi trida <code>DirectedRandomWalk</code> - v kazdem kroku
+ * s pravdepodobnosti <code>restart</code> a vzdy z vrcholu bez nasledniku.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class TransitionMatrix {
+
+    private int size;
+    private int mode;
+    private Vertex[] vertices;
+    private int[] offsets;
+    private int[] targets;
+    private double[] probabilities;
+
+    // pravdepodobnost restartu v kazdem kroku a cil restartu
+    private double restart;
+    private int restartVertex;
+
+    // stacionarni rozdeleni (nenormalizovane) pro reverzibilni prochazky, jinak null
+    private double[] reversibleWeights;
+
+    /**
+     * Vytvori matici prechodu nahodne prochazky na danem grafu.
+     *
+     * @param graph graf, na kterem nahodna prochazka probiha
+     * @param mode mod nahodne prochazky (napr. <code>RandomWalk.CLASSIC_MODE</code>)
+     * @param startVertex pocatecni vrchol, do ktereho se orientovana nahodna prochazka
+     *     restartuje (u neorientovanych grafu neni pouzit a muze byt null)
+     * @throws NullPointerException pokud je parametr <code>graph</code> null
+     * @throws IllegalArgumentException pokud je zadan neznamy mod
+     */
+    public TransitionMatrix(Graph graph, int mode, Vertex startVertex) {
+        if (graph == null) {
+            throw new NullPointerException("graph parameter is null");
+        }
+        if (mode < RandomWalk.CLASSIC_MODE || mode > RandomWalk.REVERSE_IN_DEGREE_MODE) {
+            throw new IllegalArgumentException("unknown random walk mode");
+        }
+        this.mode = mode;
+        size = graph.getNumberOfVertices();
+
+        // vrcholy seradime podle indexu
+        vertices = new Vertex[size];
+        for (Vertex v : graph.getVertices()) {
+            vertices[v.getIndex()] = v;
+        }
+
+        if (graph.isDirected() && startVertex != null) {
+            restart = 1.0 / DirectedRandomWalk.RESTART_CHANCE;
+            restartVertex = startVertex.getIndex();
+        } else {
+            restart = 0.0;
+            restartVertex = -1;
+        }
+
+        // spocitame delky radku (vrchol bez nasledniku ma v orientovanem
+        // grafu jediny prechod - restart)
+        offsets = new int[size + 1];
+        for (int p = 0; p < size; p++) {
+            int count = vertices[p].getNumberOfNeighbours();
+            if (count == 0 && restartVertex != -1) {
+                count = 1;
+            }
+            offsets[p + 1] = offsets[p] + count;
+        }
+
+        targets = new int[offsets[size]];
+        probabilities = new double[offsets[size]];
+        for (int p = 0; p < size; p++) {
+            fillRow(p);
+        }
+
+        if (!graph.isDirected()) {
+            computeReversibleWeights();
+        }
+    }
+
+    /**
+     * Vyplni radek matice pro vrchol daneho indexu.
+     * Pravdepodobnosti odpovidaji metodam <code>getRandomNeighbour...</code>
+     * tridy <code>RandomWalk</code>.
+     */
+    private void fillRow(int row) {
+        Vertex u = vertices[row];
+        int k = u.getNumberOfNeighbours();
+        int offset = offsets[row];
+
+        if (k == 0) {
+            if (restartVertex != -1) {
+                targets[offset] = restartVertex;
+                probabilities[offset] = 1.0;
+            }
+            return;
+        }
+
+        List<Vertex> list = u.getNeighbours();
+        double sum = 0;
+        for (Vertex v : list) {
+            sum += getBase(v);
+        }
+
+        int q = offset;
+        for (Vertex v : list) {
+            targets[q] = v.getIndex();
+            switch (mode) {
+                case RandomWalk.CLASSIC_MODE:
+                    probabilities[q] = 1.0 / k;
+                    break;
+                case RandomWalk.OUT_DEGREE_MODE:
+                case RandomWalk.IN_DEGREE_MODE:
+                    probabilities[q] = getBase(v) / sum;
+                    break;
+                default: // obracene mody
+                    if (k == 1) {
+                        probabilities[q] = 1.0;
+                    } else {
+                        // reverse / reverseSum, kde reverseSum = (k - 1) * sum
+                        probabilities[q] = (sum - getBase(v)) / ((k - 1) * sum);
+                    }
+            }
+            q++;
+        }
+    }
+
+    /**
+     * Vraci cislo <i>base</i> naslednika podle modu nahodne prochazky,
+     * tedy vystupni nebo vstupni stupen inkrementovany o jedna.
+     */
+    private double getBase(Vertex v) {
+        if (mode == RandomWalk.IN_DEGREE_MODE || mode == RandomWalk.REVERSE_IN_DEGREE_MODE) {
+            return v.getInDegree() + 1;
+        }
+        return v.getDegree() + 1;
+    }
+
+    /**
+     * Spocita stacionarni rozdeleni reverzibilnich nahodnych prochazek.
+     * Klasicka nahodna prochazka na neorientovanem grafu ma stacionarni
+     * rozdeleni umerne stupni vrcholu. Prochazka v modu <i>outdegree</i>
+     * je take reverzibilni - hrana {u, v} ma vahu (deg(u) + 1)(deg(v) + 1),
+     * stacionarni rozdeleni je tedy umerne (deg(u) + 1) * sum(u), kde
+     * sum(u) je soucet cisel <i>base</i> vsech sousedu vrcholu u.
+     */
+    private void computeReversibleWeights() {
+        if (mode == RandomWalk.CLASSIC_MODE) {
+            reversibleWeights = new double[size];
+            for (int p = 0; p < size; p++) {
+                reversibleWeights[p] = vertices[p].getDegree();
+            }
+        } else if (mode == RandomWalk.OUT_DEGREE_MODE) {
+            reversibleWeights = new double[size];
+            for (int p = 0; p < size; p++) {
+                double sum = 0;
+                for (int q = offsets[p]; q < offsets[p + 1]; q++) {
+                    sum += vertices[targets[q]].getDegree() + 1;
+                }
+                reversibleWeights[p] = (vertices[p].getDegree() + 1) * sum;
+            }
+        }
+    }
+
+    /**
+     * Vynasobi vektor matici prechodu zprava, tedy y = P x.
+     * Hodnota y[v] je stredni hodnota x v nasledujicim kroku nahodne
+     * prochazky z vrcholu v.
+     *
+     * @param x vstupni vektor
+     * @param y vystupni vektor
+     */
+    public void multiply(double[] x, double[] y) {
+        for (int p = 0; p < size; p++) {
+            y[p] = multiplyRow(p, x);
+        }
+    }
+
+    /**
+     * Vraci soucin radku matice prechodu a zadaneho vektoru.
+     *
+     * @param row index radku
+     * @param x vektor
+     * @return stredni hodnota x v nasledujicim kroku z vrcholu <code>row</code>
+     */
+    public double multiplyRow(int row, double[] x) {
+        double sum = 0;
+        for (int q = offsets[row]; q < offsets[row + 1]; q++) {
+            sum += probabilities[q] * x[targets[q]];
+        }
+        if (restart > 0) {
+            sum = (1 - restart) * sum + restart * x[restartVertex];
+        }
+        return sum;
+    }
+
+    /**
+     * Vraci pravdepodobnost prechodu z vrcholu do sebe sama.
+     *
+     * @param row index vrcholu
+     * @return pravdepodobnost setrvani ve vrcholu v jednom kroku
+     */
+    public double getDiagonal(int row) {
+        double value = 0;
+        for (int q = offsets[row]; q < offsets[row + 1]; q++) {
+            if (targets[q] == row) {
+                value += probabilities[q];
+            }
+        }
+        if (restart > 0) {
+            value = (1 - restart) * value;
+            if (row == restartVertex) {
+                value += restart;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Vraci matici, jejiz radky obsahuji vstupni hrany jednotlivych vrcholu.
+     * Polozka radku v transponovane matici odpovida prechodu z vrcholu
+     * <code>getTargets()[q]</code> do vrcholu radku. Restart neni do
+     * transponovane matice zahrnut, jeho pravdepodobnost je dostupna
+     * pres metodu <code>getRestart</code>.
+     *
+     * @return transponovana matice
+     */
+    public TransitionMatrix transpose() {
+        TransitionMatrix result = new TransitionMatrix();
+        result.size = size;
+        result.mode = mode;
+        result.vertices = vertices;
+        result.restart = restart;
+        result.restartVertex = restartVertex;
+        result.reversibleWeights = reversibleWeights;
+
+        result.offsets = new int[size + 1];
+        for (int q = 0; q < targets.length; q++) {
+            result.offsets[targets[q] + 1]++;
+        }
+        for (int p = 0; p < size; p++) {
+            result.offsets[p + 1] += result.offsets[p];
+        }
+
+        int[] position = new int[size];
+        System.arraycopy(result.offsets, 0, position, 0, size);
+        result.targets = new int[targets.length];
+        result.probabilities = new double[targets.length];
+        for (int p = 0; p < size; p++) {
+            for (int q = offsets[p]; q < offsets[p + 1]; q++) {
+                int r = position[targets[q]]++;
+                result.targets[r] = p;
+                result.probabilities[r] = probabilities[q];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prazdny konstruktor pro transponovanou matici.
+     */
+    private TransitionMatrix() {
+    }
+
+    /**
+     * Vraci informaci, zda-li je nahodna prochazka reverzibilni.
+     *
+     * @return <code>true</code> pokud je znamo stacionarni rozdeleni reverzibilni
+     *     prochazky (neorientovany graf v modu classic nebo outdegree)
+     */
+    public boolean isReversible() {
+        return reversibleWeights != null;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    public Vertex getVertex(int index) {
+        return vertices[index];
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public double[] getProbabilities() {
+        return probabilities;
+    }
+
+    public double getRestart() {
+        return restart;
+    }
+
+    public int getRestartVertex() {
+        return restartVertex;
+    }
+
+    public double[] getReversibleWeights() {
+        return reversibleWeights;
+    }
+}
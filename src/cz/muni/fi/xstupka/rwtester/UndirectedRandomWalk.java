@@ -41,14 +41,39 @@ public class UndirectedRandomWalk extends RandomWalk {
     public void runCover(String startVertex, int coverage) throws GraphException {
         Vertex v = getGraph().getVertex(startVertex);
         initGraph();
+        walkCover(v, coverage);
+    }
+
+    /**
+     * Pokracuje v nahodne prochazce pro pokryti grafu ze snimku jejiho stavu.
+     *
+     * @param startVertex pocatecni vrchol, ze ktereho byla nahodna prochazka spustena
+     * @param coverage procentualni pokryti, ktere ma byt dosazeno (v procentech)
+     * @param state snimek stavu nahodne prochazky
+     * @throws GraphException pokud vrchol zadaneho jmena v grafu neexistuje
+     */
+    public void resumeCover(String startVertex, int coverage, WalkState state) throws GraphException {
+        getGraph().getVertex(startVertex);
+        Vertex v = restoreState(state);
+        walkCover(v, coverage);
+    }
+
+    /**
+     * Provadi nahodnou prochazku pro pokryti grafu z vrcholu <code>v</code>
+     *
+     * @param v vrchol, ktery ma nahodna prochazka zpracovat jako dalsi
+     * @param coverage procentualni pokryti, ktere ma byt dosazeno (v procentech)
+     */
+    private void walkCover(Vertex v, int coverage) {
         type = "U-CO";
         
         this.coverage = coverage;
         stop = false;
 
         while (visitedVertices != vertices) {
+            checkpoint(v);
             processVertex(v);
-            if (visitedVertices == vertices || stop) {
+            if (visitedVertices == vertices || stop || isStepLimitReached()) {
                 break;
             }
             Vertex next = getRandomNeighbour(v);
@@ -56,7 +81,7 @@ public class UndirectedRandomWalk extends RandomWalk {
             v = next;
         }
         
-        updatePercentageCover();
+        finishRun();
     }
 
     /**
@@ -76,12 +101,15 @@ public class UndirectedRandomWalk extends RandomWalk {
         
         if (v.equals(u)) {
             processVertex(v);
-            updatePercentageCover();
+            finishRun();
             return;
         }
         
         while (!v.equals(u)) {
             processVertex(v);
+            if (isStepLimitReached()) {
+                break;
+            }
                         
             // ziska seznam sousedu
             if (isDiscoverMode()) {
@@ -100,7 +128,7 @@ public class UndirectedRandomWalk extends RandomWalk {
             v = next;
         }
         
-        updatePercentageCover();
+        finishRun();
     }    
     
     /**
@@ -109,6 +137,8 @@ public class UndirectedRandomWalk extends RandomWalk {
      * @param v vrchol, ktery ma byt v danem momenta zpracovan
      */
     private void processVertex(Vertex v) {
+        recordVisit(v);
+        
         // nalezen novy doposud neobjeveny vrchol
         if (v.getValueB() == INFINITY) {
             v.setValueB(time);
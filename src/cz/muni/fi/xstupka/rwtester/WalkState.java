@@ -0,0 +1,92 @@
+// File: WalkState.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Tato trida obsahuje snimek stavu rozbehnute nahodne prochazky - aktualni
+ * vrchol, cas, pocty navstiveni a casy prvniho pristupu vsech vrcholu,
+ * procentualni pokryti a stav generatoru nahodnych cisel. Vytvari ji
+ * metoda <code>RandomWalk.saveState</code> a nahodna prochazka z ni umi
+ * pokracovat (viz <code>RandomWalk.resumeCover</code>).
+ * <p>
+ * Pole jsou indexovana indexy vrcholu grafu. Snimek je po vytvoreni
+ * nemenny, muze ho tedy zapisovat jine vlakno, zatimco nahodna prochazka
+ * pokracuje.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class WalkState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int vertex;
+    private long time;
+    private int visitedVertices;
+    private int run;
+    private long[] percentageCover;
+    private long[] visits;
+    private long[] firstTimes;
+    private Random random;
+
+    /**
+     * Vytvori novou instanci tridy WalkState
+     *
+     * @param vertex index vrcholu, ktery ma nahodna prochazka zpracovat jako dalsi
+     * @param time cas nahodne prochazky
+     * @param visitedVertices pocet navstivenych vrcholu
+     * @param run pocet restartu nahodne prochazky (pouze orientovane grafy)
+     * @param percentageCover casy dosazeni procentualnich pokryti
+     * @param visits pocty navstiveni vrcholu
+     * @param firstTimes casy prvniho pristupu do vrcholu
+     * @param random kopie generatoru nahodnych cisel
+     */
+    public WalkState(int vertex, long time, int visitedVertices, int run,
+            long[] percentageCover, long[] visits, long[] firstTimes, Random random) {
+        this.vertex = vertex;
+        this.time = time;
+        this.visitedVertices = visitedVertices;
+        this.run = run;
+        this.percentageCover = percentageCover;
+        this.visits = visits;
+        this.firstTimes = firstTimes;
+        this.random = random;
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getVertex() {
+        return vertex;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getVisitedVertices() {
+        return visitedVertices;
+    }
+
+    public int getRun() {
+        return run;
+    }
+
+    public long[] getPercentageCover() {
+        return percentageCover;
+    }
+
+    public long[] getVisits() {
+        return visits;
+    }
+
+    public long[] getFirstTimes() {
+        return firstTimes;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+}
@@ -0,0 +1,59 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Array of ints indexed by long, it can be larger than a java array.
+ * Items are stored in chunks of 2^27 ints.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+class BigIntArray {
+    
+    private static final int CHUNK_BITS = 27;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    
+    private int[][] chunks;
+    private long length;
+    
+    /**
+     * Creates a new instance of BigIntArray filled with zeros.
+     * @param length length of the array
+     */
+    public BigIntArray(long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("negative length");
+        }
+        this.length = length;
+        int count = (int) ((length + CHUNK_MASK) >>> CHUNK_BITS);
+        chunks = new int[count][];
+        for (int p = 0; p < count; p++) {
+            long rest = length - ((long) p << CHUNK_BITS);
+            chunks[p] = new int[(int) Math.min(rest, CHUNK_MASK + 1)];
+        }
+    }
+    
+    /**
+     * Returns the item.
+     * @param index index of the item
+     * @return item
+     */
+    public int get(long index) {
+        return chunks[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)];
+    }
+    
+    /**
+     * Sets the item.
+     * @param index index of the item
+     * @param value new value of the item
+     */
+    public void set(long index, int value) {
+        chunks[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)] = value;
+    }
+    
+    /**
+     * Returns length of the array.
+     * @return length of the array
+     */
+    public long length() {
+        return length;
+    }
+}
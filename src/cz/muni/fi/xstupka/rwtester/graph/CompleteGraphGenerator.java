@@ -3,9 +3,7 @@
 
 package cz.muni.fi.xstupka.rwtester.graph;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Tato trida slouzi ke generovani uplnych grafu.
@@ -13,9 +11,10 @@ import java.util.List;
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
-public class CompleteGraphGenerator implements GraphFactory {
+public class CompleteGraphGenerator implements ParallelEdgeGenerator {
     
-    private List<Vertex> verticesList;
+    private int vertices;
+    private int threads;
     
     /** 
      * Vytvori novou instanci tridy CompleteGraphGenerator
@@ -27,26 +26,40 @@ public class CompleteGraphGenerator implements GraphFactory {
         if (vertices < 0) {
             throw new IllegalArgumentException("vertices parameter is negative");
         }
+        this.vertices = vertices;
+        this.threads = 1;
+    }
 
-        verticesList = new LinkedList<Vertex>();
-        
-        // postupne vytvori pozadovany pocet vrcholu a spoji kazdy s kazdym
-        for (int p = 0; p < vertices; p++) {
-            Vertex vertex = new Vertex(p + "");
-            
-            // napoji novy vrchol na vsechny ostatni
-            for (Vertex v : verticesList) {
-                try {
-                    vertex.addNeighbour(v);
-                    v.addNeighbour(vertex);
-                } catch (VertexException ex) {
-                    // OK, tato vyjimka zde nikdy nevznikne
-                    ex.printStackTrace();
-                }
+    /**
+     * Vygeneruje vsechny hrany grafu - kazdy novy vrchol se napoji
+     * na vsechny predchozi
+     *
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+    
+    /**
+     * Vygeneruje hrany jednoho bloku - hrany novych vrcholu z rozsahu bloku
+     * (bloky maji stejny pocet hran)
+     *
+     * @param block cislo bloku
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        int from = GeneratorBlocks.getTriangularStart(vertices, blocks, block);
+        int to = GeneratorBlocks.getTriangularStart(vertices, blocks, block + 1);
+        for (int p = from; p < to; p++) {
+            for (int q = 0; q < p; q++) {
+                sink.addEdge(p, q);
             }
-            
-            // nakonec pridame novy vrchol mezi ostatni
-            verticesList.add(vertex);
         }
     }
 
@@ -56,6 +69,32 @@ public class CompleteGraphGenerator implements GraphFactory {
      * @return uplny graf
      */
     public Graph getGraph() {
-        return new GraphImpl((Collection<Vertex>) verticesList, false, false);
+        return EdgeCollector.build(this, threads);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return vertices < 2 ? 0 : (long) vertices * (vertices - 1) / 2;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return GeneratorBlocks.getBlocks(vertices);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
     }
 }
@@ -0,0 +1,204 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+
+/**
+ * This class generates a scale-free graph by a copy model approximation
+ * of the preferential attachment, edges of the vertices can be generated
+ * independently and so in parallel.
+ * <br/>
+ * As in ScaleFreeGraphGenerator the new vertex is connected to m vertices
+ * (all vertices if there are at most m of them). The target of each edge
+ * is one endpoint of a uniformly chosen edge of the previous vertices,
+ * i.e. a vertex chosen with the propability proportional to its degree.
+ * If the chosen endpoint is the target of an older edge its target is
+ * resolved the same way (expected number of steps is 2). The choice is
+ * a hash of the seed and the number of the edge, so no state is kept at
+ * all and the edges of any vertex can be computed at any time.
+ * <br/>
+ * Unlike ScaleFreeGraphGenerator the targets are not chosen again if they
+ * repeat, repeated targets of a vertex are written only once. The degree
+ * of a new vertex is therefore at most m, the number of edges is not known
+ * in advance.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class CopyModelGraphGenerator implements ParallelEdgeGenerator {
+
+    private int vertices;
+    private int connect;
+    private long seed;
+    private int threads;
+
+    // number of edges of the vertices 0 .. connect (a complete graph)
+    private long triangle;
+
+    /**
+     * Creates a new instance of CopyModelGraphGenerator.
+     *
+     * @param vertices number of vertices that should be generated
+     * @param connect initial degree of the new vertex
+     * @throws IllegalArgumentException if a negative parametr is given
+     */
+    public CopyModelGraphGenerator(int vertices, int connect) {
+        if (vertices < 0 || connect < 0) {
+            throw new IllegalArgumentException("negative parameter");
+        }
+
+        this.vertices = vertices;
+        this.connect = connect;
+        seed = hashCode() + System.nanoTime();
+        threads = 1;
+        triangle = (long) connect * (connect + 1) / 2;
+    }
+
+    /**
+     * Returns a generated graph.
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
+     */
+    public Graph getGraph() {
+        return EdgeCollector.build(this, threads);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+
+    /**
+     * Generates edges of the new vertices of the block.
+     * @param block number of the block
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        int from = GeneratorBlocks.getStart(vertices, blocks, block);
+        int to = GeneratorBlocks.getStart(vertices, blocks, block + 1);
+        int[] targets = new int[connect];
+
+        for (int vertex = from; vertex < to; vertex++) {
+            // all vertices are selected, no need to choose
+            if (vertex <= connect) {
+                for (int p = 0; p < vertex; p++) {
+                    sink.addEdge(vertex, p);
+                }
+                continue;
+            }
+
+            long first = getEdgesBefore(vertex);
+            int count = 0;
+            for (int p = 0; p < connect; p++) {
+                int target = getTarget(first + p);
+                boolean repeated = false;
+                for (int q = 0; q < count && !repeated; q++) {
+                    repeated = targets[q] == target;
+                }
+                if (!repeated) {
+                    targets[count++] = target;
+                    sink.addEdge(vertex, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the target of the edge.
+     * @param edge number of the edge
+     * @return index of the target vertex
+     */
+    private int getTarget(long edge) {
+        while (true) {
+            int vertex = getSource(edge);
+            if (vertex <= connect) {
+                return (int) (edge - (long) vertex * (vertex - 1) / 2);
+            }
+
+            // one of 2 * (number of older edges) endpoints
+            long bound = 2 * getEdgesBefore(vertex);
+            long hash = GeneratorBlocks.getSeed(seed, edge);
+            long slot = (long) (((hash >>> 11) / (double) (1L << 53)) * bound);
+            if (slot >= bound) {
+                slot = bound - 1;
+            }
+
+            if ((slot & 1) == 0) {
+                return getSource(slot >>> 1);
+            }
+            edge = slot >>> 1;
+        }
+    }
+
+    /**
+     * Returns the new vertex of the edge (its source).
+     * @param edge number of the edge
+     * @return index of the vertex
+     */
+    private int getSource(long edge) {
+        if (edge < triangle) {
+            // vertex v has edges v(v-1)/2 .. v(v+1)/2 - 1
+            int vertex = (int) ((1 + Math.sqrt(1 + 8.0 * edge)) / 2);
+            while ((long) vertex * (vertex - 1) / 2 > edge) {
+                vertex--;
+            }
+            while ((long) vertex * (vertex + 1) / 2 <= edge) {
+                vertex++;
+            }
+            return vertex;
+        }
+        return (int) (connect + 1 + (edge - triangle) / connect);
+    }
+
+    /**
+     * Returns number of edges of the vertices 0 .. vertex - 1.
+     * @param vertex index of the vertex
+     * @return number of edges
+     */
+    private long getEdgesBefore(int vertex) {
+        if (vertex <= connect + 1) {
+            return (long) vertex * (vertex - 1) / 2;
+        }
+        return triangle + (long) (vertex - connect - 1) * connect;
+    }
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return -1;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return GeneratorBlocks.getBlocks(vertices);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,215 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class generates a directed scale-free graph by the preferential
+ * attachment model of Bollobas, Borgs, Chayes and Riordan. The graph
+ * starts as a directed triangle, then in each step:
+ * <ul>
+ *   <li>with the propability alpha a new vertex v and an edge v -&gt; w
+ *   are added, w is chosen according to d_in(w) + delta_in,</li>
+ *   <li>with the propability beta an edge v -&gt; w between existing
+ *   vertices is added, v is chosen according to d_out(v) + delta_out and
+ *   w according to d_in(w) + delta_in,</li>
+ *   <li>with the propability gamma a new vertex v and an edge w -&gt; v
+ *   are added, w is chosen according to d_out(w) + delta_out.</li>
+ * </ul>
+ * The in-degree exponent is 1 + (1 + delta_in (alpha + gamma)) / (alpha + beta)
+ * and the out-degree exponent 1 + (1 + delta_out (alpha + gamma)) / (beta + gamma),
+ * so they can be tuned independently.
+ * <br/>
+ * Sources and targets of the edges are stored in two arrays. A vertex
+ * chosen according to d_in + delta_in is the target of a uniformly chosen
+ * edge with the propability E / (E + delta_in * N) and a uniformly chosen
+ * vertex otherwise, each choice is therefore O(1). The model creates loops
+ * and multiple edges, they are removed when the edges are written, the
+ * number of edges is known only after generating.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class DirectedScaleFreeGraphGenerator implements EdgeGenerator {
+
+    public static final double DEFAULT_ALPHA = 0.41;
+    public static final double DEFAULT_BETA = 0.54;
+    public static final double DEFAULT_GAMMA = 0.05;
+    public static final double DEFAULT_DELTA_IN = 0.2;
+    public static final double DEFAULT_DELTA_OUT = 0;
+
+    // maximal size of a java array
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private int vertices;
+    private double alpha;
+    private double beta;
+    private double deltaIn;
+    private double deltaOut;
+    private long seed;
+
+    /**
+     * Creates a new instance of DirectedScaleFreeGraphGenerator with the
+     * default parameters.
+     *
+     * @param vertices number of vertices (at least 3)
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public DirectedScaleFreeGraphGenerator(int vertices) {
+        this(vertices, DEFAULT_ALPHA, DEFAULT_BETA, DEFAULT_GAMMA, DEFAULT_DELTA_IN, DEFAULT_DELTA_OUT);
+    }
+
+    /**
+     * Creates a new instance of DirectedScaleFreeGraphGenerator. The
+     * propabilities alpha, beta and gamma are normalized to sum 1.
+     *
+     * @param vertices number of vertices (at least 3)
+     * @param alpha propability of a new vertex with an out-edge
+     * @param beta propability of an edge between existing vertices
+     * @param gamma propability of a new vertex with an in-edge
+     * @param deltaIn bias added to the in-degrees
+     * @param deltaOut bias added to the out-degrees
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public DirectedScaleFreeGraphGenerator(int vertices, double alpha, double beta, double gamma,
+            double deltaIn, double deltaOut) {
+        if (vertices < 3) {
+            throw new IllegalArgumentException("number of vertices is lower than 3");
+        }
+        if (!(alpha >= 0 && beta >= 0 && gamma >= 0) || alpha + gamma <= 0) {
+            throw new IllegalArgumentException("wrong propabilities");
+        }
+        if (!(deltaIn >= 0 && deltaOut >= 0)) {
+            throw new IllegalArgumentException("negative delta");
+        }
+        // expected number of edges is vertices / (alpha + gamma)
+        double sum = alpha + beta + gamma;
+        if (vertices / ((alpha + gamma) / sum) > MAX_SIZE / 2) {
+            throw new IllegalArgumentException("too many edges");
+        }
+
+        this.vertices = vertices;
+        this.alpha = alpha / sum;
+        this.beta = beta / sum;
+        this.deltaIn = deltaIn;
+        this.deltaOut = deltaOut;
+        seed = hashCode() + System.nanoTime();
+    }
+
+    /**
+     * Returns a generated graph.
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
+     */
+    public Graph getGraph() {
+        return EdgeCollector.build(this);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink. The edges are sorted
+     * by the source and the target.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        Random random = new Random(seed);
+
+        int capacity = (int) Math.min(MAX_SIZE, 2L * vertices);
+        int[] sources = new int[capacity];
+        int[] targets = new int[capacity];
+
+        // directed triangle
+        for (int p = 0; p < 3; p++) {
+            sources[p] = p;
+            targets[p] = (p + 1) % 3;
+        }
+        int edges = 3;
+        int count = 3;
+
+        while (count < vertices) {
+            if (edges == sources.length) {
+                if (edges == MAX_SIZE) {
+                    throw new IllegalArgumentException("too many edges");
+                }
+                capacity = (int) Math.min(MAX_SIZE, edges + (long) edges / 2);
+                sources = resize(sources, capacity);
+                targets = resize(targets, capacity);
+            }
+
+            double u = random.nextDouble();
+            if (u < alpha) {
+                sources[edges] = count++;
+                targets[edges] = choose(targets, edges, count - 1, deltaIn, random);
+            } else if (u < alpha + beta) {
+                sources[edges] = choose(sources, edges, count, deltaOut, random);
+                targets[edges] = choose(targets, edges, count, deltaIn, random);
+            } else {
+                sources[edges] = choose(sources, edges, count, deltaOut, random);
+                targets[edges] = count++;
+            }
+            edges++;
+        }
+
+        long[] keys = new long[edges];
+        for (int p = 0; p < edges; p++) {
+            keys[p] = ((long) sources[p] << 32) | targets[p];
+        }
+        sources = null;
+        targets = null;
+
+        Arrays.sort(keys);
+        for (int p = 0; p < edges; p++) {
+            int from = (int) (keys[p] >>> 32);
+            int to = (int) keys[p];
+            // loops and multiple edges are removed
+            if (from == to || (p > 0 && keys[p] == keys[p - 1])) {
+                continue;
+            }
+            sink.addEdge(from, to);
+        }
+    }
+
+    /**
+     * Chooses a vertex with the propability proportional to the number of
+     * its occurences in the endpoints plus delta.
+     * @param endpoints sources or targets of the edges
+     * @param edges number of edges
+     * @param count number of vertices
+     * @param delta bias of the degree
+     * @return index of the vertex
+     */
+    private static int choose(int[] endpoints, int edges, int count, double delta, Random random) {
+        double r = random.nextDouble() * (edges + delta * count);
+        if (r < edges) {
+            return endpoints[(int) r];
+        }
+        return random.nextInt(count);
+    }
+
+    private static int[] resize(int[] array, int capacity) {
+        int[] foo = new int[capacity];
+        System.arraycopy(array, 0, foo, 0, array.length);
+        return foo;
+    }
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return -1;
+    }
+
+    public boolean isDirected() {
+        return true;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
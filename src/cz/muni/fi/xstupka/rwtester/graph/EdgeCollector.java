@@ -0,0 +1,177 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class collects edges from an EdgeGenerator in primitive arrays
+ * and builds the graph from them. Neighbours of each vertex are in the
+ * order the edges were generated.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+class EdgeCollector implements EdgeSink {
+    
+    // maximal size of a java array
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    
+    private int[] from;
+    private int[] to;
+    private int size;
+    
+    /**
+     * Creates a new instance of EdgeCollector.
+     * @param capacity expected number of edges, -1 if unknown
+     */
+    public EdgeCollector(long capacity) {
+        if (capacity > MAX_SIZE) {
+            throw new IllegalArgumentException("too many edges to build the graph in memory");
+        }
+        int foo = (int) Math.max(capacity, 16);
+        from = new int[foo];
+        to = new int[foo];
+        size = 0;
+    }
+    
+    /**
+     * Generates the graph of the generator in memory.
+     * @param generator generator of the graph
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph has too many edges
+     */
+    public static Graph build(EdgeGenerator generator) {
+        return build(generator, 1);
+    }
+    
+    /**
+     * Generates the graph of the generator in memory, parallel generators
+     * generate their blocks by the given number of threads.
+     * @param generator generator of the graph
+     * @param threads number of threads
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph has too many edges
+     */
+    public static Graph build(EdgeGenerator generator, int threads) {
+        EdgeCollector collector = new EdgeCollector(generator.getNumberOfEdges());
+        try {
+            if (generator instanceof ParallelEdgeGenerator) {
+                GeneratorBlocks.generate((ParallelEdgeGenerator) generator, threads, collector);
+            } else {
+                generator.generate(collector);
+            }
+        } catch (IOException ex) {
+            // the collector does not throw IOException
+            throw new IllegalStateException(ex.getMessage());
+        }
+        return collector.getGraph(generator.getNumberOfVertices(), generator.isDirected());
+    }
+    
+    /**
+     * Adds an edge.
+     * @param from index of the first vertex
+     * @param to index of the second vertex
+     * @throws IllegalArgumentException if there are too many edges
+     */
+    public void addEdge(int from, int to) {
+        if (size == this.from.length) {
+            if (size == MAX_SIZE) {
+                throw new IllegalArgumentException("too many edges to build the graph in memory");
+            }
+            int capacity = (int) Math.min(size + (long) size / 2 + 1, MAX_SIZE);
+            this.from = resize(this.from, capacity);
+            this.to = resize(this.to, capacity);
+        }
+        this.from[size] = from;
+        this.to[size] = to;
+        size++;
+    }
+    
+    /**
+     * Returns the graph of the collected edges.
+     * @param vertices number of vertices
+     * @param directed whether the graph is directed or not
+     * @return new graph
+     */
+    public Graph getGraph(int vertices, boolean directed) {
+        int[] degrees = new int[vertices];
+        int[] inDegrees = directed ? new int[vertices] : null;
+        for (int p = 0; p < size; p++) {
+            degrees[from[p]]++;
+            if (directed) {
+                inDegrees[to[p]]++;
+            } else {
+                degrees[to[p]]++;
+            }
+        }
+        
+        List<Vertex> collection = new ArrayList<Vertex>(vertices);
+        List<List<Vertex>> neighbours = new ArrayList<List<Vertex>>(vertices);
+        for (int p = 0; p < vertices; p++) {
+            Vertex vertex = new Vertex(p + "");
+            if (directed) {
+                vertex.setInDegree(inDegrees[p]);
+            }
+            collection.add(vertex);
+            neighbours.add(new ArrayList<Vertex>(degrees[p]));
+        }
+        
+        for (int p = 0; p < size; p++) {
+            neighbours.get(from[p]).add(collection.get(to[p]));
+            if (!directed) {
+                neighbours.get(to[p]).add(collection.get(from[p]));
+            }
+        }
+        
+        for (int p = 0; p < vertices; p++) {
+            if (degrees[p] > 0) {
+                collection.get(p).setNeighbours(neighbours.get(p), null);
+            }
+        }
+        
+        return new GraphImpl(collection, directed, false);
+    }
+    
+    /**
+     * Passes all collected edges to the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void writeTo(EdgeSink sink) throws IOException {
+        for (int p = 0; p < size; p++) {
+            sink.addEdge(from[p], to[p]);
+        }
+    }
+    
+    /**
+     * Returns number of collected edges.
+     * @return number of edges
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the first vertex of the edge.
+     * @param edge index of the edge
+     * @return index of the vertex
+     */
+    public int getFrom(int edge) {
+        return from[edge];
+    }
+    
+    /**
+     * Returns the second vertex of the edge.
+     * @param edge index of the edge
+     * @return index of the vertex
+     */
+    public int getTo(int edge) {
+        return to[edge];
+    }
+    
+    private static int[] resize(int[] array, int capacity) {
+        int[] foo = new int[capacity];
+        System.arraycopy(array, 0, foo, 0, array.length);
+        return foo;
+    }
+}
@@ -0,0 +1,39 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+
+/**
+ * Interface for graph generators that can emit edges one by one.
+ * The edges can be streamed straight to a file (see GraphStreamWriter)
+ * without building the graph in memory, the generator keeps only the state
+ * its model needs. Method getGraph builds the graph in memory.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public interface EdgeGenerator extends GraphFactory {
+    
+    /**
+     * Returns number of vertices of the generated graph.
+     * @return number of vertices
+     */
+    public int getNumberOfVertices();
+    
+    /**
+     * Returns number of edges of the generated graph.
+     * @return number of edges or -1 if it is not known before generating
+     */
+    public long getNumberOfEdges();
+    
+    /**
+     * Returns information whether the generated graph is directed or not.
+     * @return <i>true</i> if the graph is directed
+     */
+    public boolean isDirected();
+    
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException;
+}
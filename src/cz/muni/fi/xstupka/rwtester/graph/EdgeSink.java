@@ -0,0 +1,21 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+
+/**
+ * Interface for receiving edges from an EdgeGenerator.
+ * Vertices are given by their indices, the vertex with index i is named "i".
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public interface EdgeSink {
+    
+    /**
+     * Adds an edge. If the graph is directed orientation of the edge
+     * is from the first vertex to the second one.
+     * @param from index of the first vertex
+     * @param to index of the second vertex
+     * @throws IOException on error when saving the edge
+     */
+    public void addEdge(int from, int to) throws IOException;
+}
@@ -0,0 +1,192 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Helper methods for parallel generators - splitting vertices into blocks,
+ * seeds of the blocks and generating the blocks in parallel.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GeneratorBlocks {
+    
+    // maximal number of blocks
+    public static final int MAX_BLOCKS = 4096;
+    
+    // minimal number of vertices of a block
+    public static final int BLOCK_VERTICES = 1024;
+    
+    // number of blocks generated at once per thread
+    private static final int WINDOW = 2;
+    
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    
+    private GeneratorBlocks() {
+    }
+    
+    /**
+     * Returns number of blocks for the given number of vertices.
+     * @param vertices number of vertices
+     * @return number of blocks
+     */
+    public static int getBlocks(int vertices) {
+        return Math.max(1, Math.min(MAX_BLOCKS, vertices / BLOCK_VERTICES));
+    }
+    
+    /**
+     * Returns the first vertex of the block, blocks have the same
+     * number of vertices.
+     * @param vertices number of vertices
+     * @param blocks number of blocks
+     * @param block number of the block
+     * @return first vertex of the block
+     */
+    public static int getStart(int vertices, int blocks, int block) {
+        return (int) ((long) vertices * block / blocks);
+    }
+    
+    /**
+     * Returns the first vertex of the block, blocks have the same
+     * number of pairs (v, w), w &lt; v.
+     * @param vertices number of vertices
+     * @param blocks number of blocks
+     * @param block number of the block
+     * @return first vertex of the block
+     */
+    public static int getTriangularStart(int vertices, int blocks, int block) {
+        if (block >= blocks) {
+            return vertices;
+        }
+        return (int) (vertices * Math.sqrt((double) block / blocks));
+    }
+    
+    /**
+     * Returns the seed of the block (SplitMix64).
+     * @param seed seed of the generator
+     * @param block number of the block
+     * @return seed of the block
+     */
+    public static long getSeed(long seed, long block) {
+        return mix(seed + (block + 1) * GOLDEN_GAMMA);
+    }
+    
+    /**
+     * Mixes bits of the value (finalizer of SplitMix64).
+     * @param z value
+     * @return mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Generates all edges of the generator into the sink, blocks are
+     * generated in parallel into buffers which are passed to the sink
+     * in the order of the blocks.
+     * @param generator generator of the edges
+     * @param threads number of threads
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public static void generate(final ParallelEdgeGenerator generator, int threads, final EdgeSink sink) throws IOException {
+        int blocks = generator.getNumberOfBlocks();
+        if (threads == 1 || blocks == 1) {
+            generator.generate(sink);
+            return;
+        }
+        
+        generate(blocks, threads, new BlockTask<EdgeCollector>() {
+            public EdgeCollector generate(int block) throws IOException {
+                EdgeCollector collector = new EdgeCollector(-1);
+                generator.generate(block, collector);
+                return collector;
+            }
+            
+            public void write(EdgeCollector collector) throws IOException {
+                collector.writeTo(sink);
+            }
+        });
+    }
+    
+    /**
+     * Generates the blocks by several threads, a few blocks at a time,
+     * and writes them in the order of the blocks by the calling thread.
+     * @param blocks number of blocks
+     * @param threads number of threads
+     * @param task task generating and writing one block
+     * @throws IOException on error of the task
+     */
+    public static <T> void generate(int blocks, int threads, final BlockTask<T> task) throws IOException {
+        RangeExecutor executor = new RangeExecutor(threads);
+        try {
+            int window = threads * WINDOW;
+            for (int first = 0; first < blocks; first += window) {
+                final int base = first;
+                int count = Math.min(window, blocks - first);
+                List<T> results;
+                try {
+                    results = executor.execute(count, count, new RangeTask<T>() {
+                        public T compute(int from, int to) {
+                            try {
+                                return task.generate(base + from);
+                            } catch (IOException ex) {
+                                throw new BlockException(ex);
+                            }
+                        }
+                    });
+                } catch (BlockException ex) {
+                    throw ex.getIOException();
+                }
+                for (T result : results) {
+                    task.write(result);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Task generating one block of a parallel generator.
+     */
+    interface BlockTask<T> {
+        
+        /**
+         * Generates the block, called by a worker thread.
+         * @param block number of the block
+         * @return generated block
+         * @throws IOException on error when generating
+         */
+        T generate(int block) throws IOException;
+        
+        /**
+         * Writes the generated block, called by the calling thread in the
+         * order of the blocks.
+         * @param result generated block
+         * @throws IOException on error when writing
+         */
+        void write(T result) throws IOException;
+    }
+    
+    /**
+     * Carries IOException of a worker thread to the calling thread.
+     */
+    private static class BlockException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private IOException exception;
+        
+        public BlockException(IOException exception) {
+            super(exception.getMessage());
+            this.exception = exception;
+        }
+        
+        public IOException getIOException() {
+            return exception;
+        }
+    }
+}
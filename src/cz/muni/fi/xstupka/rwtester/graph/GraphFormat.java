@@ -0,0 +1,135 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class selects the loader for the format of the graph file.
+ * Supported formats are:
+ * <ul>
+ *   <li><code>text</code> - native format of GraphLoader</li>
+ *   <li><code>snap</code> - SNAP edge list (SnapLoader)</li>
+ *   <li><code>mtx</code> - Matrix Market coordinate file (MatrixMarketLoader)</li>
+ *   <li><code>metis</code> - METIS graph file (MetisLoader)</li>
+ * </ul>
+ * If the format is not given it is chosen by the extension of the file
+ * (without ".gz"): <code>.mtx</code>, <code>.metis</code>,
+ * <code>.txt</code>, <code>.edges</code> and <code>.snap</code>,
+ * other files are loaded by GraphLoader.
+ * <br/>
+ * A parsed graph is stored in a binary sidecar file next to the source
+ * (see GraphSidecar), which is loaded instead of the source next time
+ * as long as the source has not changed.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GraphFormat {
+
+    public static final String TEXT = "text";
+    public static final String SNAP = "snap";
+    public static final String MATRIX_MARKET = "mtx";
+    public static final String METIS = "metis";
+
+    private GraphFormat() {
+    }
+
+    /**
+     * Returns true if the format is supported.
+     * @param format name of the format
+     * @return true if the format is supported
+     */
+    public static boolean isSupported(String format) {
+        return TEXT.equals(format) || SNAP.equals(format)
+                || MATRIX_MARKET.equals(format) || METIS.equals(format);
+    }
+
+    /**
+     * Returns the format of the file according to its extension.
+     * @param file graph file
+     * @return name of the format
+     */
+    public static String detect(File file) {
+        String name = GzipFiles.removeSuffix(file.getName()).toLowerCase();
+        if (name.endsWith(".mtx")) {
+            return MATRIX_MARKET;
+        }
+        if (name.endsWith(".metis")) {
+            return METIS;
+        }
+        if (name.endsWith(".txt") || name.endsWith(".edges") || name.endsWith(".snap")) {
+            return SNAP;
+        }
+        return TEXT;
+    }
+
+    /**
+     * Loads the graph file, using its binary sidecar file if possible.
+     * @param file file the graph should be loaded from
+     * @param format name of the format, null if it should be detected
+     * @return loader containing the loaded graph
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static GraphFactory load(File file, String format) throws IOException, GraphLoaderException {
+        return load(file, format, true);
+    }
+
+    /**
+     * Loads the graph file.
+     * @param file file the graph should be loaded from
+     * @param format name of the format, null if it should be detected
+     * @param sidecar whether the binary sidecar file should be used
+     * (loaded if valid, written after parsing otherwise)
+     * @return loader containing the loaded graph
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static GraphFactory load(File file, String format, boolean sidecar) throws IOException, GraphLoaderException {
+        if (format == null) {
+            format = detect(file);
+        }
+        if (!isSupported(format)) {
+            throw new IllegalArgumentException("Unknown graph format '" + format + "'");
+        }
+        if (!sidecar) {
+            return parse(file, format);
+        }
+
+        final Graph graph;
+        Graph cached = GraphSidecar.load(file, format);
+        if (cached != null) {
+            graph = cached;
+        } else {
+            graph = parse(file, format).getGraph();
+            try {
+                GraphSidecar.write(file, format, graph);
+            } catch (IOException ex) {
+                // the sidecar is only an optimization (e.g. read-only directory)
+            }
+        }
+
+        return new GraphFactory() {
+            public Graph getGraph() {
+                return graph;
+            }
+        };
+    }
+
+    /**
+     * Parses the graph file by the loader of the format.
+     */
+    private static GraphFactory parse(File file, String format) throws IOException, GraphLoaderException {
+        if (format.equals(TEXT)) {
+            return new GraphLoader(file);
+        }
+        if (format.equals(SNAP)) {
+            return new SnapLoader(file);
+        }
+        if (format.equals(MATRIX_MARKET)) {
+            return new MatrixMarketLoader(file);
+        }
+        return new MetisLoader(file);
+    }
+}
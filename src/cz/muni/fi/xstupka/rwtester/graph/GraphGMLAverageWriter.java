@@ -0,0 +1,223 @@
+// File: GraphGMLAverageWriter.java
+// Doc language: Czech
+
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Trida pro zapis prumerneho grafu nahodne prochazky do dvou souboru
+ * ve formatu GML -- Graph Modelling Language. Do prvniho souboru nastavi
+ * odstin sedi vrcholu podle poctu jejich navstiveni (stejne jako
+ * <code>GraphGMLVisitedWriter</code>), do druheho podle casu prvni
+ * navstevy (stejne jako <code>GraphGMLTimeWriter</code>).
+ * <p>
+ * Rozsahy obou hodnot se spocitaji jednim pruchodem grafem a oba soubory
+ * se zapisuji soucasne jednim pruchodem vrcholy a hranami, topologie grafu
+ * se tedy prochazi jen jednou.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GraphGMLAverageWriter {
+
+    private Graph graph;
+    private long maxVisited;
+    private long minVisited;
+    private long maxTime;
+    private long minTime;
+
+    /**
+     * Vytvori instanci s nastavenim grafu pro zapsani
+     * @param graph pro zapsani do souboru
+     * @throws NullPointerException pokud je parametr <i>graph</i> null
+     */
+    public GraphGMLAverageWriter(Graph graph) {
+        if (graph == null) {
+            throw new NullPointerException("GraphGMLAverageWriter constructor: graph is null");
+        }
+        this.graph = graph;
+
+        maxVisited = Long.MIN_VALUE;
+        minVisited = Long.MAX_VALUE;
+        maxTime = Long.MIN_VALUE;
+        minTime = Long.MAX_VALUE;
+
+        for (Vertex vertex : graph.getVertices()) {
+            long visited = vertex.getValueA();
+            long time = vertex.getValueB();
+            if (visited < minVisited) {
+                minVisited = visited;
+            }
+            if (visited > maxVisited) {
+                maxVisited = visited;
+            }
+            if (time < minTime) {
+                minTime = time;
+            }
+            if (time > maxTime) {
+                maxTime = time;
+            }
+        }
+    }
+
+    /**
+     * Spocita barvu pro danou hodnotu z rozsahu min az max
+     * @param value hodnota vrcholu
+     * @param min nejmensi hodnota
+     * @param max nejvetsi hodnota
+     * @return barva v sestnackovem zapisu
+     */
+    private static String computeColor(long value, long min, long max) {
+        int color = (int) ((double)(255) / (max - min) * (value - min));
+        color = 255 - color;
+        String str = Integer.toHexString(color);
+        if (str.length() == 1) {
+            str = "0" + str;
+        }
+
+        return str + str + str;
+    }
+
+    /**
+     * Ulozi graf do obou souboru
+     * @param visitedFile soubor s odstiny podle poctu navstiveni
+     * @param timeFile soubor s odstiny podle casu prvni navstevy
+     * @throws IOException pri chybe behem ukladani
+     */
+    public void write(File visitedFile, File timeFile) throws IOException {
+        TextOutput visitedOut = GzipFiles.openOutput(visitedFile);
+        TextOutput timeOut;
+        try {
+            timeOut = GzipFiles.openOutput(timeFile);
+        } catch (IOException ex) {
+            visitedOut.close();
+            throw ex;
+        }
+        TextOutput[] outs = new TextOutput[] {visitedOut, timeOut};
+
+        try {
+            write(outs, graph.isDirected() ? "graph [\n    directed 1\n" : "graph [\n");
+
+            for (Vertex vertex : graph.getVertices()) {
+                writeVertex(visitedOut, vertex, vertex.getValueA(),
+                        computeColor(vertex.getValueA(), minVisited, maxVisited));
+                writeVertex(timeOut, vertex, vertex.getValueB(),
+                        computeColor(vertex.getValueB(), minTime, maxTime));
+            }
+
+            // vypise podle typu orientace grafu
+            if (graph.isDirected()) {
+                writeDirected(outs);
+            } else {
+                writeUndirected(outs);
+            }
+
+            write(outs, "]\n");
+        } finally {
+            visitedOut.close();
+            timeOut.close();
+        }
+    }
+
+    /**
+     * Vypise vrchol s danou hodnotou a barvou
+     * @param out soubor, do ktereho se ma vrchol vypsat
+     */
+    private static void writeVertex(TextOutput out, Vertex vertex, long value, String color) throws IOException {
+        out.write("\n"
+                + "    node [\n");
+        out.write("        name \"").write(vertex.getName()).write("\"\n");
+        out.write("        label \"").write(vertex.getName()).write(" (").write(value).write(")\"\n");
+        out.write("        graphics [\n"
+                + "            type \"ellipse\"\n"
+                + "            outline \"#000000\"\n");
+        out.write("            fill \"#").write(color).write("\"\n");
+        out.write("        ]\n"
+                + "        LabelGraphics [\n"
+                + "            color \"#ff0000\"\n"
+                + "        ]\n"
+                + "    ]\n");
+    }
+
+    /**
+     * Vypise orientovany graf
+     * @param outs soubory, do kterych se ma vypisovat
+     */
+    private void writeDirected(TextOutput[] outs) throws IOException {
+        for (Vertex vertex : graph.getVertices()) {
+            if (vertex.getNeighbours() == null) {
+                continue;
+            }
+            Iterator<Vertex> neighbours = vertex.getNeighbours().iterator();
+            Iterator<Integer> weights = graph.isWeighted() ? vertex.getWeights().iterator() : null;
+
+            // projdeme vsechny sousedy a vypiseme prislusne hrany
+            while (neighbours.hasNext()) {
+                Vertex neighbour = neighbours.next();
+                Integer weight = graph.isWeighted() ? weights.next() : null;
+                for (TextOutput out : outs) {
+                    writeEdge(out, vertex, neighbour, weight);
+                    out.write("        graphics [\n"
+                            + "            arrow \"last\"\n"
+                            + "        ]\n"
+                            + "    ]\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * Vypise neorientovany graf
+     * @param outs soubory, do kterych se ma vypisovat
+     */
+    private void writeUndirected(TextOutput[] outs) throws IOException {
+        for (Vertex vertex : graph.getVertices()) {
+            if (vertex.getNeighbours() == null) {
+                continue;
+            }
+            Iterator<Vertex> neighbours = vertex.getNeighbours().iterator();
+            Iterator<Integer> weights = graph.isWeighted() ? vertex.getWeights().iterator() : null;
+
+            /*
+             * neorientovana hrana A--B je to same jako neorientovana hrana B--A,
+             * vypiseme ji jen z vrcholu s mensim indexem (smycku jednou)
+             */
+            while (neighbours.hasNext()) {
+                Vertex neighbour = neighbours.next();
+                Integer weight = graph.isWeighted() ? weights.next() : null;
+
+                if (vertex.getIndex() <= neighbour.getIndex()) {
+                    for (TextOutput out : outs) {
+                        writeEdge(out, vertex, neighbour, weight);
+                        out.write("    ]\n");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Vypise zacatek hrany (bez ukoncujici zavorky)
+     * @param weight vaha hrany, null u neohodnoceneho grafu
+     */
+    private static void writeEdge(TextOutput out, Vertex source, Vertex target, Integer weight) throws IOException {
+        out.write("\n"
+                + "    edge [\n");
+        out.write("        source \"").write(source.getName()).write("\"\n");
+        out.write("        target \"").write(target.getName()).write("\"\n");
+        if (weight != null) {
+            out.write("        label \"").write(weight.intValue()).write("\"\n");
+        }
+    }
+
+    /**
+     * Zapise text do vsech souboru
+     */
+    private static void write(TextOutput[] outs, String text) throws IOException {
+        for (TextOutput out : outs) {
+            out.write(text);
+        }
+    }
+}
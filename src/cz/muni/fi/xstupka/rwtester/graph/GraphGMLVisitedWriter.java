@@ -4,12 +4,9 @@
 package cz.muni.fi.xstupka.rwtester.graph;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.Iterator;
 
 /**
  * Trida pro zapis grafu do souboru ve formatu GML -- Graph Modelling Language
@@ -70,15 +67,13 @@ public class GraphGMLVisitedWriter implements GraphWriter {
      * @throws IOException pri chybe behem ukladani
      */
     public void write(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
+        TextOutput out = GzipFiles.openOutput(file);
         
-        String head = "";
         if (graph.isDirected()) {
-            head = "graph [\n    directed 1\n";
+            out.write("graph [\n    directed 1\n");
         } else {
-            head = "graph [\n";
+            out.write("graph [\n");
         }
-        out.write(head);
         
         writeVertices(out);
         
@@ -97,24 +92,23 @@ public class GraphGMLVisitedWriter implements GraphWriter {
      * Do zadaneho souboru vypise vrcholy
      * @file soubor, do ktereho se maji vypsat vrcholy
      */
-    private void writeVertices(FileWriter out) throws IOException {
+    private void writeVertices(TextOutput out) throws IOException {
         Collection<Vertex> vertices = graph.getVertices();
         
         for (Vertex vertex : vertices) {
-            String line  = "\n";
-                   line += "    node [\n";
-                   line += "        name \"" + vertex.getName() + "\"\n";
-                   line += "        label \"" + vertex.getName() + " (" + vertex.getValueA() + ")\"\n";
-                   line += "        graphics [\n";
-                   line += "            type \"ellipse\"\n";
-                   line += "            outline \"#000000\"\n";
-                   line += "            fill \"#" + computeColor(vertex.getValueA()) + "\"\n";
-                   line += "        ]\n";
-                   line += "        LabelGraphics [\n";
-                   line += "            color \"#ff0000\"\n";
-                   line += "        ]\n";
-                   line += "    ]\n";
-            out.write(line);
+            out.write("\n"
+                    + "    node [\n");
+            out.write("        name \"").write(vertex.getName()).write("\"\n");
+            out.write("        label \"").write(vertex.getName()).write(" (").write(vertex.getValueA()).write(")\"\n");
+            out.write("        graphics [\n"
+                    + "            type \"ellipse\"\n"
+                    + "            outline \"#000000\"\n");
+            out.write("            fill \"#").write(computeColor(vertex.getValueA())).write("\"\n");
+            out.write("        ]\n"
+                    + "        LabelGraphics [\n"
+                    + "            color \"#ff0000\"\n"
+                    + "        ]\n"
+                    + "    ]\n");
         }
     }
     
@@ -122,36 +116,31 @@ public class GraphGMLVisitedWriter implements GraphWriter {
      * Vypise orientovany graf
      * @param out soubor, do ktereho se ma vypisovat
      */
-    private void writeDirected(FileWriter out) throws IOException {
+    private void writeDirected(TextOutput out) throws IOException {
         Collection<Vertex> vertices = graph.getVertices();
         
         for (Vertex vertex : vertices) {
-            List<Vertex> neighbours = vertex.getNeighbours();
-            List<Integer> weights = vertex.getWeights();
-            
-            if (neighbours == null) {
+            if (vertex.getNeighbours() == null) {
                 continue;
             }
+            Iterator<Vertex> neighbours = vertex.getNeighbours().iterator();
+            Iterator<Integer> weights = graph.isWeighted() ? vertex.getWeights().iterator() : null;
             
             // projdeme vsechny sousedy a vypiseme prislusne hrany
-            for (int p = 0; p < vertex.getNumberOfNeighbours(); p++) {
-                Vertex neighbour = neighbours.get(p);
+            while (neighbours.hasNext()) {
+                Vertex neighbour = neighbours.next();
                 
-                String line  = "\n";
-                       line += "    edge [\n";
-                       line += "        source \"" + vertex.getName() + "\"\n";
-                       line += "        target \"" + neighbour.getName() + "\"\n";
-                       
-                       if (graph.isWeighted()) {
-                       line += "        label \"" + weights.get(p) + "\"\n";
-                       }
-                       
-                       line += "        graphics [\n";
-                       line += "            arrow \"last\"\n";
-                       line += "        ]\n";
-                       line += "    ]\n";
-
-                out.write(line);
+                out.write("\n"
+                        + "    edge [\n");
+                out.write("        source \"").write(vertex.getName()).write("\"\n");
+                out.write("        target \"").write(neighbour.getName()).write("\"\n");
+                if (graph.isWeighted()) {
+                    out.write("        label \"").write(weights.next().intValue()).write("\"\n");
+                }
+                out.write("        graphics [\n"
+                        + "            arrow \"last\"\n"
+                        + "        ]\n"
+                        + "    ]\n");
             }
         }
     }
@@ -160,44 +149,33 @@ public class GraphGMLVisitedWriter implements GraphWriter {
      * Vypise neorientovany graf
      * @param out soubor, do ktereho se ma vypisovat
      */
-    private void writeUndirected(FileWriter out) throws IOException {
+    private void writeUndirected(TextOutput out) throws IOException {
         Collection<Vertex> vertices = graph.getVertices();
-        Set<String> lines = new HashSet<String>();
         
         for (Vertex vertex : vertices) {
-            List<Vertex> neighbours = vertex.getNeighbours();
-            List<Integer> weights = vertex.getWeights();
+            if (vertex.getNeighbours() == null) {
+                continue;
+            }
+            Iterator<Vertex> neighbours = vertex.getNeighbours().iterator();
+            Iterator<Integer> weights = graph.isWeighted() ? vertex.getWeights().iterator() : null;
             
             /*
-             * neorientovana hrana A--B je to same jako neorientovana hrana B--A
+             * neorientovana hrana A--B je to same jako neorientovana hrana B--A,
+             * vypiseme ji jen z vrcholu s mensim indexem (smycku jednou)
              */
-            for (int p = 0; p < vertex.getNumberOfNeighbours(); p++) {
-                Vertex neighbour = neighbours.get(p);
-                String line1 = "[" + vertex.getName() + "] -- [" + neighbour.getName() + "]";
-                String line2 = "[" + neighbour.getName() + "] -- [" + vertex.getName() + "]";
-                if (graph.isWeighted()) {
-                    line1 += " " + weights.get(p) + "\n";
-                    line2 += " " + weights.get(p) + "\n";
-                } else {
-                    line1 += "\n";
-                    line2 += "\n";
-                }
-
-                // pokud jsme jiz hranu nevypsali, vypiseme ji
-                if (!lines.contains(line2)) {
-                    lines.add(line1);
-                    String line  = "\n";
-                       line += "    edge [\n";
-                       line += "        source \"" + vertex.getName() + "\"\n";
-                       line += "        target \"" + neighbour.getName() + "\"\n";
-                       
-                       if (graph.isWeighted()) {
-                       line += "        label \"" + weights.get(p) + "\"\n";
-                       }
-
-                       line += "    ]\n";
+            while (neighbours.hasNext()) {
+                Vertex neighbour = neighbours.next();
+                Integer weight = graph.isWeighted() ? weights.next() : null;
 
-                    out.write(line);
+                if (vertex.getIndex() <= neighbour.getIndex()) {
+                    out.write("\n"
+                            + "    edge [\n");
+                    out.write("        source \"").write(vertex.getName()).write("\"\n");
+                    out.write("        target \"").write(neighbour.getName()).write("\"\n");
+                    if (graph.isWeighted()) {
+                        out.write("        label \"").write(weight.intValue()).write("\"\n");
+                    }
+                    out.write("    ]\n");
                 }
             }
         }
@@ -47,10 +47,12 @@ public class GraphImpl implements Graph {
         
         this.vertices = new HashMap<String, Vertex>();
         
+        int index = 0;
         for (Vertex v : builder.getGraph().getVertices()) {
             v.setValueA(0);                     // pocet navstiveni
             v.setValueB(RandomWalk.INFINITY);   // cas prvniho pristupu
             v.setParent(null);                  // predek vrcholu
+            v.setIndex(index++);
             this.vertices.put(v.getName(), v);
         }
         
@@ -60,6 +62,7 @@ public class GraphImpl implements Graph {
     
     /**
      * Creates a new instance of GraphImpl.
+     * Vertices are indexed in the order of the given collection.
      * @param vertices collection of vertices to build the graph
      * @param directed whether the graph should be directed or not
      * @param weighted whether the graph should be weighted or not
@@ -75,7 +78,9 @@ public class GraphImpl implements Graph {
         
         this.vertices = new HashMap<String, Vertex>();
         
+        int index = 0;
         for (Vertex v : vertices) {
+            v.setIndex(index++);
             this.vertices.put(v.getName(), v);
         }
         
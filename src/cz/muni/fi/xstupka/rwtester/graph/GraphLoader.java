@@ -2,7 +2,6 @@ package cz.muni.fi.xstupka.rwtester.graph;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +34,7 @@ import java.util.Set;
  * # vertex A
  * [A]
  * </pre>
+ * The file may be gzip compressed, it is decompressed while loading.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
@@ -63,7 +63,7 @@ public class GraphLoader implements GraphFactory {
     public GraphLoader(File file) throws IOException, GraphLoaderException {
         knownStructure = false;
         errorDescription = "";
-        BufferedReader in = new BufferedReader(new FileReader(file));
+        BufferedReader in = GzipFiles.openReader(file);
         Set<String> vertices = new HashSet<String>();
         
         String line = "";
@@ -0,0 +1,240 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class stores a loaded graph in a compact binary file next to its
+ * source file (<code>foo.graph</code> is stored in <code>foo.graph.bin</code>),
+ * so the next run can load the binary file instead of parsing the text.
+ * <br/>
+ * The binary file is keyed by the size, the modification time and a CRC
+ * of the beginning and the end of the source file, and by the format the
+ * source was parsed with. If the source file changed the binary file is
+ * not used. Vertices are stored in the order of their indices, the loaded
+ * graph is therefore indexed the same way as the parsed one.
+ * <br/>
+ * The file ends with a CRC of its content, so a damaged file is not used.
+ * Each writer writes its own temporary file which is then renamed, parallel
+ * runs on the same source therefore do not mix their files.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GraphSidecar {
+
+    public static final String SUFFIX = ".bin";
+
+    // "RWGB"
+    private static final int MAGIC = 0x52574742;
+    private static final int VERSION = 2;
+
+    // how many bytes from the beginning and from the end of the source are hashed
+    private static final int SAMPLE_SIZE = 1 << 20;
+
+    private GraphSidecar() {
+    }
+
+    /**
+     * Returns the binary file of the given source file.
+     * @param source source file of the graph
+     * @return binary file
+     */
+    public static File getFile(File source) {
+        return new File(source.getPath() + SUFFIX);
+    }
+
+    /**
+     * Loads the graph from the binary file of the given source file.
+     * @param source source file of the graph
+     * @param format format the source file is parsed with
+     * @return loaded graph or null if there is no binary file, it is not
+     * valid or the source file has changed
+     */
+    public static Graph load(File source, String format) {
+        File file = getFile(source);
+        if (!file.isFile() || !source.isFile()) {
+            return null;
+        }
+
+        try {
+            CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream(new FileInputStream(file), GzipFiles.BUFFER_SIZE), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    return null;
+                }
+                if (!in.readUTF().equals(format) || in.readLong() != source.length()
+                        || in.readLong() != source.lastModified() || in.readLong() != computeChecksum(source)) {
+                    return null;
+                }
+                Graph graph = read(in);
+                
+                // CRC of the content is written after it
+                long crc = checked.getChecksum().getValue();
+                if (in.readLong() != crc || in.read() >= 0) {
+                    return null;
+                }
+                return graph;
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            return null;
+        } catch (RuntimeException ex) {
+            // damaged file (e.g. index out of bounds)
+            return null;
+        }
+    }
+
+    /**
+     * Writes the graph to the binary file of the given source file.
+     * The file is written under a unique temporary name and then renamed.
+     * @param source source file of the graph
+     * @param format format the source file was parsed with
+     * @param graph graph loaded from the source file
+     * @throws IOException on error when writing
+     */
+    public static void write(File source, String format, Graph graph) throws IOException {
+        File file = getFile(source);
+        File temp = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+
+        long length = source.length();
+        long modified = source.lastModified();
+        long checksum = computeChecksum(source);
+
+        boolean written = false;
+        CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), GzipFiles.BUFFER_SIZE), new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(format);
+            out.writeLong(length);
+            out.writeLong(modified);
+            out.writeLong(checksum);
+            write(out, graph);
+            out.writeLong(checked.getChecksum().getValue());
+            written = true;
+        } finally {
+            out.close();
+            if (!written) {
+                temp.delete();
+            }
+        }
+
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("can't rename " + temp + " to " + file);
+            }
+        }
+    }
+
+    /**
+     * Writes the structure of the graph.
+     */
+    private static void write(DataOutputStream out, Graph graph) throws IOException {
+        Collection<Vertex> vertices = graph.getVertices();
+        Vertex[] indexed = new Vertex[vertices.size()];
+        for (Vertex v : vertices) {
+            indexed[v.getIndex()] = v;
+        }
+
+        out.writeBoolean(graph.isDirected());
+        out.writeBoolean(graph.isWeighted());
+        out.writeInt(indexed.length);
+        for (Vertex v : indexed) {
+            out.writeUTF(v.getName());
+            out.writeInt(v.getInDegree());
+        }
+        for (Vertex v : indexed) {
+            List<Vertex> neighbours = v.getNeighbours();
+            if (neighbours == null) {
+                out.writeInt(0);
+                continue;
+            }
+            out.writeInt(neighbours.size());
+            Iterator<Integer> weights = graph.isWeighted() ? v.getWeights().iterator() : null;
+            for (Vertex u : neighbours) {
+                out.writeInt(u.getIndex());
+                if (weights != null) {
+                    out.writeInt(weights.next().intValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the structure of the graph.
+     */
+    private static Graph read(DataInputStream in) throws IOException {
+        boolean directed = in.readBoolean();
+        boolean weighted = in.readBoolean();
+        int size = in.readInt();
+
+        List<Vertex> vertices = new ArrayList<Vertex>(size);
+        for (int p = 0; p < size; p++) {
+            Vertex v = new Vertex(in.readUTF());
+            v.setInDegree(in.readInt());
+            vertices.add(v);
+        }
+        for (Vertex v : vertices) {
+            int degree = in.readInt();
+            if (degree == 0) {
+                continue;
+            }
+            List<Vertex> neighbours = new ArrayList<Vertex>(degree);
+            List<Integer> weights = weighted ? new ArrayList<Integer>(degree) : null;
+            for (int p = 0; p < degree; p++) {
+                neighbours.add(vertices.get(in.readInt()));
+                if (weighted) {
+                    weights.add(in.readInt());
+                }
+            }
+            v.setNeighbours(neighbours, weights);
+        }
+
+        return new GraphImpl(vertices, directed, weighted);
+    }
+
+    /**
+     * Computes CRC of the beginning and the end of the file.
+     */
+    private static long computeChecksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        RandomAccessFile file = new RandomAccessFile(source, "r");
+        try {
+            byte[] buffer = new byte[SAMPLE_SIZE];
+            long length = file.length();
+            int count = (int) Math.min(length, SAMPLE_SIZE);
+            file.readFully(buffer, 0, count);
+            crc.update(buffer, 0, count);
+            if (length > SAMPLE_SIZE) {
+                count = (int) Math.min(length - SAMPLE_SIZE, SAMPLE_SIZE);
+                file.seek(length - count);
+                file.readFully(buffer, 0, count);
+                crc.update(buffer, 0, count);
+            }
+        } finally {
+            file.close();
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,169 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * This class saves a generated graph to the text file without building
+ * it in memory. Edges are written as the generator emits them, so memory
+ * used is only the state of the generator and one bit per vertex.
+ * Format of the text file respects format that is described
+ * by GraphLoader class, vertices without edges are written at the end.
+ * If the generator does not know the number of edges in advance
+ * it is written as a comment at the end of the file.
+ * <p>
+ * Blocks of a ParallelEdgeGenerator are generated and formatted by several
+ * threads, a few blocks at a time, and written in the order of the blocks.
+ * The file is the same for any number of threads.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GraphStreamWriter implements GraphWriter {
+    
+    private EdgeGenerator generator;
+    private int threads;
+    private long edges;
+    
+    /** 
+     * Creates a new instance of GraphStreamWriter.
+     * @param generator generator of the graph that should be saved
+     * @throws NullPointerException if the <i>generator</i> parametr is null
+     */
+    public GraphStreamWriter(EdgeGenerator generator) {
+        if (generator == null) {
+            throw new NullPointerException("GraphStreamWriter constructor: generator is null");
+        }
+        this.generator = generator;
+        setThreads(1);
+    }
+
+    /**
+     * Generates the graph and saves it.
+     * @param file file the graph should be saved to.
+     * @throws IOException on error when saving
+     */
+    public void write(File file) throws IOException {
+        final int vertices = generator.getNumberOfVertices();
+        long expected = generator.getNumberOfEdges();
+        final String arrow = getArrow();
+        final BitSet connected = new BitSet(vertices);
+        edges = 0;
+        
+        final TextOutput out = GzipFiles.openOutput(file);
+        try {
+            out.write("# Directed: ").write(generator.isDirected()).write("\n");
+            out.write("# Weighted: ").write(false).write("\n");
+            out.write("# Vertices: ").write(vertices).write("\n");
+            if (expected >= 0) {
+                out.write("# Edges: ").write(expected).write("\n");
+            }
+            out.write('\n');
+
+            if (threads > 1 && generator instanceof ParallelEdgeGenerator
+                    && ((ParallelEdgeGenerator) generator).getNumberOfBlocks() > 1) {
+                writeParallel(out, connected);
+            } else {
+                generator.generate(new EdgeSink() {
+                    public void addEdge(int from, int to) throws IOException {
+                        writeEdge(out, arrow, from, to);
+                        connected.set(from);
+                        connected.set(to);
+                        edges++;
+                    }
+                });
+            }
+            
+            // vertices without edges
+            for (int p = connected.nextClearBit(0); p < vertices; p = connected.nextClearBit(p + 1)) {
+                out.write('[').write(p).write("]\n");
+            }
+            
+            if (expected < 0) {
+                out.write("\n# Edges: ").write(edges).write("\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Generates and formats blocks of the parallel generator by several
+     * threads and writes them in the order of the blocks.
+     */
+    private void writeParallel(final TextOutput out, final BitSet connected) throws IOException {
+        final ParallelEdgeGenerator parallel = (ParallelEdgeGenerator) generator;
+        final String arrow = getArrow();
+        
+        GeneratorBlocks.generate(parallel.getNumberOfBlocks(), threads, new GeneratorBlocks.BlockTask<Block>() {
+            public Block generate(int number) throws IOException {
+                Block block = new Block();
+                parallel.generate(number, block.edges);
+                TextOutput text = new TextOutput(block.text);
+                for (int p = 0; p < block.edges.size(); p++) {
+                    writeEdge(text, arrow, block.edges.getFrom(p), block.edges.getTo(p));
+                }
+                text.flush();
+                return block;
+            }
+            
+            public void write(Block block) throws IOException {
+                for (int p = 0; p < block.edges.size(); p++) {
+                    connected.set(block.edges.getFrom(p));
+                    connected.set(block.edges.getTo(p));
+                }
+                edges += block.edges.size();
+                byte[] bytes = block.text.toByteArray();
+                out.write(bytes, 0, bytes.length);
+            }
+        });
+    }
+    
+    /**
+     * Writes one edge.
+     */
+    private static void writeEdge(TextOutput out, String arrow, int from, int to) throws IOException {
+        out.write('[').write(from).write(arrow).write(to).write("]\n");
+    }
+    
+    private String getArrow() {
+        return generator.isDirected() ? "] -> [" : "] -- [";
+    }
+    
+    /**
+     * Returns number of edges written by the last call of write.
+     * @return number of written edges
+     */
+    public long getEdges() {
+        return edges;
+    }
+    
+    /**
+     * Returns the number of threads used for parallel generators.
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+    
+    /**
+     * Sets the number of threads used for parallel generators (default is 1).
+     * @param threads number of threads
+     * @throws IllegalArgumentException if <i>threads</i> is lower than 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads parameter is lower than 1");
+        }
+        this.threads = threads;
+    }
+    
+    /**
+     * Edges and text of one generated block.
+     */
+    private static class Block {
+        private EdgeCollector edges = new EdgeCollector(-1);
+        private ByteArrayOutputStream text = new ByteArrayOutputStream();
+    }
+}
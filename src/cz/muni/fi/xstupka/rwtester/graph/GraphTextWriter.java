@@ -1,19 +1,19 @@
 package cz.muni.fi.xstupka.rwtester.graph;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * This class saves the graph to the text file.
  * Format of the text file respects format that is described
  * by GraphLoader class.
+ * <p>
+ * Edges are streamed straight from the adjacency lists of the vertices,
+ * no edge lines are collected in memory. Vertices are written in the order
+ * given by VertexComparator and neighbours of each vertex in the same order,
+ * so the output of the same graph is always the same.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
@@ -39,111 +39,84 @@ public class GraphTextWriter implements GraphWriter {
      * @throws IOException on error when saving
      */
     public void write(File file) throws IOException {
-        FileWriter out = new FileWriter(file);
-        
-        String line;
-                
-        line = "# Directed: " + graph.isDirected() + "\n" +
-               "# Weighted: " + graph.isWeighted() + "\n" +
-               "# Vertices: " + graph.getNumberOfVertices() + "\n" +
-               "# Edges: " + graph.getNumberOfEdges() + "\n\n";
-        
-        out.write(line);
-        
-        if (graph.isDirected()) {
-            writeDirected(out);
-        } else {
-            writeUndirected(out);
+        TextOutput out = GzipFiles.openOutput(file);
+        try {
+            out.write("# Directed: ").write(graph.isDirected()).write("\n");
+            out.write("# Weighted: ").write(graph.isWeighted()).write("\n");
+            out.write("# Vertices: ").write(graph.getNumberOfVertices()).write("\n");
+            out.write("# Edges: ").write(graph.getNumberOfEdges()).write("\n\n");
+
+            writeEdges(out);
+        } finally {
+            out.close();
         }
-                       
-        out.close();
     }    
     
     /**
-     * Writes directed graph
+     * Writes all edges of the graph. An edge of the undirected graph
+     * is written only once, from the vertex that goes first.
      */
-    private void writeDirected(FileWriter out) throws IOException {
-        Collection<Vertex> vertices = graph.getVertices();
-        Set<String> lines = new HashSet<String>();
-        
+    private void writeEdges(TextOutput out) throws IOException {
+        Vertex[] vertices = VertexComparator.sort(graph.getVertices());
+        String arrow = graph.isDirected() ? "] -> [" : "] -- [";
+        boolean undirected = !graph.isDirected();
+        boolean weighted = graph.isWeighted();
+
+        // rank of each vertex (by vertex index) in the sorted order
+        int[] rank = new int[vertices.length];
+        for (int p = 0; p < vertices.length; p++) {
+            rank[vertices[p].getIndex()] = p;
+        }
+
+        // buffers reused for neighbours of all vertices
+        Vertex[] neighbours = new Vertex[0];
+        int[] weights = new int[0];
+        long[] keys = new long[0];
+
         for (Vertex v : vertices) {
-            List<Vertex> neighbours = v.getNeighbours();
-            List<Integer> weights = v.getWeights();
+            int count = v.getNumberOfNeighbours();
 
             // if the vertex has no neighbours only this vertex is written
-            if (v.getNumberOfNeighbours() == 0) {
-                out.write("[" + v.getName() + "]\n");
+            if (count == 0) {
+                out.write('[').write(v.getName()).write("]\n");
+                continue;
             }
-            
-            // we write all vertex's neighbours
-            for (int p = 0; p < v.getNumberOfNeighbours(); p++) {
-                Vertex u = neighbours.get(p);
-                String line = "[" + v.getName() + "] -> [" + u.getName() + "]";
-                if (graph.isWeighted()) {
-                    line += " " + weights.get(p) + "\n";
-                } else {
-                    line += "\n";
-                }
-                lines.add(line);
+
+            if (neighbours.length < count) {
+                neighbours = new Vertex[count];
+                weights = new int[count];
+                keys = new long[count];
             }
-        }
-        
-        // all lines are written to the file
-        printLines(lines, out);
-    }
 
-    /**
-     * Writes undirected graph
-     */
-    private void writeUndirected(FileWriter out) throws IOException {
-        Collection<Vertex> vertices = graph.getVertices();
-        Set<String> lines = new HashSet<String>();
-        
-        for (Vertex v : vertices) {
-            List<Vertex> neighbours = v.getNeighbours();
-            List<Integer> weights = v.getWeights();
-            
-            // if the vertex has no neighbours only this vertex is written
-            if (v.getNumberOfNeighbours() == 0) {
-                out.write("[" + v.getName() + "]\n");
+            // neighbours are sorted by their rank, the low half of the key
+            // is the position of the neighbour in the adjacency list
+            Iterator<Vertex> vertexIterator = v.getNeighbours().iterator();
+            Iterator<Integer> weightIterator = weighted ? v.getWeights().iterator() : null;
+            for (int p = 0; p < count; p++) {
+                neighbours[p] = vertexIterator.next();
+                weights[p] = weighted ? weightIterator.next() : 0;
+                keys[p] = ((long) rank[neighbours[p].getIndex()] << 32) | p;
             }
+            Arrays.sort(keys, 0, count);
 
-            /*
-             * undirected edge A--B is the same as undirected edge B--A
-             */
-            for (int p = 0; p < v.getNumberOfNeighbours(); p++) {
-                Vertex u = neighbours.get(p);
-                String line1 = "[" + v.getName() + "] -- [" + u.getName() + "]";
-                String line2 = "[" + u.getName() + "] -- [" + v.getName() + "]";
-                if (graph.isWeighted()) {
-                    line1 += " " + weights.get(p) + "\n";
-                    line2 += " " + weights.get(p) + "\n";
-                } else {
-                    line1 += "\n";
-                    line2 += "\n";
+            int from = rank[v.getIndex()];
+            for (int p = 0; p < count; p++) {
+                int position = (int) keys[p];
+                Vertex u = neighbours[position];
+
+                /*
+                 * undirected edge A--B is the same as undirected edge B--A
+                 */
+                if (undirected && (int) (keys[p] >>> 32) < from) {
+                    continue;
                 }
 
-                if (!lines.contains(line2)) {
-                    lines.add(line1);
+                out.write('[').write(v.getName()).write(arrow).write(u.getName()).write(']');
+                if (weighted) {
+                    out.write(' ').write(weights[position]);
                 }
+                out.write('\n');
             }
         }
-        
-        // all lines are written to the file
-        printLines(lines, out);
-        
-    }
-    
-    /**
-     * Prints all lines to the file
-     */
-    private void printLines(Set<String> lines, FileWriter out) throws IOException {
-        
-        List<String> list = new ArrayList<String>((Collection<String>) lines);
-        Collections.sort(list);
-        
-        for (String line : list) {
-            out.write(line);
-        }
     }
 }
@@ -0,0 +1,117 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class opens graph and result files that may be gzip compressed.
+ * Compressed input is recognized by the gzip magic number, so compressed
+ * files are read transparently whatever their names are. Output is
+ * compressed if the name of the file ends with ".gz".
+ * All streams use large buffers.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class GzipFiles {
+
+    public static final String SUFFIX = ".gz";
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    // first two bytes of each gzip file
+    private static final int MAGIC_1 = 0x1f;
+    private static final int MAGIC_2 = 0x8b;
+
+    private GzipFiles() {
+    }
+
+    /**
+     * Opens the file for reading, gzip compressed file is decompressed.
+     * @param file file that should be read
+     * @return buffered stream with the (decompressed) content of the file
+     * @throws IOException if the file can't be opened
+     */
+    public static InputStream openInput(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            in.mark(2);
+            boolean compressed = in.read() == MAGIC_1 && in.read() == MAGIC_2;
+            in.reset();
+            if (compressed) {
+                in = new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+            }
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+        return in;
+    }
+
+    /**
+     * Opens the text file for reading, gzip compressed file is decompressed.
+     * @param file file that should be read
+     * @return buffered reader with the (decompressed) content of the file
+     * @throws IOException if the file can't be opened
+     */
+    public static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(openInput(file)), BUFFER_SIZE);
+    }
+
+    /**
+     * Opens the file for writing. If the name of the file ends with ".gz"
+     * the written text is gzip compressed.
+     * @param file file that should be written
+     * @return output writing to the file
+     * @throws IOException if the file can't be opened
+     */
+    public static TextOutput openOutput(File file) throws IOException {
+        return openOutput(file, false);
+    }
+
+    /**
+     * Opens the file for writing. If the name of the file ends with ".gz"
+     * the written text is gzip compressed, appended text is written
+     * as a new gzip member (concatenated members are read as one stream).
+     * @param file file that should be written
+     * @param append true if the text should be appended to the file
+     * @return output writing to the file
+     * @throws IOException if the file can't be opened
+     */
+    public static TextOutput openOutput(File file, boolean append) throws IOException {
+        if (isCompressed(file)) {
+            return new TextOutput(new GZIPOutputStream(new FileOutputStream(file, append), BUFFER_SIZE));
+        }
+        if (append) {
+            return new TextOutput(new FileOutputStream(file, true));
+        }
+        return new TextOutput(file);
+    }
+
+    /**
+     * Returns true if the file is written compressed.
+     * @param file file to be tested
+     * @return true if the name of the file ends with ".gz"
+     */
+    public static boolean isCompressed(File file) {
+        return file.getName().endsWith(SUFFIX);
+    }
+
+    /**
+     * Returns the name without the ".gz" suffix.
+     * @param name file name
+     * @return file name without the ".gz" suffix
+     */
+    public static String removeSuffix(String name) {
+        if (name.endsWith(SUFFIX)) {
+            return name.substring(0, name.length() - SUFFIX.length());
+        }
+        return name;
+    }
+}
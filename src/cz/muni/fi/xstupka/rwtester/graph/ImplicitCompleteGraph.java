@@ -0,0 +1,53 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Implicit complete graph K_n. Neighbours of the vertex v are all other
+ * vertices in the order of their indices.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ImplicitCompleteGraph extends ImplicitGraph {
+
+    private int size;
+
+    /**
+     * Creates a new instance of ImplicitCompleteGraph.
+     * @param vertices number of vertices
+     * @throws IllegalArgumentException if the number of vertices is not positive
+     */
+    public ImplicitCompleteGraph(int vertices) {
+        super(check(vertices));
+        size = vertices;
+    }
+
+    private static int check(int vertices) {
+        if (vertices < 1) {
+            throw new IllegalArgumentException("number of vertices is not positive");
+        }
+        return vertices;
+    }
+
+    public int getDegree(int vertex) {
+        return size - 1;
+    }
+
+    public int getNeighbour(int vertex, int neighbour) {
+        return neighbour < vertex ? neighbour : neighbour + 1;
+    }
+
+    public int getDistance(int from, int to) {
+        return from == to ? 0 : 1;
+    }
+
+    public long getEdges() {
+        return (long) size * (size - 1) / 2;
+    }
+
+    public ImplicitGraph copy() {
+        return new ImplicitCompleteGraph(size);
+    }
+
+    public String toString() {
+        return "K" + size;
+    }
+}
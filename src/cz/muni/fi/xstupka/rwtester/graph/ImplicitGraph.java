@@ -0,0 +1,198 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * This class is a base of graphs whose edges are not stored at all.
+ * Neighbours of a vertex are computed from its index, the graph therefore
+ * keeps only the vertices (which hold the state of the algorithms, e.g.
+ * of the random walk) and the memory does not depend on the number of
+ * edges. Vertex names are their indices.
+ * <br/>
+ * Implicit graphs are undirected, unweighted and connected. Their
+ * structure can't be changed, <code>addNeighbour</code> throws
+ * VertexException.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public abstract class ImplicitGraph implements Graph {
+
+    private Vertex[] vertices;
+
+    /**
+     * Creates a new instance of ImplicitGraph.
+     * @param vertices number of vertices
+     */
+    protected ImplicitGraph(int vertices) {
+        this.vertices = new Vertex[vertices];
+        for (int p = 0; p < vertices; p++) {
+            this.vertices[p] = new ImplicitVertex(this, p);
+        }
+    }
+
+    /**
+     * Returns degree of the vertex.
+     * @param vertex index of the vertex
+     * @return degree of the vertex
+     */
+    public abstract int getDegree(int vertex);
+
+    /**
+     * Returns a neighbour of the vertex.
+     * @param vertex index of the vertex
+     * @param neighbour number of the neighbour (0 .. degree - 1)
+     * @return index of the neighbour
+     */
+    public abstract int getNeighbour(int vertex, int neighbour);
+
+    /**
+     * Returns the length of the shortest path between two vertices.
+     * @param from index of the first vertex
+     * @param to index of the second vertex
+     * @return distance of the vertices
+     */
+    public abstract int getDistance(int from, int to);
+
+    /**
+     * Returns exact number of edges.
+     * @return number of edges
+     */
+    public abstract long getEdges();
+
+    /**
+     * Returns a new graph with the same structure and new vertices.
+     * @return copy of the graph
+     */
+    public abstract ImplicitGraph copy();
+
+    /**
+     * Returns the vertex with the given index.
+     * @param index index of the vertex
+     * @return vertex
+     */
+    public Vertex getVertex(int index) {
+        return vertices[index];
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public boolean isWeighted() {
+        return false;
+    }
+
+    public Collection<Vertex> getVertices() {
+        return Arrays.asList(vertices);
+    }
+
+    public Vertex getVertex(String name) throws GraphException {
+        try {
+            int index = Integer.parseInt(name);
+            if (index >= 0 && index < vertices.length && name.equals(index + "")) {
+                return vertices[index];
+            }
+        } catch (NumberFormatException ex) {
+            // not an index
+        }
+        throw new GraphException("No vertex '" + name + "' found");
+    }
+
+    public int getNumberOfVertices() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns number of edges, at most Integer.MAX_VALUE.
+     * @return number of edges
+     * @see #getEdges()
+     */
+    public int getNumberOfEdges() {
+        return (int) Math.min(getEdges(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Vertex of an implicit graph, its neighbours are computed by the graph.
+     */
+    private static class ImplicitVertex extends Vertex {
+
+        private ImplicitGraph graph;
+
+        public ImplicitVertex(ImplicitGraph graph, int index) {
+            super(null);
+            this.graph = graph;
+            setIndex(index);
+        }
+
+        public String getName() {
+            return getIndex() + "";
+        }
+
+        public void addNeighbour(Vertex neighbour) throws VertexException {
+            throw new VertexException("Implicit graph can't be changed");
+        }
+
+        public void addNeighbour(Vertex neighbour, int weight) throws VertexException {
+            throw new VertexException("Implicit graph can't be changed");
+        }
+
+        public int getDegree() {
+            return graph.getDegree(getIndex());
+        }
+
+        public int getNumberOfNeighbours() {
+            return graph.getDegree(getIndex());
+        }
+
+        public List<Vertex> getNeighbours() {
+            return new NeighbourList(graph, getIndex());
+        }
+
+        public boolean equals(Object o) {
+            if (o instanceof ImplicitVertex) {
+                return ((ImplicitVertex) o).getIndex() == getIndex();
+            }
+            if (o instanceof Vertex) {
+                return getName().equals(((Vertex) o).getName());
+            }
+            return false;
+        }
+
+        public int hashCode() {
+            return getName().hashCode();
+        }
+
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /**
+     * Read-only view of the neighbours of a vertex.
+     */
+    private static class NeighbourList extends AbstractList<Vertex> implements RandomAccess {
+
+        private ImplicitGraph graph;
+        private int vertex;
+
+        public NeighbourList(ImplicitGraph graph, int vertex) {
+            this.graph = graph;
+            this.vertex = vertex;
+        }
+
+        public Vertex get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            return graph.vertices[graph.getNeighbour(vertex, index)];
+        }
+
+        public int size() {
+            return graph.getDegree(vertex);
+        }
+    }
+}
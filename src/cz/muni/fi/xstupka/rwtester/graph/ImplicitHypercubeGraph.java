@@ -0,0 +1,57 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Implicit hypercube Q_d with 2^d vertices. Two vertices are adjacent if
+ * their indices differ in exactly one bit, the neighbour p of the vertex v
+ * is v xor 2^p.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ImplicitHypercubeGraph extends ImplicitGraph {
+
+    // vertices are indexed by int
+    public static final int MAX_DIMENSION = 30;
+
+    private int dimension;
+
+    /**
+     * Creates a new instance of ImplicitHypercubeGraph.
+     * @param dimension dimension of the hypercube
+     * @throws IllegalArgumentException if the dimension is out of range
+     */
+    public ImplicitHypercubeGraph(int dimension) {
+        super(getSize(dimension));
+        this.dimension = dimension;
+    }
+
+    private static int getSize(int dimension) {
+        if (dimension < 0 || dimension > MAX_DIMENSION) {
+            throw new IllegalArgumentException("dimension is not in 0 .. " + MAX_DIMENSION);
+        }
+        return 1 << dimension;
+    }
+
+    public int getDegree(int vertex) {
+        return dimension;
+    }
+
+    public int getNeighbour(int vertex, int neighbour) {
+        return vertex ^ (1 << neighbour);
+    }
+
+    public int getDistance(int from, int to) {
+        return Integer.bitCount(from ^ to);
+    }
+
+    public long getEdges() {
+        return ((long) dimension << dimension) / 2;
+    }
+
+    public ImplicitGraph copy() {
+        return new ImplicitHypercubeGraph(dimension);
+    }
+
+    public String toString() {
+        return "Q" + dimension;
+    }
+}
@@ -0,0 +1,138 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Implicit 2D or 3D grid lattice, optionally with periodic boundaries
+ * (a torus), with the same numbering as LatticeGraphGenerator: the vertex
+ * (x, y, z) has the index x + width * (y + height * z). Neighbours of
+ * a vertex are the next and the previous vertex along each dimension
+ * (if they exist). Sides of a torus with less than 3 vertices are not
+ * wrapped, the edge would repeat.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ImplicitLatticeGraph extends ImplicitGraph {
+
+    private int[] sides;
+    private int[] strides;
+    private boolean torus;
+
+    /**
+     * Creates a new instance of ImplicitLatticeGraph.
+     * @param sides number of vertices along each dimension (2 or 3 values)
+     * @param torus true for periodic boundaries
+     * @throws IllegalArgumentException if a side is not positive or there
+     * are too many vertices
+     */
+    public ImplicitLatticeGraph(int[] sides, boolean torus) {
+        super(getSize(sides));
+        this.sides = new int[sides.length];
+        System.arraycopy(sides, 0, this.sides, 0, sides.length);
+        this.torus = torus;
+
+        strides = new int[sides.length];
+        int stride = 1;
+        for (int p = 0; p < sides.length; p++) {
+            strides[p] = stride;
+            stride *= sides[p];
+        }
+    }
+
+    private static int getSize(int[] sides) {
+        if (sides.length < 2 || sides.length > 3) {
+            throw new IllegalArgumentException("lattice must have 2 or 3 dimensions");
+        }
+        long count = 1;
+        for (int side : sides) {
+            if (side <= 0) {
+                throw new IllegalArgumentException("side of the lattice is not positive");
+            }
+            count *= side;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("too many vertices");
+            }
+        }
+        return (int) count;
+    }
+
+    public int getDegree(int vertex) {
+        int degree = 0;
+        for (int p = 0; p < sides.length; p++) {
+            int side = sides[p];
+            if (torus && side > 2) {
+                degree += 2;
+            } else {
+                int coordinate = (vertex / strides[p]) % side;
+                if (coordinate > 0) {
+                    degree++;
+                }
+                if (coordinate + 1 < side) {
+                    degree++;
+                }
+            }
+        }
+        return degree;
+    }
+
+    public int getNeighbour(int vertex, int neighbour) {
+        for (int p = 0; p < sides.length; p++) {
+            int side = sides[p];
+            int stride = strides[p];
+            int coordinate = (vertex / stride) % side;
+            boolean wrap = torus && side > 2;
+
+            // next vertex along the dimension
+            if (coordinate + 1 < side || wrap) {
+                if (neighbour == 0) {
+                    return coordinate + 1 < side ? vertex + stride : vertex - coordinate * stride;
+                }
+                neighbour--;
+            }
+            // previous vertex along the dimension
+            if (coordinate > 0 || wrap) {
+                if (neighbour == 0) {
+                    return coordinate > 0 ? vertex - stride : vertex + (side - 1) * stride;
+                }
+                neighbour--;
+            }
+        }
+        throw new IndexOutOfBoundsException("vertex " + vertex + " has no such neighbour");
+    }
+
+    public int getDistance(int from, int to) {
+        int distance = 0;
+        for (int p = 0; p < sides.length; p++) {
+            int side = sides[p];
+            int difference = Math.abs((from / strides[p]) % side - (to / strides[p]) % side);
+            if (torus) {
+                difference = Math.min(difference, side - difference);
+            }
+            distance += difference;
+        }
+        return distance;
+    }
+
+    public long getEdges() {
+        long edges = 0;
+        int vertices = getNumberOfVertices();
+        for (int side : sides) {
+            long rows = vertices / side;
+            edges += rows * (torus && side > 2 ? side : side - 1);
+        }
+        return edges;
+    }
+
+    public ImplicitGraph copy() {
+        return new ImplicitLatticeGraph(sides, torus);
+    }
+
+    public String toString() {
+        StringBuilder foo = new StringBuilder(torus ? "TORUS" : "GRID");
+        for (int p = 0; p < sides.length; p++) {
+            if (p > 0) {
+                foo.append('x');
+            }
+            foo.append(sides[p]);
+        }
+        return foo.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Implicit complete k-ary tree numbered by levels as in TreeGraphGenerator,
+ * the root is 0 and children of the vertex v are v * k + 1 .. v * k + k.
+ * Neighbours of a vertex are its parent (except the root) and then its
+ * children.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class ImplicitTreeGraph extends ImplicitGraph {
+
+    private int depth;
+    private int arity;
+    private int size;
+
+    /**
+     * Creates a new instance of ImplicitTreeGraph.
+     * @param depth depth of the tree (0 = the root only)
+     * @param arity arity of the tree
+     * @throws IllegalArgumentException if a parameter is out of range or
+     * the tree has too many vertices
+     */
+    public ImplicitTreeGraph(int depth, int arity) {
+        super(getSize(depth, arity));
+        this.depth = depth;
+        this.arity = arity;
+        size = getNumberOfVertices();
+    }
+
+    /**
+     * Returns number of vertices 1 + k + k^2 + ... + k^depth.
+     */
+    private static int getSize(int depth, int arity) {
+        if (depth < 0 || arity < 1) {
+            throw new IllegalArgumentException("wrong parameters of the tree");
+        }
+        long count = 0;
+        long level = 1;
+        for (int p = 0; p <= depth; p++) {
+            count += level;
+            level *= arity;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("too many vertices");
+            }
+        }
+        return (int) count;
+    }
+
+    public int getDegree(int vertex) {
+        long first = (long) vertex * arity + 1;
+        int children = (int) Math.max(0, Math.min(arity, size - first));
+        return vertex == 0 ? children : children + 1;
+    }
+
+    public int getNeighbour(int vertex, int neighbour) {
+        if (vertex == 0) {
+            return neighbour + 1;
+        }
+        if (neighbour == 0) {
+            return (vertex - 1) / arity;
+        }
+        return vertex * arity + neighbour;
+    }
+
+    public int getDistance(int from, int to) {
+        // the parent has always a lower index, the vertex with the higher
+        // index is therefore never above the lowest common ancestor
+        int distance = 0;
+        while (from != to) {
+            if (from > to) {
+                from = (from - 1) / arity;
+            } else {
+                to = (to - 1) / arity;
+            }
+            distance++;
+        }
+        return distance;
+    }
+
+    public long getEdges() {
+        return size - 1;
+    }
+
+    public ImplicitGraph copy() {
+        return new ImplicitTreeGraph(depth, arity);
+    }
+
+    public String toString() {
+        return "T" + arity + "-" + depth;
+    }
+}
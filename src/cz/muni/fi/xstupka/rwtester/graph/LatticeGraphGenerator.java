@@ -0,0 +1,132 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+
+/**
+ * This class generates a 2D or 3D grid lattice, optionally with periodic
+ * boundaries (a torus). The vertex (x, y, z) has the index
+ * x + width * (y + height * z) and it is connected to the vertices that
+ * differ by one in a single coordinate. On a torus the last vertex of each
+ * row is also connected to the first one (only if the side has at least
+ * 3 vertices, otherwise the edge would repeat).
+ * <br/>
+ * No randomness is involved, the blocks are ranges of vertices, each
+ * vertex generates the edges to its successors in all dimensions.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class LatticeGraphGenerator implements ParallelEdgeGenerator {
+
+    private int[] sides;
+    private boolean torus;
+    private int vertices;
+    private int threads;
+
+    /**
+     * Creates a new instance of LatticeGraphGenerator.
+     *
+     * @param sides number of vertices along each dimension (2 or 3 values)
+     * @param torus true for periodic boundaries
+     * @throws IllegalArgumentException if a side is not positive or there
+     * are too many vertices
+     */
+    public LatticeGraphGenerator(int[] sides, boolean torus) {
+        if (sides.length < 2 || sides.length > 3) {
+            throw new IllegalArgumentException("lattice must have 2 or 3 dimensions");
+        }
+        long count = 1;
+        for (int side : sides) {
+            if (side <= 0) {
+                throw new IllegalArgumentException("side of the lattice is not positive");
+            }
+            count *= side;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("too many vertices");
+            }
+        }
+
+        this.sides = new int[sides.length];
+        System.arraycopy(sides, 0, this.sides, 0, sides.length);
+        this.torus = torus;
+        vertices = (int) count;
+        threads = 1;
+    }
+
+    /**
+     * Returns a generated graph.
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
+     */
+    public Graph getGraph() {
+        return EdgeCollector.build(this, threads);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+
+    /**
+     * Generates edges from the vertices of the block to their successors.
+     * @param block number of the block
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        int from = GeneratorBlocks.getStart(vertices, blocks, block);
+        int to = GeneratorBlocks.getStart(vertices, blocks, block + 1);
+
+        for (int vertex = from; vertex < to; vertex++) {
+            int rest = vertex;
+            int stride = 1;
+            for (int side : sides) {
+                int coordinate = rest % side;
+                rest /= side;
+                if (coordinate + 1 < side) {
+                    sink.addEdge(vertex, vertex + stride);
+                } else if (torus && side > 2) {
+                    sink.addEdge(vertex, vertex - coordinate * stride);
+                }
+                stride *= side;
+            }
+        }
+    }
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        long edges = 0;
+        for (int side : sides) {
+            long rows = vertices / side;
+            edges += rows * (torus && side > 2 ? side : side - 1);
+        }
+        return edges;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return GeneratorBlocks.getBlocks(vertices);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,84 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * This class splits a line of an input file into whitespace separated
+ * tokens. It is used by the importers of foreign graph formats instead
+ * of regular expressions, one instance is reused for all lines of the file.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+class LineTokenizer {
+
+    private String line;
+    private int position;
+
+    /**
+     * Creates a new instance of LineTokenizer.
+     */
+    LineTokenizer() {
+        reset("");
+    }
+
+    /**
+     * Starts tokenizing of the new line.
+     * @param line line to be tokenized
+     */
+    void reset(String line) {
+        this.line = line;
+        position = 0;
+    }
+
+    /**
+     * Returns true if there is another token on the line.
+     * @return true if there is another token on the line
+     */
+    boolean hasNext() {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position < line.length();
+    }
+
+    /**
+     * Returns the next token of the line.
+     * @return next token, null if there is no more token on the line
+     */
+    String next() {
+        if (!hasNext()) {
+            return null;
+        }
+        int start = position;
+        while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return line.substring(start, position);
+    }
+
+    /**
+     * Returns the next token of the line as an integer.
+     * @return next token as an integer
+     * @throws NumberFormatException if there is no more token or the token
+     * is not an integer
+     */
+    int nextInt() {
+        String token = next();
+        if (token == null) {
+            throw new NumberFormatException("missing number");
+        }
+        return Integer.parseInt(token);
+    }
+
+    /**
+     * Returns the number of remaining tokens on the line.
+     * @return number of remaining tokens
+     */
+    int countRemaining() {
+        int saved = position;
+        int count = 0;
+        while (next() != null) {
+            count++;
+        }
+        position = saved;
+        return count;
+    }
+}
@@ -0,0 +1,142 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class loads a graph from the Matrix Market coordinate file.
+ * The file is read as the adjacency matrix of the graph:
+ * <br/>
+ * <pre>
+ * %%MatrixMarket matrix coordinate pattern symmetric
+ * % comment
+ * 3 3 2
+ * 2 1
+ * 3 1
+ * </pre>
+ * The first line is the banner, the size line gives the number of rows,
+ * columns and entries, each entry is one edge from the row vertex to the
+ * column vertex. Vertices are named by their 1-based row numbers and all
+ * of them are added (including isolated vertices).
+ * <ul>
+ *   <li>symmetric, skew-symmetric and hermitian matrices are loaded
+ *       as undirected graphs, general matrices as directed graphs</li>
+ *   <li>integer matrices are loaded as weighted graphs, the values
+ *       of pattern, real and complex matrices are ignored</li>
+ * </ul>
+ * The file is read line by line straight into the graph, it may be gzip
+ * compressed.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class MatrixMarketLoader implements GraphFactory {
+
+    public static final String BANNER = "%%MatrixMarket";
+
+    private GraphBuilder builder;
+
+    /**
+     * Creates a new instance of MatrixMarketLoader.
+     * This constructor loads a graph from the file.
+     *
+     * @param file file the graph should be loaded from
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error or if the file
+     * does not contain a square coordinate matrix
+     */
+    public MatrixMarketLoader(File file) throws IOException, GraphLoaderException {
+        BufferedReader in = GzipFiles.openReader(file);
+        try {
+            LineTokenizer tokens = new LineTokenizer();
+
+            // banner
+            String line = in.readLine();
+            if (line == null) {
+                throw error(1, "Missing banner");
+            }
+            tokens.reset(line.toLowerCase());
+            if (!BANNER.toLowerCase().equals(tokens.next())
+                    || !"matrix".equals(tokens.next())) {
+                throw error(1, "Missing banner");
+            }
+            if (!"coordinate".equals(tokens.next())) {
+                throw error(1, "Only coordinate matrices are supported");
+            }
+            String field = tokens.next();
+            String symmetry = tokens.next();
+            if (field == null || symmetry == null) {
+                throw error(1, "Syntax missmatch");
+            }
+            boolean weighted = field.equals("integer");
+            boolean directed = symmetry.equals("general");
+
+            int size = -1;
+            long entries = 0;
+            long expected = 0;
+            int lineNo = 2;
+            while ((line = in.readLine()) != null) {
+                tokens.reset(line);
+                String first = tokens.next();
+                if (first == null || first.charAt(0) == '%') {
+                    lineNo++;
+                    continue;
+                }
+
+                try {
+                    if (size < 0) {
+                        // size line: rows columns entries
+                        size = Integer.parseInt(first);
+                        if (size != tokens.nextInt()) {
+                            throw error(lineNo, "Matrix is not square");
+                        }
+                        expected = Long.parseLong(tokens.next());
+                        builder = new GraphBuilder(directed, weighted);
+                        for (int i = 1; i <= size; i++) {
+                            builder.addVertex(String.valueOf(i));
+                        }
+                    } else {
+                        int row = Integer.parseInt(first);
+                        int column = tokens.nextInt();
+                        if (row < 1 || row > size || column < 1 || column > size) {
+                            throw error(lineNo, "Index out of range");
+                        }
+                        if (weighted) {
+                            builder.addEdge(String.valueOf(row), String.valueOf(column), tokens.nextInt());
+                        } else {
+                            builder.addEdge(String.valueOf(row), String.valueOf(column));
+                        }
+                        entries++;
+                    }
+                } catch (NumberFormatException ex) {
+                    throw error(lineNo, "Syntax missmatch");
+                }
+                lineNo++;
+            }
+
+            if (size < 0) {
+                throw error(lineNo, "Missing size line");
+            }
+            if (entries != expected) {
+                throw error(lineNo, "Expected " + expected + " entries, found " + entries);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns loaded graph.
+     * @return loaded graph
+     */
+    public Graph getGraph() {
+        return builder.getGraph();
+    }
+
+    /**
+     * Creates the parse error exception.
+     */
+    private static GraphLoaderException error(int lineNo, String description) {
+        return new GraphLoaderException("Parse Error (Line " + lineNo + ": " + description + ")");
+    }
+}
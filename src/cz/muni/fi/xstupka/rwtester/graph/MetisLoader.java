@@ -0,0 +1,143 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class loads an undirected graph from the METIS graph file.
+ * The first line contains the number of vertices, the number of edges
+ * and optionally the format code and the number of vertex weights,
+ * then the i-th line lists the neighbours of the i-th vertex:
+ * <br/>
+ * <pre>
+ * % triangle with weighted edges
+ * 3 3 001
+ * 2 5 3 1
+ * 1 5 3 2
+ * 1 1 2 2
+ * </pre>
+ * Vertices are named by their 1-based numbers. If the format code says
+ * the file has edge weights the graph is weighted, vertex sizes and vertex
+ * weights are skipped. Lines beginning with % are comments, empty line
+ * is a vertex without neighbours. The file is read line by line straight
+ * into the graph, it may be gzip compressed.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class MetisLoader implements GraphFactory {
+
+    private GraphBuilder builder;
+
+    /**
+     * Creates a new instance of MetisLoader.
+     * This constructor loads a graph from the file.
+     *
+     * @param file file the graph should be loaded from
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error
+     */
+    public MetisLoader(File file) throws IOException, GraphLoaderException {
+        BufferedReader in = GzipFiles.openReader(file);
+        try {
+            LineTokenizer tokens = new LineTokenizer();
+
+            int size = -1;
+            int vertex = 0;
+            boolean weighted = false;
+            int skip = 0; // vertex size and weights before the neighbours
+
+            String line;
+            int lineNo = 1;
+            while ((line = in.readLine()) != null) {
+                tokens.reset(line);
+                if (line.length() > 0 && line.charAt(0) == '%') {
+                    lineNo++;
+                    continue;
+                }
+
+                try {
+                    if (size < 0) {
+                        if (!tokens.hasNext()) {
+                            lineNo++;
+                            continue;
+                        }
+                        // header: vertices edges [format [constraints]]
+                        size = tokens.nextInt();
+                        tokens.next();
+                        String format = tokens.hasNext() ? tokens.next() : "0";
+                        int constraints = tokens.hasNext() ? tokens.nextInt() : 1;
+                        format = "000".substring(Math.min(format.length(), 3)) + format;
+                        if (format.length() != 3) {
+                            throw error(lineNo, "Unknown format " + format);
+                        }
+                        weighted = format.charAt(2) == '1';
+                        skip = (format.charAt(0) == '1' ? 1 : 0) + (format.charAt(1) == '1' ? constraints : 0);
+
+                        builder = new GraphBuilder(false, weighted);
+                        for (int i = 1; i <= size; i++) {
+                            builder.addVertex(String.valueOf(i));
+                        }
+                    } else {
+                        vertex++;
+                        if (vertex > size) {
+                            if (tokens.hasNext()) {
+                                throw error(lineNo, "More than " + size + " vertices");
+                            }
+                            lineNo++;
+                            continue;
+                        }
+
+                        for (int i = 0; i < skip; i++) {
+                            tokens.next();
+                        }
+                        String name = String.valueOf(vertex);
+                        while (tokens.hasNext()) {
+                            int neighbour = tokens.nextInt();
+                            if (neighbour < 1 || neighbour > size) {
+                                throw error(lineNo, "Index out of range");
+                            }
+                            int weight = weighted ? tokens.nextInt() : 0;
+                            // each edge is listed by both of its vertices
+                            if (neighbour < vertex) {
+                                continue;
+                            }
+                            if (weighted) {
+                                builder.addEdge(name, String.valueOf(neighbour), weight);
+                            } else {
+                                builder.addEdge(name, String.valueOf(neighbour));
+                            }
+                        }
+                    }
+                } catch (NumberFormatException ex) {
+                    throw error(lineNo, "Syntax missmatch");
+                }
+                lineNo++;
+            }
+
+            if (size < 0) {
+                throw error(lineNo, "Missing header");
+            }
+            if (vertex < size) {
+                throw error(lineNo, "Expected " + size + " vertices, found " + vertex);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns loaded graph.
+     * @return loaded graph
+     */
+    public Graph getGraph() {
+        return builder.getGraph();
+    }
+
+    /**
+     * Creates the parse error exception.
+     */
+    private static GraphLoaderException error(int lineNo, String description) {
+        return new GraphLoaderException("Parse Error (Line " + lineNo + ": " + description + ")");
+    }
+}
@@ -0,0 +1,32 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+
+/**
+ * Interface for edge generators whose edges can be generated in parallel.
+ * The edges are split into blocks which can be generated independently
+ * (each block has its own random generator seeded from the seed of the
+ * generator and the number of the block). The blocks do not depend on the
+ * number of threads and the edges are emitted in the order of the blocks,
+ * so the output for a given seed is always the same.
+ * Method generate(EdgeSink) generates all blocks one after another.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public interface ParallelEdgeGenerator extends EdgeGenerator {
+    
+    /**
+     * Returns number of blocks of the edges.
+     * @return number of blocks
+     */
+    public int getNumberOfBlocks();
+    
+    /**
+     * Generates edges of the given block into the sink. This method may be
+     * called for different blocks from different threads at once.
+     * @param block number of the block
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(int block, EdgeSink sink) throws IOException;
+}
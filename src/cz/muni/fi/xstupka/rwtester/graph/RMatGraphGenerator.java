@@ -0,0 +1,276 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class generates a directed R-MAT graph (Chakrabarti, Zhan, Faloutsos).
+ * The graph has 2^scale vertices and edge factor * 2^scale generated edges.
+ * Each edge is placed into the adjacency matrix by choosing one of its four
+ * quadrants with propabilities a, b, c and d recursively until one cell
+ * is left. Skewed parameters (e.g. 0.57, 0.19, 0.19, 0.05) give power-law
+ * in- and out-degrees.
+ * <br/>
+ * The rows (source vertices) are split into blocks by the highest bits of
+ * the source. The number of edges of each block is drawn by binomial
+ * splits of the edge count from the whole matrix down to the block, every
+ * split has its own seed, so the blocks are generated independently and in
+ * parallel. Edges of a block are sorted, duplicate edges and loops are
+ * removed, the number of edges is therefore known only after generating.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class RMatGraphGenerator implements ParallelEdgeGenerator {
+
+    public static final double DEFAULT_A = 0.57;
+    public static final double DEFAULT_B = 0.19;
+    public static final double DEFAULT_C = 0.19;
+    public static final double DEFAULT_D = 0.05;
+
+    // maximal scale, vertices are indexed by int
+    public static final int MAX_SCALE = 30;
+
+    // number of the highest bits of the source that select the block
+    private static final int MAX_BLOCK_BITS = 12;
+
+    // splits with lower variance are drawn exactly
+    private static final double EXACT_VARIANCE = 50;
+
+    private int scale;
+    private long edges;
+    private double a;
+    private double b;
+    private double c;
+    private double d;
+    private int blockBits;
+    private long seed;
+    private int threads;
+
+    /**
+     * Creates a new instance of RMatGraphGenerator with the default
+     * parameters a, b, c, d.
+     *
+     * @param scale binary logarithm of the number of vertices
+     * @param edgeFactor number of generated edges per vertex
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RMatGraphGenerator(int scale, int edgeFactor) {
+        this(scale, edgeFactor, DEFAULT_A, DEFAULT_B, DEFAULT_C, DEFAULT_D);
+    }
+
+    /**
+     * Creates a new instance of RMatGraphGenerator. The propabilities
+     * are normalized to sum 1.
+     *
+     * @param scale binary logarithm of the number of vertices
+     * @param edgeFactor number of generated edges per vertex
+     * @param a propability of the upper left quadrant
+     * @param b propability of the upper right quadrant
+     * @param c propability of the lower left quadrant
+     * @param d propability of the lower right quadrant
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RMatGraphGenerator(int scale, int edgeFactor, double a, double b, double c, double d) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale is not in 0 .. " + MAX_SCALE);
+        }
+        if (edgeFactor < 0) {
+            throw new IllegalArgumentException("negative edge factor");
+        }
+        if (!(a >= 0 && b >= 0 && c >= 0 && d >= 0) || a + b + c + d <= 0
+                || a + b <= 0 || c + d <= 0) {
+            throw new IllegalArgumentException("wrong propabilities");
+        }
+
+        double sum = a + b + c + d;
+        this.scale = scale;
+        this.edges = (long) edgeFactor << scale;
+        this.a = a / sum;
+        this.b = b / sum;
+        this.c = c / sum;
+        this.d = d / sum;
+        blockBits = Math.min(scale, MAX_BLOCK_BITS);
+        seed = hashCode() + System.nanoTime();
+        threads = 1;
+    }
+
+    /**
+     * Returns a generated graph.
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
+     */
+    public Graph getGraph() {
+        return EdgeCollector.build(this, threads);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+
+    /**
+     * Generates edges whose sources are in the block. The edges are
+     * sorted by the source and the target.
+     * @param block number of the block
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        long count = getBlockEdges(block);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges in one block");
+        }
+
+        Random random = new Random(GeneratorBlocks.getSeed(seed, block));
+        long[] keys = new long[(int) count];
+        int size = 0;
+        for (long p = 0; p < count; p++) {
+            long key = generateEdge(block, random);
+            // loops are removed
+            if ((int) (key >>> 32) != (int) key) {
+                keys[size++] = key;
+            }
+        }
+
+        Arrays.sort(keys, 0, size);
+        for (int p = 0; p < size; p++) {
+            if (p > 0 && keys[p] == keys[p - 1]) {
+                continue;
+            }
+            sink.addEdge((int) (keys[p] >>> 32), (int) keys[p]);
+        }
+    }
+
+    /**
+     * Generates one edge in the rows of the block.
+     * @return source in the upper 32 bits, target in the lower 32 bits
+     */
+    private long generateEdge(int block, Random random) {
+        int row = 0;
+        int column = 0;
+        for (int level = 0; level < scale; level++) {
+            double u = random.nextDouble();
+            int rowBit;
+            int columnBit;
+            if (level < blockBits) {
+                // the row is given by the block, only the column is chosen
+                rowBit = (block >>> (blockBits - 1 - level)) & 1;
+                if (rowBit == 0) {
+                    columnBit = u * (a + b) < a ? 0 : 1;
+                } else {
+                    columnBit = u * (c + d) < c ? 0 : 1;
+                }
+            } else if (u < a) {
+                rowBit = 0;
+                columnBit = 0;
+            } else if (u < a + b) {
+                rowBit = 0;
+                columnBit = 1;
+            } else if (u < a + b + c) {
+                rowBit = 1;
+                columnBit = 0;
+            } else {
+                rowBit = 1;
+                columnBit = 1;
+            }
+            row = (row << 1) | rowBit;
+            column = (column << 1) | columnBit;
+        }
+        return ((long) row << 32) | column;
+    }
+
+    /**
+     * Returns the number of edges generated in the block. The edges of
+     * a node of the binary tree of blocks are split between its two
+     * children binomially, each node has its own seed.
+     * @param block number of the block
+     * @return number of edges
+     */
+    private long getBlockEdges(int block) {
+        long count = edges;
+        long node = 1;
+        for (int level = 0; level < blockBits; level++) {
+            Random random = new Random(GeneratorBlocks.getSeed(~seed, node));
+            long upper = binomial(random, count, a + b);
+            int bit = (block >>> (blockBits - 1 - level)) & 1;
+            count = bit == 0 ? upper : count - upper;
+            node = 2 * node + bit;
+        }
+        return count;
+    }
+
+    /**
+     * Draws a binomially distributed number. Large counts are
+     * approximated by the normal distribution.
+     */
+    private static long binomial(Random random, long count, double p) {
+        if (p <= 0) {
+            return 0;
+        }
+        if (p >= 1) {
+            return count;
+        }
+
+        double variance = count * p * (1 - p);
+        if (variance > EXACT_VARIANCE) {
+            double value = Math.floor(count * p + random.nextGaussian() * Math.sqrt(variance) + 0.5);
+            return (long) Math.max(0, Math.min(count, value));
+        }
+
+        // exact - number of successes counted by geometric skips
+        // over the trials with the smaller propability
+        double q = Math.min(p, 1 - p);
+        double logSkip = Math.log(1 - q);
+        long successes = 0;
+        long trial = -1;
+        while (true) {
+            trial += 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / logSkip);
+            if (trial >= count) {
+                break;
+            }
+            successes++;
+        }
+        return q == p ? successes : count - successes;
+    }
+
+    public int getNumberOfVertices() {
+        return 1 << scale;
+    }
+
+    public long getNumberOfEdges() {
+        return -1;
+    }
+
+    public boolean isDirected() {
+        return true;
+    }
+
+    public int getNumberOfBlocks() {
+        return 1 << blockBits;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
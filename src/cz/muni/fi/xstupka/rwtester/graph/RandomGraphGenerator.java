@@ -3,26 +3,45 @@
 
 package cz.muni.fi.xstupka.rwtester.graph;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * Tato trida slouzi ke generovani nahodnych grafu.
  * Trida implementuje rozhrani <code>GraphFactory</code>.
+ * <p>
+ * Umi vytvorit graf G(n,m) - n vrcholu a m nahodne zvolenych ruznych hran,
+ * a graf G(n,p) - n vrcholu, kazda hrana je v grafu s pravdepodobnosti p.
+ * Hrana {a, b} (a &lt; b) je reprezentovana jednim cislem typu long
+ * <code>(a &lt;&lt; 32) | b</code>, hrany se tedy daji ukladat v poli
+ * primitivnich hodnot a setridit.
+ * <p>
+ * Hrany se generuji do <code>EdgeSink</code>, graf G(n,p) tedy lze zapsat
+ * primo do souboru bez jakekoliv pameti na hrany, graf G(n,m) potrebuje
+ * 8 bajtu na hranu.
+ * <p>
+ * Graf G(n,p) se generuje paralelne po blocich vrcholu (kazdy blok ma
+ * vlastni generator nahodnych cisel odvozeny od semene), graf G(n,m) je
+ * jeden blok. Pro dane semeno je graf vzdy stejny.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
-public class RandomGraphGenerator implements GraphFactory {
-    
-    private Random random;
-    private Graph graph;
-    
-    /** 
-     * Vytvori novou instanci tridy RandomGraphGenerator.
+public class RandomGraphGenerator implements ParallelEdgeGenerator {
+
+    private long seed;
+    private int threads;
+    private int vertices;
+
+    // pocet hran grafu G(n,m), -1 pro graf G(n,p)
+    private int edges;
+    private double probability;
+
+    /**
+     * Vytvori novou instanci tridy RandomGraphGenerator - graf G(n,m).
      * Nahodny graf je vytvoren tak, ze se nejprve vytvori vsechny vrcholy
      * a pak jsou mezi nimy nahodne vytvareny hrany podle pozadovaneho poctu.
-     * 
+     *
      * @param vertices z kolika vrcholu se ma graf skladat
      * @param edges z kolika hran se ma graf skladat
      * @throw IllegalArgumentException pokud je parametr <code>vertices</code> zaporny
@@ -35,94 +54,235 @@ public class RandomGraphGenerator implements GraphFactory {
         if (edges < 0) {
             throw new IllegalArgumentException("edges parameter is negative");
         }
-        
-        random = new Random();
-        random.setSeed(hashCode() + System.nanoTime());
-        
-        GraphBuilder builder = new GraphBuilder(false, false);
-        
-        // pridame vsechny vrcholy
-        for (int p = 0; p < vertices; p++) {
-            builder.addVertex(p + "");
+
+        seed = hashCode() + System.nanoTime();
+        threads = 1;
+
+        long maxEdges = getMaxEdges(vertices);
+        if (edges > maxEdges) {
+            edges = (int) maxEdges;
         }
+        this.vertices = vertices;
+        this.edges = edges;
+    }
 
-        if (vertices > 1) {
-            Set<String> setVertices = new HashSet<String>();
-            int currentEdges = 0;
-            int maxEdges = getMaxEdges(vertices);
-            
-            if (edges > maxEdges) {
-                edges = maxEdges;
-            }
-            
-            // vytvori pozadovany pocet nahodnych hran
-            while (currentEdges != edges) {
-                String edge = selectTwoUniqueNumbers(vertices);
-                if (!setVertices.contains(edge)) {
-                    setVertices.add(edge);
-                    currentEdges++;
+    /**
+     * Vytvori novou instanci tridy RandomGraphGenerator - graf G(n,p).
+     * Kazda z moznych hran je v grafu nezavisle s danou pravdepodobnosti.
+     * Misto testovani vsech dvojic vrcholu se preskakuje geometricky
+     * rozdeleny pocet dvojic (Batagelj, Brandes), cas je tedy O(n + m).
+     *
+     * @param vertices z kolika vrcholu se ma graf skladat
+     * @param probability pravdepodobnost hrany
+     * @throw IllegalArgumentException pokud je parametr <code>vertices</code> zaporny
+     * @throw IllegalArgumentException pokud pravdepodobnost neni z intervalu [0, 1]
+     */
+    public RandomGraphGenerator(int vertices, double probability) {
+        if (vertices < 0) {
+            throw new IllegalArgumentException("vertices parameter is negative");
+        }
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability parameter is not in [0, 1]");
+        }
+
+        seed = hashCode() + System.nanoTime();
+        threads = 1;
+
+        this.vertices = vertices;
+        this.edges = -1;
+        this.probability = probability;
+    }
+
+    /**
+     * Vygeneruje vsechny hrany grafu
+     *
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+
+    /**
+     * Vygeneruje hrany jednoho bloku
+     *
+     * @param block cislo bloku
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        Random random = new Random(GeneratorBlocks.getSeed(seed, block));
+        if (edges < 0) {
+            int blocks = getNumberOfBlocks();
+            generateProbability(GeneratorBlocks.getTriangularStart(vertices, blocks, block),
+                    GeneratorBlocks.getTriangularStart(vertices, blocks, block + 1), random, sink);
+            return;
+        }
+
+        long maxEdges = getMaxEdges(vertices);
+        if (edges > maxEdges / 2) {
+            // huste grafy - nahodne se vybiraji chybejici hrany
+            long[] missing = selectEdges(vertices, (int) (maxEdges - edges), random);
+            int q = 0;
+            for (int a = 0; a < vertices; a++) {
+                for (int b = a + 1; b < vertices; b++) {
+                    if (q < missing.length && missing[q] == getEdge(a, b)) {
+                        q++;
+                    } else {
+                        sink.addEdge(a, b);
+                    }
                 }
             }
+        } else {
+            for (long edge : selectEdges(vertices, edges, random)) {
+                sink.addEdge((int) (edge >>> 32), (int) edge);
+            }
+        }
+    }
 
-            // z mnoziny hran vytvori hrany grafu
-            for (String line : setVertices) {
-                String[] data = line.split("x");
-                builder.addEdge(data[0], data[1]);
+    /**
+     * Vygeneruje hrany grafu G(n,p) vedouci z vrcholu from az to - 1
+     * do vrcholu s mensim indexem
+     */
+    private void generateProbability(int from, int to, Random random, EdgeSink sink) throws IOException {
+        if (probability == 1) {
+            for (int v = from; v < to; v++) {
+                for (int w = 0; w < v; w++) {
+                    sink.addEdge(w, v);
+                }
+            }
+        } else if (probability > 0) {
+            double logSkip = Math.log(1 - probability);
+            // dvojice (w, v), w < v, se prochazeji po radcich v
+            int v = Math.max(from, 1);
+            long w = -1;
+            while (v < to) {
+                w += 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / logSkip);
+                while (w >= v && v < to) {
+                    w -= v;
+                    v++;
+                }
+                if (v < to) {
+                    sink.addEdge((int) w, v);
+                }
             }
         }
-        
-        graph = builder.getGraph();
     }
-    
+
     /**
      * Vrati maximalni pocet hran.
      * Pocita kombinacni cislo (vertices 'nad' 2), tedy pocet hran
      * uplneho grafu na 'vertices' vrcholech.
      */
-    private int getMaxEdges(int vertices) {
-        if (vertices == 1) {
+    private long getMaxEdges(int vertices) {
+        if (vertices < 2) {
             return 0;
         }
-        
-        int foo = vertices - 2;
-        int result = 1;
-        
-        for (int p = vertices; p > foo; p--) {
-            result = result * p;
+
+        return (long) vertices * (vertices - 1) / 2;
+    }
+
+    /**
+     * Vrati hranu {a, b} zakodovanou do jednoho cisla, mensi vrchol je
+     * v hornich 32 bitech.
+     */
+    private static long getEdge(int a, int b) {
+        if (a > b) {
+            return ((long) b << 32) | a;
+        }
+        return ((long) a << 32) | b;
+    }
+
+    /**
+     * Vybere zadany pocet ruznych nahodnych hran. Hrany se generuji do pole,
+     * ktere se setridi a odstrani se duplicity, chybejici hrany se pak
+     * dogeneruji.
+     *
+     * @param vertices pocet vrcholu grafu
+     * @param count pocet hran
+     * @param random generator nahodnych cisel
+     * @return setridene pole ruznych hran
+     */
+    private long[] selectEdges(int vertices, int count, Random random) {
+        long[] result = new long[count];
+        int current = 0;
+
+        while (current < count) {
+            for (int p = current; p < count; p++) {
+                result[p] = selectTwoUniqueNumbers(vertices, random);
+            }
+            Arrays.sort(result);
+
+            // odstraneni duplicit
+            current = 1;
+            for (int p = 1; p < count; p++) {
+                if (result[p] != result[current - 1]) {
+                    result[current++] = result[p];
+                }
+            }
         }
-        
-        return result / 2;
+
+        return result;
     }
-    
+
     /**
-     * Vrati dvojici rozdilnych nahodnych cisel jako string "cislo_1xcislo_2".
-     * Prvni cislo je to mensi.
+     * Vrati hranu mezi dvema rozdilnymi nahodnymi vrcholy.
      */
-    private String selectTwoUniqueNumbers(int size) {
+    private long selectTwoUniqueNumbers(int size, Random random) {
         int a = random.nextInt(size);
         int b = random.nextInt(size);
-        
+
         while (a == b) {
             b = random.nextInt(size);
         }
-        
-        String result = "";
-        
-        if (a < b) {
-            result = a + "x" + b;
-        } else {
-            result = b + "x" + a;
-        }
-        
-        return result;
+
+        return getEdge(a, b);
     }
 
     /**
      * Vraci vysledny nahodny graf
      *
      * @return nahodny graf
+     * @throw IllegalArgumentException pokud je graf prilis velky
      */
     public Graph getGraph() {
-        return graph;
+        return EdgeCollector.build(this, threads);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return edges;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return edges < 0 ? GeneratorBlocks.getBlocks(vertices) : 1;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
     }
 }
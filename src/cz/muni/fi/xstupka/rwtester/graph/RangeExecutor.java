@@ -0,0 +1,151 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This class runs a RangeTask in parallel.
+ * The index space 0 .. size-1 is split into contiguous ranges, each range
+ * is computed by one thread and the partial results are returned in the
+ * order of the ranges, so the caller can merge them deterministically.
+ * Small index spaces are computed directly in the calling thread.
+ * The worker threads are created on the first parallel run and reused by
+ * the following runs, so the executor may be called repeatedly (e.g. once
+ * per iteration of an iterative method). The threads are daemon threads,
+ * call shutdown() to release them earlier.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class RangeExecutor {
+
+    // ranges smaller than this are not worth a separate thread
+    public static final int MIN_RANGE_SIZE = 16384;
+
+    private int threads;
+    private ExecutorService pool;
+
+    /**
+     * Creates a new instance of RangeExecutor.
+     * @param threads number of threads to be used
+     * @throws IllegalArgumentException if <i>threads</i> is lower than 1
+     */
+    public RangeExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads parameter is lower than 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the default number of threads (number of available processors).
+     * @return default number of threads
+     */
+    public static int getDefaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the number of threads used by this executor.
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Runs the task over indices 0 .. size-1.
+     * @param size size of the index space
+     * @param task task to be run on each range
+     * @return partial results in the order of the ranges
+     */
+    public <T> List<T> execute(int size, RangeTask<T> task) {
+        int ranges = threads;
+        if (size / MIN_RANGE_SIZE < ranges) {
+            ranges = Math.max(1, size / MIN_RANGE_SIZE);
+        }
+        return execute(size, ranges, task);
+    }
+
+    /**
+     * Runs the task over indices 0 .. size-1 split into the given number
+     * of ranges. The ranges do not depend on the number of threads, which
+     * is useful when the result must not depend on it.
+     * @param size size of the index space
+     * @param ranges number of ranges
+     * @param task task to be run on each range
+     * @return partial results in the order of the ranges
+     */
+    public <T> List<T> execute(int size, int ranges, final RangeTask<T> task) {
+        List<T> results = new ArrayList<T>(ranges);
+
+        if (threads == 1 || ranges == 1) {
+            for (int p = 0; p < ranges; p++) {
+                results.add(task.compute(getRangeStart(size, ranges, p), getRangeStart(size, ranges, p + 1)));
+            }
+            return results;
+        }
+
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RangeExecutor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        List<Future<T>> futures = new ArrayList<Future<T>>(ranges);
+        for (int p = 0; p < ranges; p++) {
+            final int from = getRangeStart(size, ranges, p);
+            final int to = getRangeStart(size, ranges, p + 1);
+            futures.add(pool.submit(new Callable<T>() {
+                public T call() {
+                    return task.compute(from, to);
+                }
+            }));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("RangeExecutor interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+
+        return results;
+    }
+
+    /**
+     * Releases the worker threads. The executor may still be used
+     * afterwards, new threads are created when needed.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Returns the first index of the given range.
+     */
+    private static int getRangeStart(int size, int ranges, int range) {
+        return (int) ((long) size * range / ranges);
+    }
+}
@@ -0,0 +1,20 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+/**
+ * Interface for a piece of work computed over a range of indices.
+ * Instances of this interface are run by the RangeExecutor class which
+ * splits a large index space (typically vertex indices) into ranges
+ * processed by separate threads.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public interface RangeTask<T> {
+
+    /**
+     * Computes the partial result for the given range of indices.
+     * @param from first index of the range (inclusive)
+     * @param to last index of the range (exclusive)
+     * @return partial result for this range
+     */
+    public T compute(int from, int to);
+}
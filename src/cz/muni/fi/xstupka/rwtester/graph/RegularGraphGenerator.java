@@ -0,0 +1,241 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class generates a random d-regular graph by the configuration model.
+ * Every vertex gets d stubs, the stubs are matched uniformly at random and
+ * each pair of stubs becomes an edge. The stub j of the vertex v has the
+ * index v * d + j, so the array of matched stubs is directly the adjacency
+ * array of the graph (4 bytes per stub, plus 4 bytes per stub while the
+ * stubs are shuffled).
+ * <br/>
+ * Instead of rejecting the whole matching when it contains a loop or a
+ * multiple edge (the probability of a simple graph drops exponentially
+ * with d), each bad edge {u, v} is repaired by a switching with a random
+ * edge {x, y}: both are replaced by {u, x} and {v, y} if that creates no
+ * loop or multiple edge. The expected number of bad edges does not depend
+ * on n, so the repair is negligible and the graph is generated in O(n*d).
+ * Dense graphs (d &gt; (n-1)/2) are generated as complements of sparse ones.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class RegularGraphGenerator implements EdgeGenerator {
+
+    // maximal size of a java array
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    // random switchings tried for one bad edge
+    private static final int MAX_ATTEMPTS = 1000000;
+
+    private int vertices;
+    private int degree;
+    private long seed;
+
+    /**
+     * Creates a new instance of RegularGraphGenerator.
+     *
+     * @param degree degree of every vertex
+     * @param vertices number of vertices
+     * @throws IllegalArgumentException if there is no such graph or it is
+     * too large
+     */
+    public RegularGraphGenerator(int degree, int vertices) {
+        if (vertices < 0 || degree < 0) {
+            throw new IllegalArgumentException("negative parameter");
+        }
+        if (degree > 0 && degree >= vertices) {
+            throw new IllegalArgumentException("degree must be lower than the number of vertices");
+        }
+        if ((long) vertices * degree % 2 != 0) {
+            throw new IllegalArgumentException("number of vertices times degree must be even");
+        }
+        if ((long) vertices * degree > MAX_SIZE) {
+            throw new IllegalArgumentException("too many stubs");
+        }
+
+        this.vertices = vertices;
+        this.degree = degree;
+        seed = hashCode() + System.nanoTime();
+    }
+
+    /**
+     * Returns a generated graph. The vertices get their neighbours directly
+     * from the adjacency array.
+     * @return generated graph
+     */
+    public Graph getGraph() {
+        int[] adjacency = getAdjacency();
+
+        List<Vertex> collection = new ArrayList<Vertex>(vertices);
+        for (int p = 0; p < vertices; p++) {
+            collection.add(new Vertex(p + ""));
+        }
+        for (int p = 0; p < vertices && degree > 0; p++) {
+            List<Vertex> neighbours = new ArrayList<Vertex>(degree);
+            for (int q = p * degree; q < (p + 1) * degree; q++) {
+                neighbours.add(collection.get(adjacency[q]));
+            }
+            collection.get(p).setNeighbours(neighbours, null);
+        }
+
+        return new GraphImpl(collection, false, false);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int[] adjacency = getAdjacency();
+        for (int p = 0; p < vertices; p++) {
+            for (int q = p * degree; q < (p + 1) * degree; q++) {
+                if (p < adjacency[q]) {
+                    sink.addEdge(p, adjacency[q]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the adjacency array of the graph, neighbours of the vertex v
+     * are at the indices v * d .. v * d + d - 1.
+     */
+    private int[] getAdjacency() {
+        Random random = new Random(seed);
+        int complement = vertices - 1 - degree;
+        if (degree <= complement) {
+            return generateAdjacency(degree, random);
+        }
+
+        // neighbours are the vertices which are not neighbours in the complement
+        int[] foo = generateAdjacency(complement, random);
+        int[] adjacency = new int[vertices * degree];
+        int[] stamp = new int[vertices];
+        for (int p = 0; p < vertices; p++) {
+            stamp[p] = p + 1;
+            for (int q = p * complement; q < (p + 1) * complement; q++) {
+                stamp[foo[q]] = p + 1;
+            }
+            int size = p * degree;
+            for (int q = 0; q < vertices; q++) {
+                if (stamp[q] != p + 1) {
+                    adjacency[size++] = q;
+                }
+            }
+        }
+        return adjacency;
+    }
+
+    /**
+     * Matches the stubs of the vertices of the given degree and repairs
+     * loops and multiple edges.
+     */
+    private int[] generateAdjacency(int degree, Random random) {
+        int stubs = vertices * degree;
+
+        int[] order = new int[stubs];
+        for (int p = 0; p < stubs; p++) {
+            order[p] = p;
+        }
+        for (int p = stubs - 1; p > 0; p--) {
+            int q = random.nextInt(p + 1);
+            int foo = order[p];
+            order[p] = order[q];
+            order[q] = foo;
+        }
+
+        int[] adjacency = new int[stubs];
+        for (int p = 0; p < stubs; p += 2) {
+            adjacency[order[p]] = order[p + 1] / degree;
+            adjacency[order[p + 1]] = order[p] / degree;
+        }
+        order = null;
+
+        // stamp[v] == u + 1 if v was already seen among neighbours of u
+        int[] stamp = new int[vertices];
+        for (int u = 0; u < vertices; u++) {
+            for (int slot = u * degree; slot < (u + 1) * degree; slot++) {
+                int v = adjacency[slot];
+                if (v == u || stamp[v] == u + 1) {
+                    repair(adjacency, degree, u, slot, random);
+                    v = adjacency[slot];
+                }
+                stamp[v] = u + 1;
+            }
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Replaces the bad edge {u, v} (v is in the given slot of u) and
+     * a random edge {x, y} by edges {u, x} and {v, y}.
+     */
+    private void repair(int[] adjacency, int degree, int u, int slot, Random random) {
+        int v = adjacency[slot];
+        int stubs = adjacency.length;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int other = random.nextInt(stubs);
+            int x = other / degree;
+            int y = adjacency[other];
+            // adjacency tests reject also x == v and y == u
+            if (x == u || y == v || x == y
+                    || isAdjacent(adjacency, degree, u, x) || isAdjacent(adjacency, degree, v, y)) {
+                continue;
+            }
+
+            adjacency[slot] = x;
+            replace(adjacency, degree, v, u, y);
+            replace(adjacency, degree, x, y, u);
+            replace(adjacency, degree, y, x, v);
+            return;
+        }
+        throw new IllegalArgumentException("can't repair the regular graph");
+    }
+
+    private static boolean isAdjacent(int[] adjacency, int degree, int u, int v) {
+        for (int p = u * degree; p < (u + 1) * degree; p++) {
+            if (adjacency[p] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces one occurence of the neighbour of the vertex.
+     */
+    private static void replace(int[] adjacency, int degree, int vertex, int neighbour, int value) {
+        for (int p = vertex * degree; p < (vertex + 1) * degree; p++) {
+            if (adjacency[p] == neighbour) {
+                adjacency[p] = value;
+                return;
+            }
+        }
+    }
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return (long) vertices * degree / 2;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -1,8 +1,6 @@
 package cz.muni.fi.xstupka.rwtester.graph;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
 import java.util.Random;
 
 /**
@@ -13,13 +11,21 @@ import java.util.Random;
  * depends on the degree of the vertex.
  * If there are at least m other vertices the variable m equals the 
  * degree, otherwise it equals the number of other vertices.
+ * <br/>
+ * Both endpoints of every edge are stored in one array, a vertex of degree
+ * d is there d times. A uniformly chosen item of the array is therefore
+ * a vertex chosen with the propability proportional to its degree and
+ * the graph is generated in O(n*m) time. The array is the only state kept
+ * when the edges are streamed (see EdgeGenerator), 8 bytes per edge.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
-public class ScaleFreeGraphGenerator implements GraphFactory {
+public class ScaleFreeGraphGenerator implements EdgeGenerator {
     
-    private Collection<Vertex> collection;
-    private Random random;
+    private int vertices;
+    private int connect;
+    private long edges;
+    private long seed;
     
     /**
      * Creates a new instance of RandomGraphGenerator.
@@ -33,86 +39,104 @@ public class ScaleFreeGraphGenerator implements GraphFactory {
             throw new IllegalArgumentException("negative parameter");
         }
 
-        collection = new LinkedList<Vertex>();
-        random = new Random();
-        random.setSeed(hashCode() + System.nanoTime());
+        this.vertices = vertices;
+        this.connect = connect;
+        seed = hashCode() + System.nanoTime();
 
-        for (int p = 0; p < vertices; p++) {
-            List<Vertex> selectedVertices = selectVertices(connect);
-            
-            Vertex newVertex = new Vertex(p + "");
-            
-            for (Vertex vertex : selectedVertices) {
-                try {
-                    newVertex.addNeighbour(vertex);
-                    vertex.addNeighbour(newVertex);
-                } catch (VertexException ex) {
-                    // will never be thrown
-                    System.out.println("Exception occured: " + ex.getMessage());
-                }
-            }
-            
-            collection.add(newVertex);
+        edges = 0;
+        for (int p = 1; p < vertices && p < connect; p++) {
+            edges += p;
+        }
+        if (vertices > connect) {
+            edges += (long) (vertices - connect) * connect;
         }
     }
 
     /**
      * Returns a generated graph.
      * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
      */
     public Graph getGraph() {
-        return new GraphImpl(collection, false, false);
+        return EdgeCollector.build(this);
     }
 
     /**
-     * Returns the list of vertices that are chosen randomly
-     * each with a probality according to scale-free model of Barabasi.
-     * @param connect number of total vertices if possible
-     * @return list of randomly chosen vertices
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
      */
-    private List<Vertex> selectVertices(int connect) {
-        List<Vertex> result = new LinkedList<Vertex>();
-       
-        if (collection.size() < connect) {
-            connect = collection.size();
-        }
+    public void generate(EdgeSink sink) throws IOException {
+        Random random = new Random(seed);
         
-        for (int p = 0; p < connect; p++) {
-            Vertex v;
-            do {
-                v = getRandomVertex();
-            } while (result.contains(v));
-            result.add(v);
+        // endpoints of the edges, edge k is (endpoints[2k], endpoints[2k + 1])
+        BigIntArray endpoints = new BigIntArray(2 * edges);
+        long size = 0;
+        
+        // selected[v] == p if the vertex v was already selected by the vertex p
+        int[] selected = new int[vertices];
+        
+        for (int vertex = 0; vertex < vertices; vertex++) {
+            // all vertices are selected, no need to choose
+            if (vertex <= connect) {
+                for (int p = 0; p < vertex; p++) {
+                    endpoints.set(size++, vertex);
+                    endpoints.set(size++, p);
+                    sink.addEdge(vertex, p);
+                }
+                continue;
+            }
+            
+            selected[vertex] = vertex;
+            long count = size;
+            for (int p = 0; p < connect; p++) {
+                int v;
+                do {
+                    // only edges of the previous vertices
+                    v = endpoints.get(nextLong(random, count));
+                } while (selected[v] == vertex);
+                selected[v] = vertex;
+                endpoints.set(size++, vertex);
+                endpoints.set(size++, v);
+                sink.addEdge(vertex, v);
+            }
         }
-
-        return result;
     }
     
     /**
-     * Returns a random vertex. The propability that the vertex will be chosen
-     * depends on the degree of the vertex i.e. higher degree = higher propability.
+     * Returns a random number from 0 (inclusive) to the bound (exclusive).
      */
-    private Vertex getRandomVertex() {
-        if (collection.size() == 1) {
-            return (Vertex) collection.toArray()[0];
+    private static long nextLong(Random random, long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
         }
-        
-        int degreeSum = 0;
-        for (Vertex vertex : collection) {
-            degreeSum += vertex.getDegree();
-        }
-        
-        int rand = random.nextInt(degreeSum);
+        long bits;
+        long value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
 
-        int current = 0;
-        for (Vertex vertex : collection) {
-            current += vertex.getDegree();
-            if (rand < current) {
-                return vertex;
-            }
-        }
+    public int getNumberOfVertices() {
+        return vertices;
+    }
 
-        return null;
+    public long getNumberOfEdges() {
+        return edges;
+    }
+
+    public boolean isDirected() {
+        return false;
     }
-}
 
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,180 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * This class generates a Watts-Strogatz small-world graph.
+ * Vertices are placed on a ring and each vertex is connected to its k
+ * nearest neighbours (k/2 on each side). Then each edge (i, i + j) is
+ * rewired with the propability p to the edge (i, w), where w is a random
+ * vertex which is not connected to i.
+ * <br/>
+ * The edges of each vertex are generated independently (blocks of
+ * vertices have their own seeds). To avoid duplicate edges without any
+ * shared state, each pair of vertices {i, w} has one owner chosen by a
+ * hash of the pair and only the owner may rewire an edge to the other
+ * vertex. Rewired edges never hit the ring neighbourhood, so the graph
+ * always has exactly n * k / 2 edges.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class SmallWorldGraphGenerator implements ParallelEdgeGenerator {
+
+    // the edge is not rewired after so many unsuccessful attempts
+    private static final int MAX_ATTEMPTS = 64;
+
+    private int vertices;
+    private int half;
+    private double probability;
+    private long seed;
+    private int threads;
+
+    /**
+     * Creates a new instance of SmallWorldGraphGenerator.
+     *
+     * @param vertices number of vertices
+     * @param degree degree of the vertices of the ring lattice (even)
+     * @param probability propability of rewiring an edge
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public SmallWorldGraphGenerator(int vertices, int degree, double probability) {
+        if (vertices < 0) {
+            throw new IllegalArgumentException("negative number of vertices");
+        }
+        if (degree < 0 || degree % 2 != 0 || (degree > 0 && degree >= vertices)) {
+            throw new IllegalArgumentException("degree must be even and lower than the number of vertices");
+        }
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability is not in [0, 1]");
+        }
+
+        this.vertices = vertices;
+        this.half = degree / 2;
+        this.probability = probability;
+        seed = hashCode() + System.nanoTime();
+        threads = 1;
+    }
+
+    /**
+     * Returns a generated graph.
+     * @return generated graph
+     * @throws IllegalArgumentException if the graph is too large to be
+     * built in memory
+     */
+    public Graph getGraph() {
+        return EdgeCollector.build(this, threads);
+    }
+
+    /**
+     * Generates all edges of the graph into the sink.
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+
+    /**
+     * Generates edges (i, i + j) of the vertices of the block, possibly
+     * rewired.
+     * @param block number of the block
+     * @param sink sink receiving the edges
+     * @throws IOException on error of the sink
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        int from = GeneratorBlocks.getStart(vertices, blocks, block);
+        int to = GeneratorBlocks.getStart(vertices, blocks, block + 1);
+        Random random = new Random(GeneratorBlocks.getSeed(seed, block));
+        int[] rewired = new int[half];
+
+        for (int vertex = from; vertex < to; vertex++) {
+            int count = 0;
+            for (int j = 1; j <= half; j++) {
+                int target = -1;
+                if (random.nextDouble() < probability) {
+                    target = rewire(vertex, rewired, count, random);
+                }
+                if (target < 0) {
+                    target = (int) (((long) vertex + j) % vertices);
+                } else {
+                    rewired[count++] = target;
+                }
+                sink.addEdge(vertex, target);
+            }
+        }
+    }
+
+    /**
+     * Chooses a new target of the rewired edge of the vertex.
+     * @return new target or -1 if none was found
+     */
+    private int rewire(int vertex, int[] rewired, int count, Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int target = random.nextInt(vertices);
+
+            // ring neighbourhood (including the vertex itself)
+            long distance = Math.abs((long) target - vertex);
+            if (Math.min(distance, vertices - distance) <= half) {
+                continue;
+            }
+            if (!isOwner(vertex, target)) {
+                continue;
+            }
+            boolean repeated = false;
+            for (int p = 0; p < count && !repeated; p++) {
+                repeated = rewired[p] == target;
+            }
+            if (!repeated) {
+                return target;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the vertex may rewire an edge to the target.
+     */
+    private boolean isOwner(int vertex, int target) {
+        int low = Math.min(vertex, target);
+        int high = Math.max(vertex, target);
+        long hash = GeneratorBlocks.mix(seed ^ (((long) low << 32) | high));
+        return ((hash & 1) == 0) == (vertex == low);
+    }
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return (long) vertices * half;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return GeneratorBlocks.getBlocks(vertices);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
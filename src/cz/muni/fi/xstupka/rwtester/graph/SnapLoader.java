@@ -0,0 +1,138 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class loads a graph from the SNAP edge list.
+ * Each line of the file contains one edge given by two vertex names
+ * separated by whitespace, optionally followed by an integer weight
+ * (then the graph is weighted). Lines beginning with # are comments.
+ * Example:
+ * <br/>
+ * <pre>
+ * # Undirected graph: example.txt
+ * # FromNodeId	ToNodeId
+ * 0	1
+ * 0	2
+ * </pre>
+ * The graph is directed unless a comment before the first edge says it
+ * is undirected (as the headers of SNAP datasets do) or the direction is
+ * given explicitly. The file is read line by line straight into the graph,
+ * it may be gzip compressed.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class SnapLoader implements GraphFactory {
+
+    private GraphBuilder builder;
+
+    /**
+     * Creates a new instance of SnapLoader.
+     * This constructor loads a graph from the file, the direction of the
+     * graph is taken from the header comments.
+     *
+     * @param file file the graph should be loaded from
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error
+     */
+    public SnapLoader(File file) throws IOException, GraphLoaderException {
+        load(file, null);
+    }
+
+    /**
+     * Creates a new instance of SnapLoader.
+     * This constructor loads a graph from the file.
+     *
+     * @param file file the graph should be loaded from
+     * @param directed whether the graph is directed
+     * @throws IOException on error when openning the file
+     * @throws GraphLoaderException on parse error
+     */
+    public SnapLoader(File file, boolean directed) throws IOException, GraphLoaderException {
+        load(file, Boolean.valueOf(directed));
+    }
+
+    /**
+     * Returns loaded graph.
+     * @return loaded graph
+     */
+    public Graph getGraph() {
+        return builder.getGraph();
+    }
+
+    /**
+     * Loads the graph, direction null means it is read from the header.
+     */
+    private void load(File file, Boolean direction) throws IOException, GraphLoaderException {
+        BufferedReader in = GzipFiles.openReader(file);
+        try {
+            LineTokenizer tokens = new LineTokenizer();
+            boolean directed = true;
+            boolean weighted = false;
+
+            String line;
+            int lineNo = 1;
+            while ((line = in.readLine()) != null) {
+                tokens.reset(line);
+                String vertexA = tokens.next();
+                if (vertexA == null) {
+                    lineNo++;
+                    continue;
+                }
+
+                if (vertexA.charAt(0) == '#') {
+                    if (builder == null && direction == null
+                            && line.toLowerCase().indexOf("undirected") >= 0) {
+                        directed = false;
+                    }
+                    lineNo++;
+                    continue;
+                }
+
+                if (builder == null) {
+                    if (direction != null) {
+                        directed = direction.booleanValue();
+                    }
+                    weighted = tokens.countRemaining() == 2;
+                    builder = new GraphBuilder(directed, weighted);
+                }
+
+                String vertexB = tokens.next();
+                if (vertexB == null) {
+                    throw error(lineNo, "Syntax missmatch");
+                }
+                if (weighted) {
+                    int weight;
+                    try {
+                        weight = tokens.nextInt();
+                    } catch (NumberFormatException ex) {
+                        throw error(lineNo, "Graph weight");
+                    }
+                    builder.addEdge(vertexA, vertexB, weight);
+                } else {
+                    builder.addEdge(vertexA, vertexB);
+                }
+                if (tokens.hasNext()) {
+                    throw error(lineNo, weighted ? "Syntax missmatch" : "Graph weight");
+                }
+                lineNo++;
+            }
+
+            // file without edges
+            if (builder == null) {
+                builder = new GraphBuilder(direction == null ? directed : direction.booleanValue(), false);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Creates the parse error exception.
+     */
+    private static GraphLoaderException error(int lineNo, String description) {
+        return new GraphLoaderException("Parse Error (Line " + lineNo + ": " + description + ")");
+    }
+}
@@ -0,0 +1,237 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered text output used by all graph and result writers.
+ * Text is encoded straight into a reusable byte buffer which is flushed
+ * in large blocks, numbers are formatted into the buffer digit by digit
+ * without creating temporary strings. A file is written through its
+ * FileChannel, other destinations through an OutputStream.
+ * <p>
+ * ASCII characters are copied directly, other characters are encoded
+ * by the platform default charset (the same as FileWriter does).
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class TextOutput {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private FileChannel channel;
+    private OutputStream stream;
+    private byte[] buffer;
+    private ByteBuffer byteBuffer;
+    private int position;
+    private long bytesWritten;
+
+    // space for the digits of the longest long value
+    private byte[] digits = new byte[20];
+
+    /**
+     * Creates a new instance of TextOutput writing to the given file.
+     * @param file file the text should be written to
+     * @throws IOException if the file can't be opened
+     */
+    public TextOutput(File file) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        channel = out.getChannel();
+        stream = out;
+        init(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance of TextOutput writing to the given stream.
+     * @param stream stream the text should be written to
+     * @throws NullPointerException if the <i>stream</i> parameter is null
+     */
+    public TextOutput(OutputStream stream) {
+        if (stream == null) {
+            throw new NullPointerException("stream parameter is null");
+        }
+        this.stream = stream;
+        init(DEFAULT_BUFFER_SIZE);
+    }
+
+    private void init(int size) {
+        buffer = new byte[size];
+        byteBuffer = ByteBuffer.wrap(buffer);
+        position = 0;
+        bytesWritten = 0;
+    }
+
+    /**
+     * Writes a string.
+     * @param text string to be written
+     * @return this output
+     */
+    public TextOutput write(String text) throws IOException {
+        int length = text.length();
+        for (int p = 0; p < length; p++) {
+            char c = text.charAt(p);
+            if (c >= 128) {
+                // slow path for non ASCII text
+                writeBytes(text.substring(p).getBytes());
+                return this;
+            }
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = (byte) c;
+        }
+        return this;
+    }
+
+    /**
+     * Writes a single ASCII character.
+     * @param c character to be written
+     * @return this output
+     */
+    public TextOutput write(char c) throws IOException {
+        if (c >= 128) {
+            return write(String.valueOf(c));
+        }
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Writes a decimal representation of the number.
+     * @param value number to be written
+     * @return this output
+     */
+    public TextOutput write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + (int) (value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        if (buffer.length - position < count) {
+            flushBuffer();
+        }
+        while (count > 0) {
+            buffer[position++] = digits[--count];
+        }
+        return this;
+    }
+
+    /**
+     * Writes a decimal representation of the number.
+     * @param value number to be written
+     * @return this output
+     */
+    public TextOutput write(int value) throws IOException {
+        return write((long) value);
+    }
+
+    /**
+     * Writes the number in the same format as String.valueOf(double).
+     * @param value number to be written
+     * @return this output
+     */
+    public TextOutput write(double value) throws IOException {
+        return write(String.valueOf(value));
+    }
+
+    /**
+     * Writes the number in the same format as String.valueOf(boolean).
+     * @param value value to be written
+     * @return this output
+     */
+    public TextOutput write(boolean value) throws IOException {
+        return write(value ? "true" : "false");
+    }
+
+    /**
+     * Writes a byte array.
+     */
+    private void writeBytes(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes raw bytes (e.g. text formatted by another TextOutput).
+     * @param bytes array of bytes
+     * @param offset first byte to be written
+     * @param length number of bytes to be written
+     * @return this output
+     */
+    public TextOutput write(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int count = Math.min(end - offset, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+        }
+        return this;
+    }
+
+    /**
+     * Writes the content of the buffer to the destination.
+     */
+    private void flushBuffer() throws IOException {
+        if (position == 0) {
+            return;
+        }
+        if (channel != null) {
+            byteBuffer.clear();
+            byteBuffer.limit(position);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        } else {
+            stream.write(buffer, 0, position);
+        }
+        bytesWritten += position;
+        position = 0;
+    }
+
+    /**
+     * Flushes the buffered text to the destination.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        if (channel == null) {
+            stream.flush();
+        }
+    }
+
+    /**
+     * Flushes the buffered text and closes the destination.
+     */
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far (including buffered bytes).
+     * @return number of bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten + position;
+    }
+}
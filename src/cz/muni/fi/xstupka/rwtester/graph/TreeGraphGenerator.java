@@ -3,19 +3,23 @@
 
 package cz.muni.fi.xstupka.rwtester.graph;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Tato trida slouzi ke generovani n-arnich stromu.
  * Trida implementuje rozhrani <code>GraphFactory</code>.
+ * <p>
+ * Vrcholy jsou cislovany po urovnich (koren je "0"), potomci vrcholu i
+ * jsou tedy vrcholy i * arita + 1 az i * arita + arita. Hrany lze proto
+ * generovat primo do <code>EdgeSink</code> bez jakehokoliv stavu.
  *
  * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
  */
-public class TreeGraphGenerator implements GraphFactory {
+public class TreeGraphGenerator implements ParallelEdgeGenerator {
     
-    private List<Vertex> verticesList;
+    private int arity;
+    private int vertices;
+    private int threads;
 
     /** 
      * Vytvori novou instanci tridy TreeGraphGenerator
@@ -24,6 +28,7 @@ public class TreeGraphGenerator implements GraphFactory {
      * @param arity arita stromu (napr. 2 = binarni strom)
      * @throw IllegalArgumentException pokud je parametr <code>depth</code> zaporny
      * @throw IllegalArgumentException pokud je parametr <code>arity</code> mensi nez 1
+     * @throw IllegalArgumentException pokud ma strom prilis mnoho vrcholu
      */
     public TreeGraphGenerator(int depth, int arity) {
         if (depth < 0) {
@@ -33,51 +38,49 @@ public class TreeGraphGenerator implements GraphFactory {
             throw new IllegalArgumentException("arity parameter is lower than 1");
         }
         
-        verticesList = new LinkedList<Vertex>();
-        
-        // seznam seznamu vrcholu
-        // seznam na pozici 0 obsahuje pouze korem, seznam na pozici 1
-        // obsahuje vrcholy, ktere jsou primymi potomky korene, atd...
-        List<List<Vertex>> vertices = new LinkedList<List<Vertex>>();
-        
-        // citac vrcholu
-        int counter = 0;
-        
-        // vytvori vsechny seznamy podle pozadovane hloubky 
+        // pocet vrcholu 1 + arita + arita^2 + ... + arita^hloubka
+        long count = 0;
+        long level = 1;
         for (int p = 0; p <= depth; p++) {
-            List<Vertex> levelList = new LinkedList<Vertex>();
-            
-            // pokud p == 0, vytvarime koren
-            if (p == 0) {
-                Vertex vertex = new Vertex(counter + "");
-                counter++;
-                levelList.add(vertex);
-                verticesList.add(vertex);
-            } else {
-                // ke kazdemu vrcholu z predchozi urovne pridame tolik novych
-                // vrcholu, kolik udava arita
-                List<Vertex> levelUp = vertices.get(p-1);
-                
-                for (Vertex v : levelUp) {
-                    for (int q = 0; q < arity; q++) {
-                        
-                        Vertex vertex = new Vertex(counter + "");
-                        counter++;
-                        levelList.add(vertex);
-                        verticesList.add(vertex);
-                        
-                        try {
-                            v.addNeighbour(vertex);
-                            vertex.addNeighbour(v);
-                        } catch (VertexException ex) {
-                            // OK, tato vyjimka nikdy nenastane
-                            ex.printStackTrace();
-                        }
-                    }
-                }
+            count += level;
+            level *= arity;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("too many vertices");
             }
-            
-            vertices.add(levelList);
+        }
+        
+        this.arity = arity;
+        this.vertices = (int) count;
+        this.threads = 1;
+    }
+    
+    /**
+     * Vygeneruje vsechny hrany stromu (od rodice k potomkovi)
+     *
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        for (int p = 0; p < blocks; p++) {
+            generate(p, sink);
+        }
+    }
+    
+    /**
+     * Vygeneruje hrany jednoho bloku - hrany do potomku s indexy
+     * v rozsahu bloku
+     *
+     * @param block cislo bloku
+     * @param sink prijemce hran
+     * @throw IOException pri chybe prijemce hran
+     */
+    public void generate(int block, EdgeSink sink) throws IOException {
+        int blocks = getNumberOfBlocks();
+        int from = Math.max(GeneratorBlocks.getStart(vertices, blocks, block), 1);
+        int to = GeneratorBlocks.getStart(vertices, blocks, block + 1);
+        for (int p = from; p < to; p++) {
+            sink.addEdge((p - 1) / arity, p);
         }
     }
     
@@ -87,6 +90,32 @@ public class TreeGraphGenerator implements GraphFactory {
      * @return n-arni strom s korenem "0"
      */
     public Graph getGraph() {
-        return new GraphImpl((Collection<Vertex>) verticesList, false, false);
+        return EdgeCollector.build(this, threads);
+    }
+
+    // ---------------- GENEROVANO REFACTORINGEM ----------------
+
+    public int getNumberOfVertices() {
+        return vertices;
+    }
+
+    public long getNumberOfEdges() {
+        return vertices - 1;
+    }
+
+    public boolean isDirected() {
+        return false;
+    }
+
+    public int getNumberOfBlocks() {
+        return GeneratorBlocks.getBlocks(vertices);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
     }
 }
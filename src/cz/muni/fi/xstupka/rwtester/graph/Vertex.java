@@ -25,6 +25,7 @@ public class Vertex {
     private long length;
     private Vertex parent;
     private int inDegree;
+    private int index;
 
     private int neighboursCount;
     private List<Vertex> neighbours;
@@ -48,6 +49,7 @@ public class Vertex {
         neighbours = null;
         weights = null;
         inDegree = 0;
+        index = 0;
     }
     
     /**
@@ -281,10 +283,49 @@ public class Vertex {
         return length;
     }
     
+    /**
+     * Returns the index of the vertex within its graph.
+     * Vertices of a graph with n vertices are numbered 0 .. n-1, so the
+     * index can be used to store per-vertex data in plain arrays.
+     * @return index of the vertex
+     */
+    public int getIndex() {
+        return index;
+    }
+    
+    /**
+     * Sets the index of the vertex within its graph.
+     * @param index new index of the vertex
+     */
+    protected void setIndex(int index) {
+        this.index = index;
+    }
+    
     /**
      * Increases in-degree of the vertex.
      */
     protected void increaseInDegree() {
         inDegree++;
     }    
+    
+    /**
+     * Sets in-degree of the vertex.
+     * @param inDegree new in-degree
+     */
+    protected void setInDegree(int inDegree) {
+        this.inDegree = inDegree;
+    }
+    
+    /**
+     * Sets all neighbours of the vertex at once.
+     * Unlike addNeighbour this method does not check duplicities, it is
+     * used when the adjacency list is already known to be valid.
+     * @param neighbours list of neighbours
+     * @param weights list of weights of the edges, null for unweighted graphs
+     */
+    protected void setNeighbours(List<Vertex> neighbours, List<Integer> weights) {
+        this.neighbours = neighbours;
+        this.weights = weights;
+        neighboursCount = neighbours.size();
+    }
 }
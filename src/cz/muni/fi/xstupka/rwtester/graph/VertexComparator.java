@@ -0,0 +1,94 @@
+package cz.muni.fi.xstupka.rwtester.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Comparator ordering vertices by their names (ids).
+ * Names that are decimal integers are compared numerically and go before
+ * all other names, other names are compared lexicographically. This gives
+ * the natural order 0, 1, 2, ..., 10 for generated graphs.
+ *
+ * @author Pavel Stupka &lt;xstupka@fi.muni.cz&gt;
+ */
+public class VertexComparator implements Comparator<Vertex> {
+
+    /**
+     * Compares two vertices by their names.
+     * @param a first vertex
+     * @param b second vertex
+     * @return negative number, zero or positive number if the first vertex
+     * goes before, is equal to or goes after the second vertex
+     */
+    public int compare(Vertex a, Vertex b) {
+        return compareNames(a.getName(), b.getName());
+    }
+
+    /**
+     * Compares two vertex names.
+     * @param a first name
+     * @param b second name
+     * @return negative number, zero or positive number if the first name
+     * goes before, is equal to or goes after the second name
+     */
+    public static int compareNames(String a, String b) {
+        boolean numberA = isNumber(a);
+        boolean numberB = isNumber(b);
+        if (numberA && numberB) {
+            // without leading zeros the longer number is the greater one
+            String foo = stripZeros(a);
+            String bar = stripZeros(b);
+            if (foo.length() != bar.length()) {
+                return foo.length() < bar.length() ? -1 : 1;
+            }
+            int result = foo.compareTo(bar);
+            return result != 0 ? result : a.compareTo(b);
+        }
+        if (numberA) {
+            return -1;
+        }
+        if (numberB) {
+            return 1;
+        }
+        return a.compareTo(b);
+    }
+
+    /**
+     * Returns vertices of the given collection sorted by this comparator.
+     * @param vertices vertices to be sorted
+     * @return sorted array of the vertices
+     */
+    public static Vertex[] sort(Collection<Vertex> vertices) {
+        Vertex[] result = vertices.toArray(new Vertex[vertices.size()]);
+        Arrays.sort(result, new VertexComparator());
+        return result;
+    }
+
+    /**
+     * Returns true if the name consists of decimal digits only.
+     */
+    private static boolean isNumber(String name) {
+        if (name.length() == 0) {
+            return false;
+        }
+        for (int p = 0; p < name.length(); p++) {
+            char c = name.charAt(p);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes leading zeros of the number (keeps at least one digit).
+     */
+    private static String stripZeros(String number) {
+        int p = 0;
+        while (p < number.length() - 1 && number.charAt(p) == '0') {
+            p++;
+        }
+        return number.substring(p);
+    }
+}